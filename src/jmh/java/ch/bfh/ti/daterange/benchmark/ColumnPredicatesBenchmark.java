@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.benchmark;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.collection.ColumnPredicates;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeFactory;
+
+/**
+ * Compares evaluating includes and overlaps for a whole data set per object
+ * with the bulk kernels of ColumnPredicates. The kernels run in a fork with
+ * the default settings, using the scalar loop, and in a fork with the module
+ * jdk.incubator.vector added, using the Vector API if the library has been
+ * built with the <code>vector</code> profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnPredicatesBenchmark {
+
+	private static final String VECTOR = "--add-modules=jdk.incubator.vector";
+
+	@Param({ "1000", "1000000" })
+	public int size;
+
+	@Param({ "DENSE", "OVERLAPPING" })
+	public Datasets.Distribution distribution;
+
+	private long[] starts;
+
+	private long[] finishes;
+
+	private DateRange[] ranges;
+
+	private DateRange window;
+
+	private Date probeDate;
+
+	private long probe;
+
+	private long[] mask;
+
+	@Setup
+	public void setUp() {
+		long[][] columns = Datasets.columns(distribution, size, 4711);
+		starts = columns[0];
+		finishes = columns[1];
+		List<DateRange> list = Datasets.ranges(new DateRangeFactory(),
+				distribution, size, 4711);
+		ranges = list.toArray(new DateRange[0]);
+		window = Datasets.ranges(new DateRangeFactory(), distribution, 1, 815)
+				.get(0);
+		probeDate = window.getStart();
+		probe = probeDate.getTime();
+		mask = new long[ColumnPredicates.words(size)];
+	}
+
+	@Benchmark
+	public int includesObjects() {
+		int count = 0;
+		for (DateRange dr : ranges) {
+			if (dr.includes(probeDate))
+				count++;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public long[] includesColumns() {
+		ColumnPredicates.includes(starts, finishes, probe, mask);
+		return mask;
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = VECTOR)
+	public long[] includesColumnsVector() {
+		ColumnPredicates.includes(starts, finishes, probe, mask);
+		return mask;
+	}
+
+	@Benchmark
+	public int overlapsObjects() {
+		int count = 0;
+		for (DateRange dr : ranges) {
+			if (dr.overlaps(window))
+				count++;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public long[] overlapsColumns() {
+		ColumnPredicates.overlaps(starts, finishes, probe, window.getFinish()
+				.getTime(), mask);
+		return mask;
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = VECTOR)
+	public long[] overlapsColumnsVector() {
+		ColumnPredicates.overlaps(starts, finishes, probe, window.getFinish()
+				.getTime(), mask);
+		return mask;
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeFactory;
+
+/**
+ * Generates reproducible data sets of date ranges for the benchmarks. All
+ * limits are positioned at 12.00 o'clock, as the dates created by
+ * {@link DateFactory}.
+ */
+public final class Datasets {
+	/**
+	 * Not used.
+	 */
+	private Datasets() {
+	}
+
+	/**
+	 * The distribution of the date ranges of a data set.
+	 */
+	public enum Distribution {
+		/** Short, mostly disjoint date ranges packed into a few years. */
+		DENSE,
+		/** Short date ranges scattered over a century. */
+		SPARSE,
+		/** Long date ranges within a single year, overlapping heavily. */
+		OVERLAPPING
+	}
+
+	private static final long FIRST_DAY = DateFactory.toEpochDay(2000, 0, 1);
+
+	/**
+	 * Returns the starts and finishes of a data set as two columns.
+	 *
+	 * @param distribution
+	 *            The distribution.
+	 * @param size
+	 *            The number of date ranges.
+	 * @param seed
+	 *            The seed of the random generator.
+	 * @return An array holding the starts at index 0 and the finishes at index
+	 *         1, in milliseconds.
+	 */
+	public static long[][] columns(Distribution distribution, int size,
+			long seed) {
+		Random random = new Random(seed);
+		long[] starts = new long[size];
+		long[] finishes = new long[size];
+		for (int i = 0; i < size; i++) {
+			long day;
+			int length;
+			switch (distribution) {
+			case DENSE:
+				day = FIRST_DAY + random.nextInt(Math.max(1, size / 2));
+				length = 1 + random.nextInt(3);
+				break;
+			case SPARSE:
+				day = FIRST_DAY + random.nextInt(100 * 365);
+				length = 1 + random.nextInt(3);
+				break;
+			default:
+				day = FIRST_DAY + random.nextInt(365);
+				length = 30 + random.nextInt(335);
+				break;
+			}
+			starts[i] = DateFactory.fromEpochDay(day);
+			finishes[i] = DateFactory.fromEpochDay(day + length);
+		}
+		return new long[][] { starts, finishes };
+	}
+
+	/**
+	 * Returns a data set of date ranges created by the given factory.
+	 *
+	 * @param factory
+	 *            The date range factory.
+	 * @param distribution
+	 *            The distribution.
+	 * @param size
+	 *            The number of date ranges.
+	 * @param seed
+	 *            The seed of the random generator.
+	 * @return The date ranges in random order.
+	 */
+	public static List<DateRange> ranges(DateRangeFactory factory,
+			Distribution distribution, int size, long seed) {
+		long[][] columns = columns(distribution, size, seed);
+		List<DateRange> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			result.add(factory.createDateRange(new java.util.Date(columns[0][i]),
+					new java.util.Date(columns[1][i])));
+		return result;
+	}
+
+	/**
+	 * Returns a date range factory given its short name.
+	 *
+	 * @param name
+	 *            Either "pojo" or "primitive".
+	 * @return The factory.
+	 */
+	public static DateRangeFactory factory(String name) {
+		switch (name) {
+		case "pojo":
+			return new ch.bfh.ti.daterange.impl.pojo.DateRangeFactory();
+		case "primitive":
+			return new ch.bfh.ti.daterange.impl.primitive.DateRangeFactory();
+		default:
+			throw new IllegalArgumentException("Unknown factory: " + name);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.ti.daterange.DateFactory;
+
+/**
+ * Benchmarks the factory and formatting methods of DateFactory. Each benchmark
+ * method handles a single date; the dates cycle through some thousand days.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateFactoryBenchmark {
+
+	private Date[] dates;
+
+	private int index;
+
+	@Setup
+	public void setUp() {
+		dates = new Date[4096];
+		for (int i = 0; i < dates.length; i++)
+			dates[i] = new Date(DateFactory.fromEpochDay(DateFactory
+					.toEpochDay(2000, 0, 1) + i));
+	}
+
+	private int next() {
+		return index = (index + 1) & 4095;
+	}
+
+	@Benchmark
+	public Date createDate() {
+		int i = next();
+		return DateFactory.createDate(2000 + (i >> 9), i & 11, 1 + (i & 31));
+	}
+
+	@Benchmark
+	public long createDateMillis() {
+		int i = next();
+		return DateFactory.createDateMillis(2000 + (i >> 9), i & 11,
+				1 + (i & 31));
+	}
+
+	@Benchmark
+	public Date addDays() {
+		return DateFactory.addDays(dates[next()], 17);
+	}
+
+	@Benchmark
+	public String toStringDate() {
+		return DateFactory.toString(dates[next()]);
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeFactory;
+
+/**
+ * Benchmarks the predicates of DateRange implementations, and sorting lists of
+ * date ranges. Each benchmark method processes the whole data set once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateRangeBenchmark {
+
+	@Param({ "pojo", "primitive" })
+	public String implementation;
+
+	@Param({ "1000", "100000" })
+	public int size;
+
+	@Param({ "DENSE", "SPARSE", "OVERLAPPING" })
+	public Datasets.Distribution distribution;
+
+	private List<DateRange> ranges;
+
+	private Date[] probes;
+
+	private DateRange[] windows;
+
+	@Setup
+	public void setUp() {
+		DateRangeFactory factory = Datasets.factory(implementation);
+		ranges = Datasets.ranges(factory, distribution, size, 4711);
+		List<DateRange> others = Datasets.ranges(factory, distribution, 1024,
+				815);
+		probes = new Date[others.size()];
+		windows = new DateRange[others.size()];
+		for (int i = 0; i < others.size(); i++) {
+			probes[i] = others.get(i).getStart();
+			windows[i] = others.get(i);
+		}
+	}
+
+	@Benchmark
+	public int includes() {
+		int count = 0;
+		for (int i = 0; i < ranges.size(); i++) {
+			if (ranges.get(i).includes(probes[i & 1023]))
+				count++;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int overlaps() {
+		int count = 0;
+		for (int i = 0; i < ranges.size(); i++) {
+			if (ranges.get(i).overlaps(windows[i & 1023]))
+				count++;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int compareTo() {
+		int sum = 0;
+		for (int i = 1; i < ranges.size(); i++)
+			sum += ranges.get(i - 1).compareTo(ranges.get(i));
+		return sum;
+	}
+
+	@Benchmark
+	public int hashCodes() {
+		int sum = 0;
+		for (int i = 0; i < ranges.size(); i++)
+			sum += ranges.get(i).hashCode();
+		return sum;
+	}
+
+	@Benchmark
+	public List<DateRange> sort() {
+		List<DateRange> copy = new ArrayList<>(ranges);
+		Collections.sort(copy);
+		return copy;
+	}
+}
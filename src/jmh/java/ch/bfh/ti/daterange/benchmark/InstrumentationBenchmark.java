@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeFactory;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * Measures the overhead of the instrumentation in the metrics package. Each
+ * operation is run three ways: as a baseline doing the same work without any
+ * instrumentation hooks, i.e., the epoch-day arithmetic of DateFactory and
+ * the constructor of the primitive DateRangeImpl called directly; through the
+ * instrumented methods in a fork with the default settings, where the
+ * instrumentation is disabled; and in a fork where it is enabled by the system
+ * property {@value ch.bfh.ti.daterange.metrics.Instrumentation#PROPERTY}.
+ * "No measurable overhead when disabled" means that the baseline and the
+ * disabled variant agree within the error of the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+	private static final String ENABLED =
+			"-Dch.bfh.ti.daterange.instrumentation=true";
+
+	private final DateRangeFactory factory = new DateRangeFactory();
+
+	private int index;
+
+	private int next() {
+		return index = (index + 1) & 4095;
+	}
+
+	private long createDateMillis() {
+		int i = next();
+		return DateFactory.createDateMillis(2000 + (i >> 9), i & 11,
+				1 + (i & 31));
+	}
+
+	private DateRange createDateRange() {
+		long start = DateFactory.fromEpochDay(10957 + next());
+		return factory.createDateRange(start, start + 86_400_000L);
+	}
+
+	@Benchmark
+	public long createDateMillisBaseline() {
+		int i = next();
+		return DateFactory.fromEpochDay(DateFactory.toEpochDay(2000 + (i >> 9),
+				i & 11, 1 + (i & 31)));
+	}
+
+	@Benchmark
+	public long createDateMillisDisabled() {
+		return createDateMillis();
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = ENABLED)
+	public long createDateMillisEnabled() {
+		return createDateMillis();
+	}
+
+	@Benchmark
+	public DateRange createDateRangeBaseline() {
+		long start = DateFactory.fromEpochDay(10957 + next());
+		return new DateRangeImpl(start, start + 86_400_000L);
+	}
+
+	@Benchmark
+	public DateRange createDateRangeDisabled() {
+		return createDateRange();
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = ENABLED)
+	public DateRange createDateRangeEnabled() {
+		return createDateRange();
+	}
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.benchmark;
+/**
+ * This package contains JMH benchmarks for the date range library. Run them by
+ * <code>mvn -Pbenchmark test-compile exec:exec</code>.
+ *
+ * @author Eric Dubuis
+ */
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange;
+
+/**
+ * The 13 relations between two intervals defined by J. F. Allen, see
+ * {@link DateRange#relate(DateRange)}. Exactly one relation holds between
+ * any two date ranges x and y; the constants are named after the relation of
+ * x to y. For date ranges whose start lies before their finish these are
+ * Allen's relations; otherwise, the relation is the one selected by the same
+ * comparisons of the limits.
+ */
+public enum AllenRelation {
+	/** x finishes before y starts. */
+	BEFORE,
+	/** x finishes when y starts. */
+	MEETS,
+	/** x starts before y, and finishes after y starts but before y does. */
+	OVERLAPS,
+	/** x and y start together, and x finishes first. */
+	STARTS,
+	/** x starts after y and finishes before y. */
+	DURING,
+	/** x and y finish together, and x starts last. */
+	FINISHES,
+	/** x and y start and finish together. */
+	EQUALS,
+	/** x and y finish together, and x starts first. */
+	FINISHED_BY,
+	/** x starts before y and finishes after y. */
+	CONTAINS,
+	/** x and y start together, and x finishes last. */
+	STARTED_BY,
+	/** x starts after y starts and before y finishes, and finishes last. */
+	OVERLAPPED_BY,
+	/** x starts when y finishes. */
+	MET_BY,
+	/** x starts after y finishes. */
+	AFTER;
+
+	private static final AllenRelation[] VALUES = values();
+
+	/**
+	 * The relations indexed by 3 * compare(start, argStart) +
+	 * compare(finish, argFinish) + 4. The corners are refined by comparing
+	 * the finish of one date range with the start of the other.
+	 */
+	private static final AllenRelation[] TABLE = { null, FINISHED_BY,
+			CONTAINS, STARTS, EQUALS, STARTED_BY, DURING, FINISHES, null };
+
+	private static final AllenRelation[] BEFORE_TABLE = { BEFORE, MEETS,
+			OVERLAPS };
+
+	private static final AllenRelation[] AFTER_TABLE = { OVERLAPPED_BY,
+			MET_BY, AFTER };
+
+	/**
+	 * Returns the relation of y to x if this is the relation of x to y.
+	 *
+	 * @return The inverse relation.
+	 */
+	public AllenRelation getInverse() {
+		return VALUES[AFTER.ordinal() - ordinal()];
+	}
+
+	/**
+	 * Returns the relation of one date range to another, given by their
+	 * limits in milliseconds. Needs two comparisons, and a third one for the
+	 * relations where one date range starts and finishes before the other.
+	 *
+	 * @param start
+	 *            The start of x.
+	 * @param finish
+	 *            The finish of x.
+	 * @param argStart
+	 *            The start of y.
+	 * @param argFinish
+	 *            The finish of y.
+	 * @return The relation of x to y.
+	 */
+	public static AllenRelation of(long start, long finish, long argStart,
+			long argFinish) {
+		int i = 3 * Long.compare(start, argStart) + Long.compare(finish,
+				argFinish) + 4;
+		if (i == 0)
+			return BEFORE_TABLE[Long.compare(finish, argStart) + 1];
+		if (i == 8)
+			return AFTER_TABLE[Long.compare(start, argFinish) + 1];
+		return TABLE[i];
+	}
+
+	/**
+	 * Returns the relation of one date range to another.
+	 *
+	 * @param x
+	 *            The first date range.
+	 * @param y
+	 *            The second date range.
+	 * @return The relation of x to y.
+	 */
+	public static AllenRelation of(DateRange x, DateRange y) {
+		return of(DateRanges.startMillis(x), DateRanges.finishMillis(x),
+				DateRanges.startMillis(y), DateRanges.finishMillis(y));
+	}
+}
@@ -10,17 +10,27 @@
  */
 package ch.bfh.ti.daterange;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import ch.bfh.ti.daterange.metrics.Instrumentation;
+import ch.bfh.ti.daterange.metrics.Operation;
 
 /**
  * This utility class offers a simple static method to create a java.util.Date
  * object given the year, month, and day as integer values. The point in time
  * within the given day is positioned at 12.00 o'clock. Notice that no care is
  * taken for the effects of time zones, localization, and daylight saving time.
+ * <p>
+ * Dates from 1901 on are computed by arithmetic on epoch days, i.e., the number
+ * of days since January 1, 1970, in the default time zone as determined when
+ * this class is loaded. Earlier dates are computed by
+ * java.util.GregorianCalendar. The <code>...Millis</code>
+ * variants of the factory methods return milliseconds since January 1, 1970,
+ * 00:00:00 GMT instead of Date objects.
  */
 public class DateFactory {
 	/**
@@ -65,6 +75,29 @@ public class DateFactory {
 	/** December */
 	public static final int DECEMBER = 11;
 
+	/**
+	 * Number of milliseconds per day.
+	 */
+	private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+	/**
+	 * The year from which on dates are computed by arithmetic on epoch days.
+	 * Earlier years are subject to the Julian calendar and to the local mean
+	 * time handling of java.util.TimeZone, and are left to
+	 * java.util.GregorianCalendar.
+	 */
+	private static final int FIRST_ARITHMETIC_YEAR = 1901;
+
+	/**
+	 * The epoch day of January 1, 1901.
+	 */
+	private static final long FIRST_ARITHMETIC_DAY = -25202;
+
+	/**
+	 * The default time zone when this class is loaded.
+	 */
+	private static final TimeZone ZONE = TimeZone.getDefault();
+
 	/**
 	 * Creates a java.util.Date object given the year, month, and day as integer
 	 * values. The point in time within the given day is positioned at 12.00
@@ -80,10 +113,120 @@ public class DateFactory {
 	 * @return The corresponding Date object.
 	 */
 	public static Date createDate(int year, int month, int day) {
+		return new Date(createDateMillis(year, month, day));
+	}
+
+	/**
+	 * Returns the point in time of 12.00 o'clock of the given day. Month and
+	 * day values out of range are normalized as by
+	 * {@link #createDate(int, int, int)}, e.g., day 32 of January is February
+	 * 1.
+	 *
+	 * @param year
+	 *            The year.
+	 * @param month
+	 *            The month. Month value is 0-based. e.g., 0 for January.
+	 * @param day
+	 *            The day.
+	 * @return The point in time in milliseconds since January 1, 1970,
+	 *         00:00:00 GMT.
+	 */
+	public static long createDateMillis(int year, int month, int day) {
+		long t = Instrumentation.start();
+		long result = computeDateMillis(year, month, day);
+		Instrumentation.stop(Operation.CREATE_DATE, t, 0);
+		return result;
+	}
+
+	private static long computeDateMillis(int year, int month, int day) {
+		if (year >= FIRST_ARITHMETIC_YEAR) {
+			long epochDay = toEpochDay(year, month, day);
+			if (epochDay >= FIRST_ARITHMETIC_DAY)
+				return fromEpochDay(epochDay);
+		}
 		Calendar c = new GregorianCalendar();
 		c.clear();
 		c.set(year, month, day, 12, 0);
-		return new Date(c.getTimeInMillis());
+		return c.getTimeInMillis();
+	}
+
+	/**
+	 * Returns the epoch day, i.e., the number of days since January 1, 1970, of
+	 * the given day in the proleptic Gregorian calendar. Month and day values
+	 * out of range are normalized.
+	 *
+	 * @param year
+	 *            The year.
+	 * @param month
+	 *            The month. Month value is 0-based. e.g., 0 for January.
+	 * @param day
+	 *            The day.
+	 * @return The epoch day.
+	 */
+	public static long toEpochDay(int year, int month, int day) {
+		// See http://howardhinnant.github.io/date_algorithms.html
+		long y = (long) year + Math.floorDiv(month, 12);
+		int m = Math.floorMod(month, 12);
+		if (m < 2)
+			y--;
+		long era = Math.floorDiv(y, 400);
+		long yoe = y - era * 400;
+		int mp = (m + 10) % 12;
+		long doy = (153 * mp + 2) / 5 + (long) day - 1;
+		long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+		return era * 146097 + doe - 719468;
+	}
+
+	/**
+	 * Returns the epoch day, i.e., the number of days since January 1, 1970, of
+	 * the given point in time in the default time zone.
+	 *
+	 * @param millis
+	 *            The point in time in milliseconds since January 1, 1970,
+	 *            00:00:00 GMT.
+	 * @return The epoch day.
+	 */
+	public static long toEpochDay(long millis) {
+		return Math.floorDiv(millis + ZONE.getOffset(millis), MILLIS_PER_DAY);
+	}
+
+	/**
+	 * Returns the first point in time of the given epoch day in the default
+	 * time zone, i.e., midnight unless a transition skips it.
+	 *
+	 * @param epochDay
+	 *            The number of days since January 1, 1970.
+	 * @return The point in time in milliseconds since January 1, 1970,
+	 *         00:00:00 GMT.
+	 */
+	public static long startOfEpochDay(long epochDay) {
+		return LocalDate.ofEpochDay(epochDay).atStartOfDay(ZONE.toZoneId())
+				.toInstant().toEpochMilli();
+	}
+
+	/**
+	 * Returns the point in time of 12.00 o'clock of the given epoch day in the
+	 * default time zone.
+	 *
+	 * @param epochDay
+	 *            The number of days since January 1, 1970.
+	 * @return The point in time in milliseconds since January 1, 1970,
+	 *         00:00:00 GMT.
+	 */
+	public static long fromEpochDay(long epochDay) {
+		long local = epochDay * MILLIS_PER_DAY + MILLIS_PER_DAY / 2;
+		int before = ZONE.getOffset(local - MILLIS_PER_DAY);
+		int after = ZONE.getOffset(local + MILLIS_PER_DAY);
+		if (before == after)
+			return local - before;
+		// A transition happens around this day. Resolve as Calendar does: if
+		// 12.00 o'clock occurs twice take the later instant, if it does not
+		// occur at all take the offset before the transition.
+		boolean beforeValid = ZONE.getOffset(local - before) == before;
+		boolean afterValid = ZONE.getOffset(local - after) == after;
+		if (beforeValid && afterValid)
+			return local - Math.min(before, after);
+		return afterValid ? local - after : local - before;
 	}
 
 	/**
@@ -95,9 +238,17 @@ public class DateFactory {
 	 * @return The corresponding Date object.
 	 */
 	public static Date getToday() {
-		Calendar c = new GregorianCalendar();
-		return createDate(c.get(Calendar.YEAR), c.get(Calendar.MONTH), c
-				.get(Calendar.DAY_OF_MONTH));
+		return new Date(getTodayMillis());
+	}
+
+	/**
+	 * Returns the point in time of 12.00 o'clock of today.
+	 *
+	 * @return The point in time in milliseconds since January 1, 1970,
+	 *         00:00:00 GMT.
+	 */
+	public static long getTodayMillis() {
+		return fromEpochDay(toEpochDay(System.currentTimeMillis()));
 	}
 
 	/**
@@ -109,9 +260,17 @@ public class DateFactory {
 	 * @return The corresponding Date object.
 	 */
 	public static Date getTomorrow() {
-		Calendar c = new GregorianCalendar();
-		return createDate(c.get(Calendar.YEAR), c.get(Calendar.MONTH), c
-				.get(Calendar.DAY_OF_MONTH) + 1);
+		return new Date(getTomorrowMillis());
+	}
+
+	/**
+	 * Returns the point in time of 12.00 o'clock of tomorrow.
+	 *
+	 * @return The point in time in milliseconds since January 1, 1970,
+	 *         00:00:00 GMT.
+	 */
+	public static long getTomorrowMillis() {
+		return fromEpochDay(toEpochDay(System.currentTimeMillis()) + 1);
 	}
 
 	/**
@@ -134,9 +293,17 @@ public class DateFactory {
 	 * @return The corresponding Date object.
 	 */
 	public static Date getYesterday() {
-		Calendar c = new GregorianCalendar();
-		return createDate(c.get(Calendar.YEAR), c.get(Calendar.MONTH), c
-				.get(Calendar.DAY_OF_MONTH) - 1);
+		return new Date(getYesterdayMillis());
+	}
+
+	/**
+	 * Returns the point in time of 12.00 o'clock of yesterday.
+	 *
+	 * @return The point in time in milliseconds since January 1, 1970,
+	 *         00:00:00 GMT.
+	 */
+	public static long getYesterdayMillis() {
+		return fromEpochDay(toEpochDay(System.currentTimeMillis()) - 1);
 	}
 
 	/**
@@ -150,16 +317,44 @@ public class DateFactory {
 	 * @return A new Date object.
 	 */
 	public static Date addDays(Date original, int days) {
+		return new Date(addDaysMillis(original.getTime(), days));
+	}
+
+	/**
+	 * Adds some number of days to the day of the given point in time and
+	 * returns 12.00 o'clock of the resulting day.
+	 *
+	 * @param original
+	 *            The original point in time in milliseconds since January 1,
+	 *            1970, 00:00:00 GMT.
+	 * @param days
+	 *            The number of day to add (or subtract if negative).
+	 * @return The point in time in milliseconds since January 1, 1970,
+	 *         00:00:00 GMT.
+	 */
+	public static long addDaysMillis(long original, int days) {
+		long t = Instrumentation.start();
+		long result = computeAddDaysMillis(original, days);
+		Instrumentation.stop(Operation.ADD_DAYS, t, 0);
+		return result;
+	}
+
+	private static long computeAddDaysMillis(long original, int days) {
+		long epochDay = toEpochDay(original);
+		if (epochDay >= FIRST_ARITHMETIC_DAY
+				&& epochDay + days >= FIRST_ARITHMETIC_DAY)
+			return fromEpochDay(epochDay + days);
 		Calendar c = new GregorianCalendar();
 		c.clear();
-		c.setTime(original);
-		return createDate(c.get(Calendar.YEAR), c.get(Calendar.MONTH), c
+		c.setTimeInMillis(original);
+		return createDateMillis(c.get(Calendar.YEAR), c.get(Calendar.MONTH), c
 				.get(Calendar.DAY_OF_MONTH)
 				+ days);
 	}
 
 	/**
-	 * Returns a date representation of the form dd.mm.yyyy.
+	 * Returns a date representation of the form dd.mm.yyyy. The text is
+	 * produced by the shared {@link DateFormatter#DEFAULT} formatter.
 	 *
 	 * @param d
 	 *            The Date object.
@@ -168,10 +363,7 @@ public class DateFactory {
 	public static String toString(Date d) {
 		if (d == null)
 			return "Null Date";
-		String result = null;
-		DateFormat sf = new SimpleDateFormat("dd.MM.yyyy");
-		result = sf.format(d);
-		return result;
+		return DateFormatter.DEFAULT.format(d);
 	}
 
 	/**
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * An immutable and thread-safe formatter for dates of the form dd.mm.yyyy, as
+ * returned by {@link DateFactory#toString(Date)}. The text of recently
+ * formatted days is kept in a bounded cache, so repeatedly formatting dates of
+ * the same days creates no objects. Dates can be written directly into an
+ * Appendable, and parsed back.
+ */
+public final class DateFormatter {
+
+	/**
+	 * The shared formatter used by {@link DateFactory#toString(Date)}.
+	 */
+	public static final DateFormatter DEFAULT = new DateFormatter(4096);
+
+	/**
+	 * The epoch day from which on dates are formatted without
+	 * java.text.SimpleDateFormat, see {@link DateFactory}.
+	 */
+	private static final long FIRST_ARITHMETIC_DAY = DateFactory.toEpochDay(
+			1901, 0, 1);
+
+	/**
+	 * Formatted text of a single epoch day. Instances are immutable, so they
+	 * may be shared between threads without synchronization.
+	 */
+	private static final class Entry {
+		final long epochDay;
+
+		final String text;
+
+		Entry(long epochDay, String text) {
+			this.epochDay = epochDay;
+			this.text = text;
+		}
+	}
+
+	/**
+	 * Direct-mapped cache: the entry of an epoch day lives at the index
+	 * epochDay mod length, replacing any earlier entry.
+	 */
+	private final Entry[] cache;
+
+	/**
+	 * Constructs a formatter.
+	 *
+	 * @param cacheSize
+	 *            The maximum number of days whose text is cached.
+	 * @throws IllegalArgumentException
+	 *             If the cache size is not positive.
+	 */
+	public DateFormatter(int cacheSize) {
+		if (cacheSize <= 0)
+			throw new IllegalArgumentException("Illegal cache size: "
+					+ cacheSize);
+		this.cache = new Entry[cacheSize];
+	}
+
+	/**
+	 * Returns a date representation of the form dd.mm.yyyy.
+	 *
+	 * @param d
+	 *            The Date object.
+	 * @return The corresponding string.
+	 */
+	public String format(Date d) {
+		return format(d.getTime());
+	}
+
+	/**
+	 * Returns a date representation of the form dd.mm.yyyy.
+	 *
+	 * @param millis
+	 *            The point in time in milliseconds since January 1, 1970,
+	 *            00:00:00 GMT.
+	 * @return The corresponding string.
+	 */
+	public String format(long millis) {
+		long epochDay = DateFactory.toEpochDay(millis);
+		int index = (int) Math.floorMod(epochDay, (long) cache.length);
+		Entry entry = cache[index];
+		if (entry != null && entry.epochDay == epochDay)
+			return entry.text;
+		String text = epochDay >= FIRST_ARITHMETIC_DAY ? formatDay(epochDay)
+				: new SimpleDateFormat("dd.MM.yyyy").format(new Date(millis));
+		cache[index] = new Entry(epochDay, text);
+		return text;
+	}
+
+	private static String formatDay(long epochDay) {
+		LocalDate date = LocalDate.ofEpochDay(epochDay);
+		StringBuilder sb = new StringBuilder(10);
+		appendDigits(sb, date.getDayOfMonth(), 2);
+		sb.append('.');
+		appendDigits(sb, date.getMonthValue(), 2);
+		sb.append('.');
+		appendDigits(sb, date.getYear(), 4);
+		return sb.toString();
+	}
+
+	private static void appendDigits(StringBuilder sb, int value, int width) {
+		String digits = Integer.toString(value);
+		for (int i = digits.length(); i < width; i++)
+			sb.append('0');
+		sb.append(digits);
+	}
+
+	/**
+	 * Appends a date representation of the form dd.mm.yyyy to the given
+	 * string builder.
+	 *
+	 * @param d
+	 *            The Date object.
+	 * @param sb
+	 *            The string builder.
+	 * @return The string builder.
+	 */
+	public StringBuilder appendTo(Date d, StringBuilder sb) {
+		return sb.append(format(d.getTime()));
+	}
+
+	/**
+	 * Appends a date representation of the form dd.mm.yyyy to the given
+	 * Appendable.
+	 *
+	 * @param millis
+	 *            The point in time in milliseconds since January 1, 1970,
+	 *            00:00:00 GMT.
+	 * @param out
+	 *            The Appendable.
+	 * @return The Appendable.
+	 * @throws UncheckedIOException
+	 *             If the Appendable throws an IOException.
+	 */
+	public <A extends Appendable> A appendTo(long millis, A out) {
+		try {
+			out.append(format(millis));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out;
+	}
+
+	/**
+	 * Parses a date representation of the form dd.mm.yyyy. Days and months may
+	 * have one or two digits. Values out of range are normalized as by
+	 * {@link DateFactory#createDate(int, int, int)}.
+	 *
+	 * @param text
+	 *            The text to parse.
+	 * @return The Date object positioned at 12.00 o'clock of the parsed day.
+	 * @throws IllegalArgumentException
+	 *             If the text is not of the form dd.mm.yyyy.
+	 */
+	public Date parse(CharSequence text) {
+		return new Date(parseMillis(text));
+	}
+
+	/**
+	 * Parses a date representation of the form dd.mm.yyyy. See
+	 * {@link #parse(CharSequence)}.
+	 *
+	 * @param text
+	 *            The text to parse.
+	 * @return The point in time of 12.00 o'clock of the parsed day in
+	 *         milliseconds since January 1, 1970, 00:00:00 GMT.
+	 * @throws IllegalArgumentException
+	 *             If the text is not of the form dd.mm.yyyy.
+	 */
+	public long parseMillis(CharSequence text) {
+		int length = text.length();
+		int day = 0;
+		int month = 0;
+		int year = 0;
+		int field = 0;
+		int digits = 0;
+		for (int i = 0; i < length; i++) {
+			char ch = text.charAt(i);
+			if (ch >= '0' && ch <= '9' && digits < (field < 2 ? 2 : 9)) {
+				if (field == 0)
+					day = day * 10 + (ch - '0');
+				else if (field == 1)
+					month = month * 10 + (ch - '0');
+				else
+					year = year * 10 + (ch - '0');
+				digits++;
+			} else if (ch == '.' && field < 2 && digits > 0) {
+				field++;
+				digits = 0;
+			} else {
+				throw notADate(text);
+			}
+		}
+		if (field != 2 || digits == 0)
+			throw notADate(text);
+		return DateFactory.createDateMillis(year, month - 1, day);
+	}
+
+	private static IllegalArgumentException notADate(CharSequence text) {
+		return new IllegalArgumentException(
+				"Not a date of the form dd.mm.yyyy: " + text);
+	}
+}
@@ -16,6 +16,12 @@ import java.util.Date;
 /**
  * Represent a range of date values. See <a
  * href="http://www.martinfowler.com/ap2/range.html">http://www.martinfowler.com/ap2/range.html</a>
+ * <p>
+ * Implementations may be mixed: {@link #compareTo(DateRange)},
+ * <code>equals</code> and <code>hashCode</code> depend on the start time and
+ * the end time only, as implemented by {@link DateRanges#compare(DateRange,
+ * DateRange)}, {@link DateRanges#equals(DateRange, Object)} and
+ * {@link DateRanges#hashCode(DateRange)}.
  */
 public interface DateRange extends Serializable, Comparable<DateRange> {
 	/**
@@ -65,6 +71,13 @@ public interface DateRange extends Serializable, Comparable<DateRange> {
 	/**
 	 * Returns true iff arg.includes(this.start()) OR arg.includes(this.end())
 	 * OR this.includes(arg).
+	 * <p>
+	 * Like includes, overlaps treats both limits as part of the date range, so
+	 * date ranges touching at a single point in time overlap. The set
+	 * operations of {@link DateRanges}, such as
+	 * {@link DateRanges#intersect(DateRange, DateRange)}, treat a date range
+	 * as the half-open interval [start, finish) instead, in line with
+	 * {@link #isEmpty()}: the intersection of touching date ranges is empty.
 	 *
 	 * @param arg
 	 *            The date range to check.
@@ -151,4 +164,17 @@ public interface DateRange extends Serializable, Comparable<DateRange> {
 	 */
 	public boolean exactlyMatches(DateRange dr);
 
+	/**
+	 * Returns how this date range relates to the given one, as one of Allen's
+	 * 13 interval relations. A single call replaces a series of calls of
+	 * startsBefore, endsAfter, includes and the like.
+	 *
+	 * @param dr
+	 *            The given date range.
+	 * @return The relation of this date range to the given one.
+	 */
+	public default AllenRelation relate(DateRange dr) {
+		return AllenRelation.of(this, dr);
+	}
+
 }
@@ -0,0 +1,628 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * This utility class offers static methods operating on DateRange objects and
+ * collections thereof.
+ * <p>
+ * The set operations {@link #intersection}, {@link #union},
+ * {@link #difference}, {@link #symmetricDifference}, {@link #complement},
+ * {@link #intersect} and {@link #minus} treat a date range as the half-open
+ * interval [start, finish), in line with {@link DateRange#isEmpty()}: empty
+ * date ranges are ignored, and no empty date range is ever produced. Their
+ * results are disjoint, non-touching date ranges in ascending order. Note
+ * that {@link DateRange#overlaps(DateRange)} and
+ * {@link DateRange#includes(java.util.Date)} treat the finish as part of a
+ * date range, so date ranges touching at a single point in time overlap,
+ * while their intersection is empty, i.e., intersect returns null for them.
+ */
+public final class DateRanges {
+	/**
+	 * The sets of states of {@link #combine} containing the state of a point
+	 * in time covered by the first input only, the second input only, or by
+	 * both.
+	 */
+	private static final int IN_FIRST = 1 << 1;
+
+	private static final int IN_SECOND = 1 << 2;
+
+	private static final int IN_BOTH = 1 << 3;
+
+	/**
+	 * Not used.
+	 */
+	private DateRanges() {
+	}
+
+	/**
+	 * Returns the start of the given date range in milliseconds. No Date object
+	 * is created if the date range stores its limits as primitive values.
+	 *
+	 * @param dr
+	 *            The date range.
+	 * @return The start of the date range in milliseconds since January 1,
+	 *         1970, 00:00:00 GMT.
+	 */
+	public static long startMillis(DateRange dr) {
+		if (dr instanceof PrimitiveDateRange)
+			return ((PrimitiveDateRange) dr).getStartMillis();
+		return dr.getStart().getTime();
+	}
+
+	/**
+	 * Returns the end of the given date range in milliseconds. No Date object
+	 * is created if the date range stores its limits as primitive values.
+	 *
+	 * @param dr
+	 *            The date range.
+	 * @return The end of the date range in milliseconds since January 1, 1970,
+	 *         00:00:00 GMT.
+	 */
+	public static long finishMillis(DateRange dr) {
+		if (dr instanceof PrimitiveDateRange)
+			return ((PrimitiveDateRange) dr).getFinishMillis();
+		return dr.getFinish().getTime();
+	}
+
+	/**
+	 * Returns true iff start &lt;= arg &lt;= finish, i.e., the result of
+	 * {@link DateRange#includes(java.util.Date)} applied to millisecond values.
+	 *
+	 * @param start
+	 *            The start of the date range in milliseconds.
+	 * @param finish
+	 *            The end of the date range in milliseconds.
+	 * @param arg
+	 *            The point in time to check in milliseconds.
+	 * @return Whether the arg is within the range.
+	 */
+	public static boolean includes(long start, long finish, long arg) {
+		return start <= arg && arg <= finish;
+	}
+
+	/**
+	 * Returns the result of {@link DateRange#overlaps(DateRange)} applied to
+	 * millisecond values.
+	 *
+	 * @param start
+	 *            The start of this date range in milliseconds.
+	 * @param finish
+	 *            The end of this date range in milliseconds.
+	 * @param argStart
+	 *            The start of the other date range in milliseconds.
+	 * @param argFinish
+	 *            The end of the other date range in milliseconds.
+	 * @return Whether the date ranges overlap.
+	 */
+	public static boolean overlaps(long start, long finish, long argStart,
+			long argFinish) {
+		return includes(argStart, argFinish, start)
+				|| includes(argStart, argFinish, finish)
+				|| includes(start, finish, argStart)
+				&& includes(start, finish, argFinish);
+	}
+
+	/**
+	 * Compares two date ranges given by millisecond values in the order
+	 * defined by {@link DateRange#compareTo(DateRange)}.
+	 *
+	 * @param start
+	 *            The start of this date range in milliseconds.
+	 * @param finish
+	 *            The end of this date range in milliseconds.
+	 * @param argStart
+	 *            The start of the other date range in milliseconds.
+	 * @param argFinish
+	 *            The end of the other date range in milliseconds.
+	 * @return A negative value, zero, or a positive value.
+	 */
+	public static int compare(long start, long finish, long argStart,
+			long argFinish) {
+		int rval = Long.compare(start, argStart);
+		if (rval == 0) {
+			// Start times do not differ -- take finish times, too.
+			return Long.compare(finish, argFinish);
+		}
+		return rval;
+	}
+
+	/**
+	 * Returns the hash code of a date range given by millisecond values. The
+	 * result is the same as the one of the POJO implementation.
+	 *
+	 * @param start
+	 *            The start of the date range in milliseconds.
+	 * @param finish
+	 *            The end of the date range in milliseconds.
+	 * @return The hash code.
+	 */
+	public static int hashCode(long start, long finish) {
+		int rval = 37;
+		rval += 17 * Long.hashCode(start);
+		rval += 17 * Long.hashCode(finish);
+		return rval;
+	}
+
+	/**
+	 * Compares two date ranges of any implementation in the order defined by
+	 * {@link DateRange#compareTo(DateRange)}. No Date objects are created if
+	 * both date ranges store their limits as primitive values.
+	 *
+	 * @param dr
+	 *            A date range.
+	 * @param arg
+	 *            Another date range.
+	 * @return -1, 0 or +1.
+	 */
+	public static int compare(DateRange dr, DateRange arg) {
+		if (dr instanceof PrimitiveDateRange
+				&& arg instanceof PrimitiveDateRange) {
+			PrimitiveDateRange p = (PrimitiveDateRange) dr;
+			PrimitiveDateRange q = (PrimitiveDateRange) arg;
+			return compare(p.getStartMillis(), p.getFinishMillis(),
+					q.getStartMillis(), q.getFinishMillis());
+		}
+		return compare(startMillis(dr), finishMillis(dr), startMillis(arg),
+				finishMillis(arg));
+	}
+
+	/**
+	 * Tests a date range for equality with an object, regardless of their
+	 * implementations: two date ranges are equal iff their start times and
+	 * end times are equal. No Date objects are created if both date ranges
+	 * store their limits as primitive values.
+	 *
+	 * @param dr
+	 *            A date range.
+	 * @param arg
+	 *            The object to compare.
+	 * @return True iff arg is a DateRange object with the same start time and
+	 *         end time.
+	 */
+	public static boolean equals(DateRange dr, Object arg) {
+		if (dr == arg)
+			return true;
+		if (arg instanceof PrimitiveDateRange
+				&& dr instanceof PrimitiveDateRange) {
+			PrimitiveDateRange p = (PrimitiveDateRange) dr;
+			PrimitiveDateRange q = (PrimitiveDateRange) arg;
+			return p.getStartMillis() == q.getStartMillis()
+					&& p.getFinishMillis() == q.getFinishMillis();
+		}
+		if (!(arg instanceof DateRange))
+			return false;
+		DateRange other = (DateRange) arg;
+		return startMillis(dr) == startMillis(other)
+				&& finishMillis(dr) == finishMillis(other);
+	}
+
+	/**
+	 * Returns the hash code of a date range of any implementation, see
+	 * {@link #hashCode(long, long)}.
+	 *
+	 * @param dr
+	 *            The date range.
+	 * @return The hash code.
+	 */
+	public static int hashCode(DateRange dr) {
+		return hashCode(startMillis(dr), finishMillis(dr));
+	}
+
+	/**
+	 * Merges the given date ranges into the minimal list of disjoint date
+	 * ranges covering the same points in time. The input need not be sorted;
+	 * it is sorted first unless it is sorted already, then merged in a single
+	 * sweep. Empty date ranges are ignored.
+	 *
+	 * @param ranges
+	 *            The date ranges.
+	 * @param mergeTouching
+	 *            If true, a date range starting exactly at the finish of the
+	 *            previous one is merged with it, as
+	 *            {@link DateRange#overlaps(DateRange)} considers them to
+	 *            overlap. If false, such touching date ranges are kept apart.
+	 * @return The merged date ranges in ascending order.
+	 */
+	public static List<DateRange> coalesce(
+			Collection<? extends DateRange> ranges, boolean mergeTouching) {
+		return toDateRanges(coalesceLimits(ranges, mergeTouching));
+	}
+
+	/**
+	 * Merges the given date ranges as {@link #coalesce(Collection, boolean)}
+	 * does and returns the limits of the merged date ranges as one array
+	 * start<sub>0</sub>, finish<sub>0</sub>, start<sub>1</sub>, ...
+	 */
+	private static long[] coalesceLimits(
+			Collection<? extends DateRange> ranges, boolean mergeTouching) {
+		int n = ranges.size();
+		long[] starts = new long[n];
+		long[] finishes = new long[n];
+		int i = 0;
+		for (DateRange dr : ranges) {
+			starts[i] = startMillis(dr);
+			finishes[i++] = finishMillis(dr);
+		}
+		sort(starts, finishes);
+		long[] result = new long[2 * n];
+		int m = 0;
+		int j = 0;
+		while (j < n) {
+			if (starts[j] >= finishes[j]) {
+				j++;
+				continue;
+			}
+			long start = starts[j];
+			long finish = finishes[j++];
+			while (j < n && joins(finish, starts[j], mergeTouching)) {
+				finish = Math.max(finish, finishes[j++]);
+			}
+			result[m++] = start;
+			result[m++] = finish;
+		}
+		return Arrays.copyOf(result, m);
+	}
+
+	private static List<DateRange> toDateRanges(long[] limits) {
+		List<DateRange> result = new ArrayList<>(limits.length / 2);
+		for (int i = 0; i < limits.length; i += 2)
+			result.add(new DateRangeImpl(limits[i], limits[i + 1]));
+		return result;
+	}
+
+	/**
+	 * Merges the given date ranges into disjoint date ranges as
+	 * {@link #coalesce(Collection, boolean)} does, but lazily: the source is
+	 * consumed only as far as needed to emit the next merged date range, so
+	 * arbitrarily large inputs are processed in constant memory. The source
+	 * must be sorted by start.
+	 *
+	 * @param sortedRanges
+	 *            The date ranges, sorted by start.
+	 * @param mergeTouching
+	 *            Whether touching date ranges are merged, see
+	 *            {@link #coalesce(Collection, boolean)}.
+	 * @return A sequential stream of merged date ranges in ascending order.
+	 *         Consuming it throws an IllegalArgumentException if the source
+	 *         turns out not to be sorted by start.
+	 */
+	public static Stream<DateRange> coalesce(
+			Stream<? extends DateRange> sortedRanges, boolean mergeTouching) {
+		Iterator<DateRange> it = new Coalescer(sortedRanges.iterator(),
+				mergeTouching);
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it,
+				Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT
+						| Spliterator.NONNULL), false)
+				.onClose(sortedRanges::close);
+	}
+
+	/**
+	 * Returns the points in time covered by both the first and the second
+	 * date ranges. Takes linear time if both inputs are sorted by start.
+	 *
+	 * @param first
+	 *            The first date ranges.
+	 * @param second
+	 *            The second date ranges.
+	 * @return The intersection.
+	 */
+	public static List<DateRange> intersection(
+			Collection<? extends DateRange> first,
+			Collection<? extends DateRange> second) {
+		return combine(first, second, IN_BOTH);
+	}
+
+	/**
+	 * Returns the points in time covered by the first or the second date
+	 * ranges. Takes linear time if both inputs are sorted by start.
+	 *
+	 * @param first
+	 *            The first date ranges.
+	 * @param second
+	 *            The second date ranges.
+	 * @return The union.
+	 */
+	public static List<DateRange> union(Collection<? extends DateRange> first,
+			Collection<? extends DateRange> second) {
+		return combine(first, second, IN_FIRST | IN_SECOND | IN_BOTH);
+	}
+
+	/**
+	 * Returns the points in time covered by the first but not by the second
+	 * date ranges. Takes linear time if both inputs are sorted by start.
+	 *
+	 * @param first
+	 *            The first date ranges.
+	 * @param second
+	 *            The second date ranges.
+	 * @return The difference.
+	 */
+	public static List<DateRange> difference(
+			Collection<? extends DateRange> first,
+			Collection<? extends DateRange> second) {
+		return combine(first, second, IN_FIRST);
+	}
+
+	/**
+	 * Returns the points in time covered by either the first or the second
+	 * date ranges, but not by both. Takes linear time if both inputs are
+	 * sorted by start.
+	 *
+	 * @param first
+	 *            The first date ranges.
+	 * @param second
+	 *            The second date ranges.
+	 * @return The symmetric difference.
+	 */
+	public static List<DateRange> symmetricDifference(
+			Collection<? extends DateRange> first,
+			Collection<? extends DateRange> second) {
+		return combine(first, second, IN_FIRST | IN_SECOND);
+	}
+
+	/**
+	 * Returns the gaps between the given date ranges within a window, i.e.,
+	 * the points in time of the window not covered by any of the date
+	 * ranges. Takes linear time if the date ranges are sorted by start.
+	 *
+	 * @param ranges
+	 *            The date ranges.
+	 * @param window
+	 *            The window.
+	 * @return The complement within the window.
+	 */
+	public static List<DateRange> complement(
+			Collection<? extends DateRange> ranges, DateRange window) {
+		return combine(Collections.singletonList(window), ranges, IN_FIRST);
+	}
+
+	/**
+	 * Returns the intersection of two date ranges.
+	 *
+	 * @param dr
+	 *            A date range.
+	 * @param arg
+	 *            Another date range.
+	 * @return The intersection, which is one of the arguments if it equals
+	 *         it, or null if the intersection is empty.
+	 */
+	public static DateRange intersect(DateRange dr, DateRange arg) {
+		long start = startMillis(dr);
+		long finish = finishMillis(dr);
+		long argStart = startMillis(arg);
+		long argFinish = finishMillis(arg);
+		long s = Math.max(start, argStart);
+		long f = Math.min(finish, argFinish);
+		if (s >= f)
+			return null;
+		if (s == start && f == finish)
+			return dr;
+		if (s == argStart && f == argFinish)
+			return arg;
+		return new DateRangeImpl(s, f);
+	}
+
+	/**
+	 * Returns the points in time of a date range not covered by another one.
+	 *
+	 * @param dr
+	 *            A date range.
+	 * @param arg
+	 *            The date range to subtract.
+	 * @return No, one or two date ranges in ascending order. If arg and dr
+	 *         do not intersect, the result holds dr itself.
+	 */
+	public static List<DateRange> minus(DateRange dr, DateRange arg) {
+		long start = startMillis(dr);
+		long finish = finishMillis(dr);
+		if (start >= finish)
+			return Collections.emptyList();
+		long argStart = startMillis(arg);
+		long argFinish = finishMillis(arg);
+		if (argStart >= argFinish || argStart >= finish || argFinish <= start)
+			return Collections.singletonList(dr);
+		boolean before = start < argStart;
+		boolean after = argFinish < finish;
+		if (before && after)
+			return Arrays.asList(new DateRangeImpl(start, argStart),
+					new DateRangeImpl(argFinish, finish));
+		if (before)
+			return Collections.singletonList(new DateRangeImpl(start,
+					argStart));
+		if (after)
+			return Collections.singletonList(new DateRangeImpl(argFinish,
+					finish));
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Sweeps over the limits of both coalesced inputs and collects the points
+	 * in time whose state is contained in the given set of states, where a
+	 * state is 1 if a point is covered by the first input only, 2 if it is
+	 * covered by the second one only, and 3 if it is covered by both.
+	 */
+	private static List<DateRange> combine(
+			Collection<? extends DateRange> first,
+			Collection<? extends DateRange> second, int states) {
+		long[] a = coalesceLimits(first, true);
+		long[] b = coalesceLimits(second, true);
+		List<DateRange> result = new ArrayList<>();
+		int i = 0;
+		int j = 0;
+		int state = 0;
+		long start = 0;
+		while (i < a.length || j < b.length) {
+			long x = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i]
+					: b[j];
+			int previous = state;
+			if (i < a.length && a[i] == x) {
+				state ^= 1;
+				i++;
+			}
+			if (j < b.length && b[j] == x) {
+				state ^= 2;
+				j++;
+			}
+			boolean was = (states & 1 << previous) != 0;
+			boolean is = (states & 1 << state) != 0;
+			if (!was && is)
+				start = x;
+			else if (was && !is)
+				result.add(new DateRangeImpl(start, x));
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether a date range starting at the given start extends the
+	 * merged date range ending at the given finish.
+	 */
+	private static boolean joins(long finish, long start,
+			boolean mergeTouching) {
+		return mergeTouching ? start <= finish : start < finish;
+	}
+
+	/**
+	 * Lazily merges a source of date ranges sorted by start.
+	 */
+	private static class Coalescer implements Iterator<DateRange> {
+
+		private final Iterator<? extends DateRange> source;
+
+		private final boolean mergeTouching;
+
+		private boolean pending;
+
+		private long lastStart = Long.MIN_VALUE;
+
+		private long pendingStart;
+
+		private long pendingFinish;
+
+		Coalescer(Iterator<? extends DateRange> source, boolean mergeTouching) {
+			this.source = source;
+			this.mergeTouching = mergeTouching;
+		}
+
+		/**
+		 * Reads the next non-empty date range of the source into the pending
+		 * slot, verifying the order of the source.
+		 */
+		private boolean advance() {
+			while (source.hasNext()) {
+				DateRange dr = source.next();
+				long start = startMillis(dr);
+				long finish = finishMillis(dr);
+				if (start < lastStart)
+					throw new IllegalArgumentException(
+							"Date ranges not sorted by start: " + dr);
+				lastStart = start;
+				if (start < finish) {
+					pendingStart = start;
+					pendingFinish = finish;
+					pending = true;
+					return true;
+				}
+			}
+			pending = false;
+			return false;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return pending || advance();
+		}
+
+		@Override
+		public DateRange next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			long start = pendingStart;
+			long finish = pendingFinish;
+			while (advance() && joins(finish, pendingStart, mergeTouching)) {
+				finish = Math.max(finish, pendingFinish);
+			}
+			return new DateRangeImpl(start, finish);
+		}
+	}
+
+	/**
+	 * Sorts two parallel arrays holding the starts and finishes of date ranges
+	 * in the order defined by {@link DateRange#compareTo(DateRange)}. Arrays
+	 * that are already sorted are detected in linear time.
+	 *
+	 * @param starts
+	 *            The starts in milliseconds.
+	 * @param finishes
+	 *            The finishes in milliseconds, of the same length as starts.
+	 */
+	public static void sort(long[] starts, long[] finishes) {
+		int n = starts.length;
+		boolean sorted = true;
+		for (int i = 1; i < n && sorted; i++)
+			sorted = compare(starts[i - 1], finishes[i - 1], starts[i],
+					finishes[i]) <= 0;
+		if (sorted)
+			return;
+		mergeSort(starts.clone(), finishes.clone(), starts, finishes, 0, n);
+	}
+
+	/**
+	 * Sorts the range [lo, hi) of srcStarts/srcFinishes into dstStarts/
+	 * dstFinishes. Both pairs initially hold the same values.
+	 */
+	private static void mergeSort(long[] srcStarts, long[] srcFinishes,
+			long[] dstStarts, long[] dstFinishes, int lo, int hi) {
+		if (hi - lo < 16) {
+			for (int i = lo + 1; i < hi; i++) {
+				long s = dstStarts[i];
+				long f = dstFinishes[i];
+				int j = i - 1;
+				while (j >= lo && compare(dstStarts[j], dstFinishes[j], s, f) > 0) {
+					dstStarts[j + 1] = dstStarts[j];
+					dstFinishes[j + 1] = dstFinishes[j];
+					j--;
+				}
+				dstStarts[j + 1] = s;
+				dstFinishes[j + 1] = f;
+			}
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		mergeSort(dstStarts, dstFinishes, srcStarts, srcFinishes, lo, mid);
+		mergeSort(dstStarts, dstFinishes, srcStarts, srcFinishes, mid, hi);
+		for (int i = lo, p = lo, q = mid; i < hi; i++) {
+			if (q >= hi || p < mid && compare(srcStarts[p], srcFinishes[p],
+					srcStarts[q], srcFinishes[q]) <= 0) {
+				dstStarts[i] = srcStarts[p];
+				dstFinishes[i] = srcFinishes[p++];
+			} else {
+				dstStarts[i] = srcStarts[q];
+				dstFinishes[i] = srcFinishes[q++];
+			}
+		}
+	}
+}
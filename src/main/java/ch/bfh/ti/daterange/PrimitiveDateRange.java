@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange;
+
+/**
+ * A DateRange whose limits are available as primitive epoch milliseconds.
+ * Algorithms working on date ranges use these methods in order to avoid the
+ * creation of Date objects.
+ */
+public interface PrimitiveDateRange extends DateRange {
+
+	/**
+	 * Returns the start of the date range in milliseconds.
+	 *
+	 * @return The start of the date range in milliseconds since January 1,
+	 *         1970, 00:00:00 GMT.
+	 */
+	public long getStartMillis();
+
+	/**
+	 * Returns the end of the date range in milliseconds.
+	 *
+	 * @return The end of the date range in milliseconds since January 1, 1970,
+	 *         00:00:00 GMT.
+	 */
+	public long getFinishMillis();
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+/**
+ * Evaluates date range predicates over columns of starts and finishes,
+ * setting bit i of the mask, i.e., bit i &amp; 63 of word i &gt;&gt;&gt; 6,
+ * iff the predicate holds for the date range at position i. Bits beyond the
+ * last date range of the last word written are cleared.
+ */
+interface ColumnKernel {
+
+	/**
+	 * Evaluates <code>start &lt;= arg &amp;&amp; arg &lt;= finish</code>.
+	 */
+	void includes(long[] starts, long[] finishes, int n, long arg,
+			long[] mask);
+
+	/**
+	 * Evaluates
+	 * {@link ch.bfh.ti.daterange.DateRanges#overlaps(long, long, long, long)}
+	 * with the window as argument.
+	 */
+	void overlaps(long[] starts, long[] finishes, int n, long windowStart,
+			long windowFinish, long[] mask);
+
+	/**
+	 * Evaluates <code>start &gt;= finish</code>.
+	 */
+	void isEmpty(long[] starts, long[] finishes, int n, long[] mask);
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+/**
+ * Evaluates the predicates of {@link ch.bfh.ti.daterange.DateRange} for many
+ * date ranges at once, given as columns of starts and finishes in
+ * milliseconds, e.g., the ones of a {@link DateRangeList}. The result is a
+ * bitmask: bit i &amp; 63 of word i &gt;&gt;&gt; 6 is set iff the predicate
+ * holds for the date range at position i. The results agree with the ones of
+ * {@link ch.bfh.ti.daterange.impl.primitive.DateRangeImpl}, including date
+ * ranges whose start lies after their finish.
+ * <p>
+ * If the JVM is started with <code>--add-modules jdk.incubator.vector</code>
+ * and the library has been built with the <code>vector</code> profile, the
+ * predicates are evaluated with the Vector API, several date ranges per
+ * instruction. Otherwise a scalar loop is used.
+ */
+public final class ColumnPredicates {
+
+	private static final String VECTOR_KERNEL =
+			"ch.bfh.ti.daterange.collection.VectorColumnKernel";
+
+	private static final ColumnKernel KERNEL = loadKernel();
+
+	/**
+	 * Not used.
+	 */
+	private ColumnPredicates() {
+	}
+
+	/**
+	 * Returns the Vector API kernel if the module is present and the kernel
+	 * has been compiled, otherwise the scalar kernel. A kernel that is present
+	 * but fails to load is reported as a warning.
+	 */
+	static ColumnKernel loadKernel() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try {
+				return (ColumnKernel) Class.forName(VECTOR_KERNEL)
+						.getDeclaredConstructor().newInstance();
+			} catch (ClassNotFoundException e) {
+				// Not built with the vector profile.
+			} catch (ReflectiveOperationException | LinkageError e) {
+				System.getLogger(ColumnPredicates.class.getName()).log(
+						System.Logger.Level.WARNING, "Cannot load "
+								+ VECTOR_KERNEL + ", using scalar kernel", e);
+			}
+		}
+		return new ScalarColumnKernel();
+	}
+
+	/**
+	 * Returns whether the predicates are evaluated with the Vector API.
+	 *
+	 * @return True iff the Vector API is used.
+	 */
+	public static boolean isVectorized() {
+		return !(KERNEL instanceof ScalarColumnKernel);
+	}
+
+	/**
+	 * Returns the number of words of a bitmask for n date ranges.
+	 *
+	 * @param n
+	 *            The number of date ranges.
+	 * @return The number of words.
+	 */
+	public static int words(int n) {
+		return (n + 63) >>> 6;
+	}
+
+	private static int check(long[] starts, long[] finishes, long[] mask) {
+		int n = starts.length;
+		if (finishes.length != n)
+			throw new IllegalArgumentException("Column lengths differ: " + n
+					+ " != " + finishes.length);
+		if (mask.length < words(n))
+			throw new IllegalArgumentException("Mask too short: "
+					+ mask.length + " < " + words(n));
+		return n;
+	}
+
+	/**
+	 * Returns which date ranges include a point in time, as by
+	 * {@link ch.bfh.ti.daterange.impl.primitive.DateRangeImpl#includes(long)}.
+	 *
+	 * @param starts
+	 *            The starts in milliseconds.
+	 * @param finishes
+	 *            The finishes in milliseconds.
+	 * @param arg
+	 *            The point in time in milliseconds.
+	 * @return A new bitmask.
+	 * @throws IllegalArgumentException
+	 *             If the columns differ in length.
+	 */
+	public static long[] includes(long[] starts, long[] finishes, long arg) {
+		long[] mask = new long[words(starts.length)];
+		includes(starts, finishes, arg, mask);
+		return mask;
+	}
+
+	/**
+	 * Writes which date ranges include a point in time into a bitmask. See
+	 * {@link #includes(long[], long[], long)}.
+	 *
+	 * @param starts
+	 *            The starts in milliseconds.
+	 * @param finishes
+	 *            The finishes in milliseconds.
+	 * @param arg
+	 *            The point in time in milliseconds.
+	 * @param mask
+	 *            The bitmask with at least words(starts.length) words.
+	 * @throws IllegalArgumentException
+	 *             If the columns differ in length or the mask is too short.
+	 */
+	public static void includes(long[] starts, long[] finishes, long arg,
+			long[] mask) {
+		KERNEL.includes(starts, finishes, check(starts, finishes, mask), arg,
+				mask);
+	}
+
+	/**
+	 * Returns which date ranges overlap a window, as by
+	 * {@link ch.bfh.ti.daterange.DateRange#overlaps(ch.bfh.ti.daterange.DateRange)}
+	 * called with the window as argument.
+	 *
+	 * @param starts
+	 *            The starts in milliseconds.
+	 * @param finishes
+	 *            The finishes in milliseconds.
+	 * @param windowStart
+	 *            The start of the window in milliseconds.
+	 * @param windowFinish
+	 *            The finish of the window in milliseconds.
+	 * @return A new bitmask.
+	 * @throws IllegalArgumentException
+	 *             If the columns differ in length.
+	 */
+	public static long[] overlaps(long[] starts, long[] finishes,
+			long windowStart, long windowFinish) {
+		long[] mask = new long[words(starts.length)];
+		overlaps(starts, finishes, windowStart, windowFinish, mask);
+		return mask;
+	}
+
+	/**
+	 * Writes which date ranges overlap a window into a bitmask. See
+	 * {@link #overlaps(long[], long[], long, long)}.
+	 *
+	 * @param starts
+	 *            The starts in milliseconds.
+	 * @param finishes
+	 *            The finishes in milliseconds.
+	 * @param windowStart
+	 *            The start of the window in milliseconds.
+	 * @param windowFinish
+	 *            The finish of the window in milliseconds.
+	 * @param mask
+	 *            The bitmask with at least words(starts.length) words.
+	 * @throws IllegalArgumentException
+	 *             If the columns differ in length or the mask is too short.
+	 */
+	public static void overlaps(long[] starts, long[] finishes,
+			long windowStart, long windowFinish, long[] mask) {
+		KERNEL.overlaps(starts, finishes, check(starts, finishes, mask),
+				windowStart, windowFinish, mask);
+	}
+
+	/**
+	 * Returns which date ranges are empty, as by
+	 * {@link ch.bfh.ti.daterange.DateRange#isEmpty()}.
+	 *
+	 * @param starts
+	 *            The starts in milliseconds.
+	 * @param finishes
+	 *            The finishes in milliseconds.
+	 * @return A new bitmask.
+	 * @throws IllegalArgumentException
+	 *             If the columns differ in length.
+	 */
+	public static long[] isEmpty(long[] starts, long[] finishes) {
+		long[] mask = new long[words(starts.length)];
+		isEmpty(starts, finishes, mask);
+		return mask;
+	}
+
+	/**
+	 * Writes which date ranges are empty into a bitmask. See
+	 * {@link #isEmpty(long[], long[])}.
+	 *
+	 * @param starts
+	 *            The starts in milliseconds.
+	 * @param finishes
+	 *            The finishes in milliseconds.
+	 * @param mask
+	 *            The bitmask with at least words(starts.length) words.
+	 * @throws IllegalArgumentException
+	 *             If the columns differ in length or the mask is too short.
+	 */
+	public static void isEmpty(long[] starts, long[] finishes, long[] mask) {
+		KERNEL.isEmpty(starts, finishes, check(starts, finishes, mask), mask);
+	}
+
+	/**
+	 * Returns the number of bits set in a bitmask.
+	 *
+	 * @param mask
+	 *            The bitmask.
+	 * @return The number of date ranges for which the predicate holds.
+	 */
+	public static int cardinality(long[] mask) {
+		int result = 0;
+		for (long word : mask)
+			result += Long.bitCount(word);
+		return result;
+	}
+
+	/**
+	 * Returns the positions of the bits set in a bitmask.
+	 *
+	 * @param mask
+	 *            The bitmask.
+	 * @return The positions in ascending order.
+	 */
+	public static int[] toIndices(long[] mask) {
+		int[] result = new int[cardinality(mask)];
+		int k = 0;
+		for (int w = 0; w < mask.length; w++) {
+			for (long word = mask[w]; word != 0; word &= word - 1)
+				result[k++] = w << 6 | Long.numberOfTrailingZeros(word);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+
+/**
+ * An immutable histogram of the number of date ranges covering each bucket
+ * of a window, e.g., each day of a year. The buckets are either days,
+ * identified by their epoch day (see {@link DateFactory#toEpochDay(long)}),
+ * or consecutive intervals of a fixed number of milliseconds. A date range
+ * covers all buckets from the one of its start up to and including the one of
+ * its finish; date ranges whose start lies after their finish cover nothing.
+ * <p>
+ * The histogram is built in O(n + buckets) time: every date range increments
+ * a difference array at its first bucket and decrements it after its last
+ * one, and a prefix sum yields the counts. Built from a parallel stream, every
+ * worker thread fills its own difference array, and the arrays are summed
+ * when the partial results are merged.
+ */
+public final class CoverageHistogram {
+
+	/**
+	 * The first epoch day of a histogram of days, or the start of the first
+	 * bucket in milliseconds.
+	 */
+	private final long origin;
+
+	/**
+	 * The width of a bucket in milliseconds, or 0 for days.
+	 */
+	private final long width;
+
+	/**
+	 * Points in time closer than this to the limits of long are not converted
+	 * to epoch days, as adding the time zone offset might overflow. The
+	 * quotients of the limits by it still lie far outside of any histogram.
+	 */
+	private static final long DAY_LIMIT = 2L * 24 * 60 * 60 * 1000;
+
+	private final long[] counts;
+
+	private final int peakBucket;
+
+	private CoverageHistogram(long origin, long width, long[] counts) {
+		this.origin = origin;
+		this.width = width;
+		this.counts = counts;
+		int peak = -1;
+		for (int i = 0; i < counts.length; i++) {
+			if (peak < 0 || counts[i] > counts[peak])
+				peak = i;
+		}
+		this.peakBucket = peak;
+	}
+
+	/**
+	 * Counts the date ranges covering each day of a window. See
+	 * {@link #ofDays(Stream, DateRange)}.
+	 *
+	 * @param ranges
+	 *            The date ranges.
+	 * @param window
+	 *            The window, from the day of its start up to and including
+	 *            the day of its finish.
+	 * @return The histogram.
+	 * @throws IllegalArgumentException
+	 *             If the window starts after its finish or spans too many
+	 *             days.
+	 */
+	public static CoverageHistogram ofDays(
+			Collection<? extends DateRange> ranges, DateRange window) {
+		return ofDays(ranges.stream(), window);
+	}
+
+	/**
+	 * Counts the date ranges covering each day of a window. A parallel stream
+	 * builds the histogram in parallel.
+	 *
+	 * @param ranges
+	 *            The date ranges.
+	 * @param window
+	 *            The window, from the day of its start up to and including
+	 *            the day of its finish.
+	 * @return The histogram.
+	 * @throws IllegalArgumentException
+	 *             If the window starts after its finish or spans too many
+	 *             days.
+	 */
+	public static CoverageHistogram ofDays(Stream<? extends DateRange> ranges,
+			DateRange window) {
+		long start = DateRanges.startMillis(window);
+		long finish = DateRanges.finishMillis(window);
+		if (start > finish)
+			throw new IllegalArgumentException("Start after finish of window: "
+					+ window);
+		long first = DateFactory.toEpochDay(start);
+		long days = DateFactory.toEpochDay(finish) - first + 1;
+		if (days >= Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Too many days: " + days);
+		return build(ranges, first, 0, (int) days);
+	}
+
+	/**
+	 * Counts the date ranges covering each bucket of fixed width. See
+	 * {@link #of(Stream, long, long, int)}.
+	 *
+	 * @param ranges
+	 *            The date ranges.
+	 * @param origin
+	 *            The start of the first bucket in milliseconds.
+	 * @param bucketMillis
+	 *            The width of a bucket in milliseconds, &gt; 0.
+	 * @param buckets
+	 *            The number of buckets, &gt;= 0.
+	 * @return The histogram.
+	 * @throws IllegalArgumentException
+	 *             If the width or the number of buckets is out of range.
+	 */
+	public static CoverageHistogram of(Collection<? extends DateRange> ranges,
+			long origin, long bucketMillis, int buckets) {
+		return of(ranges.stream(), origin, bucketMillis, buckets);
+	}
+
+	/**
+	 * Counts the date ranges covering each bucket of fixed width. Bucket i
+	 * holds the points in time from origin + i * bucketMillis up to but
+	 * excluding origin + (i + 1) * bucketMillis. A parallel stream builds the
+	 * histogram in parallel.
+	 *
+	 * @param ranges
+	 *            The date ranges.
+	 * @param origin
+	 *            The start of the first bucket in milliseconds.
+	 * @param bucketMillis
+	 *            The width of a bucket in milliseconds, &gt; 0.
+	 * @param buckets
+	 *            The number of buckets, &gt;= 0.
+	 * @return The histogram.
+	 * @throws IllegalArgumentException
+	 *             If the width or the number of buckets is out of range.
+	 */
+	public static CoverageHistogram of(Stream<? extends DateRange> ranges,
+			long origin, long bucketMillis, int buckets) {
+		if (bucketMillis <= 0)
+			throw new IllegalArgumentException("Bucket width: " + bucketMillis);
+		if (buckets < 0 || buckets == Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Buckets: " + buckets);
+		return build(ranges, origin, bucketMillis, buckets);
+	}
+
+	private static CoverageHistogram build(Stream<? extends DateRange> ranges,
+			long origin, long width, int buckets) {
+		long[] counts = ranges.collect(() -> new long[buckets + 1],
+				(diff, dr) -> add(diff, origin, width, dr), (a, b) -> {
+					for (int i = 0; i < a.length; i++)
+						a[i] += b[i];
+				});
+		long sum = 0;
+		for (int i = 0; i < buckets; i++)
+			counts[i] = sum += counts[i];
+		return new CoverageHistogram(origin, width,
+				Arrays.copyOf(counts, buckets));
+	}
+
+	private static void add(long[] diff, long origin, long width,
+			DateRange dr) {
+		long start = DateRanges.startMillis(dr);
+		long finish = DateRanges.finishMillis(dr);
+		if (start > finish)
+			return;
+		long first = Math.max(0, bucket(origin, width, start));
+		long last = Math.min(diff.length - 2, bucket(origin, width, finish));
+		if (first <= last) {
+			diff[(int) first]++;
+			diff[(int) last + 1]--;
+		}
+	}
+
+	/**
+	 * Returns the bucket of a point in time, relative to the first one. Points
+	 * in time too far off to be computed without overflow, e.g., the limits of
+	 * open-ended date ranges, saturate to a bucket outside of the histogram.
+	 */
+	private static long bucket(long origin, long width, long millis) {
+		if (width == 0) {
+			if (millis < Long.MIN_VALUE + DAY_LIMIT)
+				return Long.MIN_VALUE / DAY_LIMIT - origin;
+			if (millis > Long.MAX_VALUE - DAY_LIMIT)
+				return Long.MAX_VALUE / DAY_LIMIT - origin;
+			return DateFactory.toEpochDay(millis) - origin;
+		}
+		if (millis < origin)
+			return -1;
+		// the difference of millis >= origin always fits into an unsigned long
+		long quotient = Long.divideUnsigned(millis - origin, width);
+		return quotient < 0 ? Long.MAX_VALUE : quotient;
+	}
+
+	/**
+	 * Returns the number of buckets.
+	 *
+	 * @return The number of buckets.
+	 */
+	public int size() {
+		return counts.length;
+	}
+
+	/**
+	 * Returns the number of date ranges covering a bucket.
+	 *
+	 * @param bucket
+	 *            The bucket, 0 &lt;= bucket &lt; size().
+	 * @return The number of date ranges.
+	 */
+	public long getCount(int bucket) {
+		return counts[bucket];
+	}
+
+	/**
+	 * Returns the number of date ranges covering the bucket of the given point
+	 * in time.
+	 *
+	 * @param millis
+	 *            The point in time in milliseconds.
+	 * @return The number of date ranges, 0 if the point in time lies outside
+	 *         of the buckets.
+	 */
+	public long getCountAt(long millis) {
+		long bucket = bucket(origin, width, millis);
+		return bucket >= 0 && bucket < counts.length ? counts[(int) bucket]
+				: 0;
+	}
+
+	/**
+	 * Returns the number of date ranges covering each bucket.
+	 *
+	 * @return A new array holding the counts.
+	 */
+	public long[] toArray() {
+		return counts.clone();
+	}
+
+	/**
+	 * Returns a point in time identifying a bucket: the start of a bucket of
+	 * fixed width, or 12.00 o'clock of a day, as positioned by
+	 * {@link DateFactory}.
+	 *
+	 * @param bucket
+	 *            The bucket, 0 &lt;= bucket &lt; size().
+	 * @return The point in time in milliseconds.
+	 */
+	public long getBucketMillis(int bucket) {
+		if (width == 0)
+			return DateFactory.fromEpochDay(origin + bucket);
+		return origin + bucket * width;
+	}
+
+	/**
+	 * Returns the greatest number of date ranges covering a bucket, i.e., the
+	 * peak concurrency.
+	 *
+	 * @return The greatest count, 0 if there are no buckets.
+	 */
+	public long getPeak() {
+		return peakBucket < 0 ? 0 : counts[peakBucket];
+	}
+
+	/**
+	 * Returns the first bucket with the greatest count.
+	 *
+	 * @return The bucket, -1 if there are no buckets.
+	 */
+	public int getPeakBucket() {
+		return peakBucket;
+	}
+
+	/**
+	 * Returns the point in time of the first bucket with the greatest count.
+	 * See {@link #getBucketMillis(int)}.
+	 *
+	 * @return The point in time of the peak, null if there are no buckets.
+	 */
+	public Date getPeakDate() {
+		return peakBucket < 0 ? null : new Date(getBucketMillis(peakBucket));
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+import ch.bfh.ti.daterange.metrics.BulkOperationEvent;
+import ch.bfh.ti.daterange.metrics.Instrumentation;
+import ch.bfh.ti.daterange.metrics.Operation;
+
+/**
+ * An immutable index over a collection of DateRange objects answering stabbing
+ * and overlap queries in O(log n + k) time, where k is the number of reported
+ * date ranges. The index is an augmented interval tree laid out implicitly over
+ * arrays sorted by start and finish: the node of the sub-array [lo, hi) is
+ * its middle element, and every node records the maximum and the minimum
+ * finish of its subtree.
+ * <p>
+ * The queries follow the inclusive semantics of {@link DateRange#includes}
+ * and {@link DateRange#overlaps}. Date ranges whose start lies after their
+ * finish cannot be ordered in the tree; they are kept aside and checked one by
+ * one.
+ */
+public class DateRangeIndex {
+
+	private final DateRange[] ranges;
+
+	private final long[] starts;
+
+	private final long[] finishes;
+
+	private final long[] maxFinishes;
+
+	private final long[] minFinishes;
+
+	private final DateRange[] inverted;
+
+	/**
+	 * Constructs an index over the given date ranges.
+	 *
+	 * @param ranges
+	 *            The date ranges to index.
+	 */
+	public DateRangeIndex(Collection<? extends DateRange> ranges) {
+		BulkOperationEvent event = Instrumentation.startBulk();
+		List<DateRange> ordered = new ArrayList<>(ranges.size());
+		List<DateRange> others = new ArrayList<>();
+		for (DateRange dr : ranges) {
+			if (DateRanges.startMillis(dr) > DateRanges.finishMillis(dr))
+				others.add(dr);
+			else
+				ordered.add(dr);
+		}
+		this.ranges = ordered.toArray(new DateRange[0]);
+		Arrays.sort(this.ranges, Comparator
+				.comparingLong(DateRanges::startMillis)
+				.thenComparingLong(DateRanges::finishMillis));
+		this.inverted = others.toArray(new DateRange[0]);
+		int n = this.ranges.length;
+		this.starts = new long[n];
+		this.finishes = new long[n];
+		this.maxFinishes = new long[n];
+		this.minFinishes = new long[n];
+		for (int i = 0; i < n; i++) {
+			starts[i] = DateRanges.startMillis(this.ranges[i]);
+			finishes[i] = DateRanges.finishMillis(this.ranges[i]);
+		}
+		augment(0, n);
+		Instrumentation.stop(Operation.BUILD_INDEX, event, ranges.size());
+	}
+
+	/**
+	 * Computes the maximum and minimum finish of the subtree [lo, hi).
+	 */
+	private void augment(int lo, int hi) {
+		if (lo >= hi)
+			return;
+		int mid = (lo + hi) >>> 1;
+		augment(lo, mid);
+		augment(mid + 1, hi);
+		long max = finishes[mid];
+		long min = finishes[mid];
+		if (lo < mid) {
+			int left = (lo + mid) >>> 1;
+			max = Math.max(max, maxFinishes[left]);
+			min = Math.min(min, minFinishes[left]);
+		}
+		if (mid + 1 < hi) {
+			int right = (mid + 1 + hi) >>> 1;
+			max = Math.max(max, maxFinishes[right]);
+			min = Math.min(min, minFinishes[right]);
+		}
+		maxFinishes[mid] = max;
+		minFinishes[mid] = min;
+	}
+
+	/**
+	 * Returns the number of indexed date ranges.
+	 *
+	 * @return The number of date ranges.
+	 */
+	public int size() {
+		return ranges.length + inverted.length;
+	}
+
+	/**
+	 * Returns all date ranges that include the given date.
+	 *
+	 * @param arg
+	 *            The date.
+	 * @return The date ranges r for which r.includes(arg) holds.
+	 */
+	public List<DateRange> stab(Date arg) {
+		return stab(arg.getTime());
+	}
+
+	/**
+	 * Returns all date ranges that include the given point in time.
+	 *
+	 * @param arg
+	 *            The point in time in milliseconds since January 1, 1970,
+	 *            00:00:00 GMT.
+	 * @return The date ranges r for which r.includes(arg) holds.
+	 */
+	public List<DateRange> stab(long arg) {
+		// An inverted date range never includes a date.
+		long t = Instrumentation.start();
+		List<DateRange> result = new ArrayList<>();
+		overlapping(0, ranges.length, arg, arg, result);
+		Instrumentation.stop(Operation.INDEX_QUERY, t, 1);
+		return result;
+	}
+
+	/**
+	 * Returns all date ranges that overlap the given date range.
+	 *
+	 * @param arg
+	 *            The date range.
+	 * @return The date ranges r for which r.overlaps(arg) holds.
+	 */
+	public List<DateRange> overlapping(DateRange arg) {
+		return overlapping(DateRanges.startMillis(arg),
+				DateRanges.finishMillis(arg));
+	}
+
+	/**
+	 * Returns all date ranges that overlap the date range given by its limits.
+	 *
+	 * @param start
+	 *            The start of the date range in milliseconds.
+	 * @param finish
+	 *            The end of the date range in milliseconds.
+	 * @return The date ranges r for which r.overlaps([start, finish]) holds.
+	 */
+	public List<DateRange> overlapping(long start, long finish) {
+		long t = Instrumentation.start();
+		List<DateRange> result = new ArrayList<>();
+		overlapping(0, ranges.length, start, finish, result);
+		for (DateRange dr : inverted) {
+			long s = DateRanges.startMillis(dr);
+			long f = DateRanges.finishMillis(dr);
+			if (start <= s && s <= finish || start <= f && f <= finish)
+				result.add(dr);
+		}
+		Instrumentation.stop(Operation.INDEX_QUERY, t, 1);
+		return result;
+	}
+
+	/**
+	 * Collects the date ranges r of the subtree [lo, hi) with r.start &lt;=
+	 * finish and start &lt;= r.finish. For a date range r with r.start &lt;=
+	 * r.finish this is equivalent to r.overlaps([start, finish]).
+	 */
+	private void overlapping(int lo, int hi, long start, long finish,
+			List<DateRange> result) {
+		if (lo >= hi)
+			return;
+		int mid = (lo + hi) >>> 1;
+		if (maxFinishes[mid] < start)
+			return;
+		overlapping(lo, mid, start, finish, result);
+		if (starts[mid] > finish)
+			return;
+		if (finishes[mid] >= start)
+			result.add(ranges[mid]);
+		overlapping(mid + 1, hi, start, finish, result);
+	}
+
+	/**
+	 * Returns all date ranges that are included in the given date range.
+	 *
+	 * @param arg
+	 *            The date range.
+	 * @return The date ranges r for which arg.includes(r) holds.
+	 */
+	public List<DateRange> containedIn(DateRange arg) {
+		return containedIn(DateRanges.startMillis(arg),
+				DateRanges.finishMillis(arg));
+	}
+
+	/**
+	 * Returns all date ranges that are included in the date range given by its
+	 * limits.
+	 *
+	 * @param start
+	 *            The start of the date range in milliseconds.
+	 * @param finish
+	 *            The end of the date range in milliseconds.
+	 * @return The date ranges r for which [start, finish].includes(r) holds.
+	 */
+	public List<DateRange> containedIn(long start, long finish) {
+		long t = Instrumentation.start();
+		List<DateRange> result = new ArrayList<>();
+		containedIn(0, ranges.length, start, finish, result);
+		for (DateRange dr : inverted) {
+			if (start <= DateRanges.finishMillis(dr)
+					&& DateRanges.startMillis(dr) <= finish)
+				result.add(dr);
+		}
+		Instrumentation.stop(Operation.INDEX_QUERY, t, 1);
+		return result;
+	}
+
+	/**
+	 * Collects the date ranges of the subtree [lo, hi) lying within [start,
+	 * finish].
+	 */
+	private void containedIn(int lo, int hi, long start, long finish,
+			List<DateRange> result) {
+		if (lo >= hi)
+			return;
+		int mid = (lo + hi) >>> 1;
+		if (minFinishes[mid] > finish)
+			return;
+		if (starts[mid] >= start)
+			containedIn(lo, mid, start, finish, result);
+		if (starts[mid] > finish)
+			return;
+		if (starts[mid] >= start && finishes[mid] <= finish)
+			result.add(ranges[mid]);
+		containedIn(mid + 1, hi, start, finish, result);
+	}
+}
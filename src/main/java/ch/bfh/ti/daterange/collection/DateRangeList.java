@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+import ch.bfh.ti.daterange.metrics.BulkOperationEvent;
+import ch.bfh.ti.daterange.metrics.Instrumentation;
+import ch.bfh.ti.daterange.metrics.Operation;
+
+/**
+ * An immutable list of date ranges stored in two parallel <code>long</code>
+ * arrays holding the starts and finishes. The list keeps the order in which
+ * the date ranges were given, including duplicates. Its elements are created
+ * on access as immutable primitive date ranges; use
+ * {@link #getStartMillis(int)} and {@link #getFinishMillis(int)} in order to
+ * read them without creating objects.
+ * <p>
+ * The static factory methods validate that start &lt;= finish holds for every
+ * date range and throw an IllegalArgumentException otherwise.
+ */
+public class DateRangeList extends AbstractList<DateRange> implements
+		RandomAccess {
+
+	private final long[] starts;
+
+	private final long[] finishes;
+
+	private final int size;
+
+	/**
+	 * Constructs a list taking ownership of the given arrays.
+	 */
+	private DateRangeList(long[] starts, long[] finishes, int size) {
+		this.starts = starts;
+		this.finishes = finishes;
+		this.size = size;
+	}
+
+	/**
+	 * Returns a list of the date ranges given by their starts and finishes.
+	 * The arrays are copied.
+	 *
+	 * @param starts
+	 *            The starts in milliseconds.
+	 * @param finishes
+	 *            The finishes in milliseconds.
+	 * @return The list.
+	 * @throws IllegalArgumentException
+	 *             If the arrays differ in length or a start lies after its
+	 *             finish.
+	 */
+	public static DateRangeList of(long[] starts, long[] finishes) {
+		BulkOperationEvent event = Instrumentation.startBulk();
+		checkLengths(starts, finishes);
+		for (int i = 0; i < starts.length; i++) {
+			if (starts[i] > finishes[i])
+				throw startAfterFinish(i, starts[i], finishes[i]);
+		}
+		DateRangeList result = new DateRangeList(starts.clone(),
+				finishes.clone(), starts.length);
+		Instrumentation.stop(Operation.BULK_CREATE, event, result.size);
+		return result;
+	}
+
+	/**
+	 * Returns a list of the date ranges given by their starts and finishes,
+	 * validating the date ranges in parallel. Worthwhile for very large
+	 * arrays only.
+	 *
+	 * @param starts
+	 *            The starts in milliseconds.
+	 * @param finishes
+	 *            The finishes in milliseconds.
+	 * @return The list.
+	 * @throws IllegalArgumentException
+	 *             If the arrays differ in length or a start lies after its
+	 *             finish.
+	 */
+	public static DateRangeList ofParallel(long[] starts, long[] finishes) {
+		BulkOperationEvent event = Instrumentation.startBulk();
+		checkLengths(starts, finishes);
+		IntStream.range(0, starts.length).parallel()
+				.filter(i -> starts[i] > finishes[i]).min()
+				.ifPresent(i -> {
+					throw startAfterFinish(i, starts[i], finishes[i]);
+				});
+		DateRangeList result = new DateRangeList(starts.clone(),
+				finishes.clone(), starts.length);
+		Instrumentation.stop(Operation.BULK_CREATE, event, result.size);
+		return result;
+	}
+
+	/**
+	 * Returns a list of the date ranges given by a stream of alternating
+	 * starts and finishes, i.e., start<sub>0</sub>, finish<sub>0</sub>,
+	 * start<sub>1</sub>, finish<sub>1</sub>, ...
+	 *
+	 * @param pairs
+	 *            The starts and finishes in milliseconds.
+	 * @return The list.
+	 * @throws IllegalArgumentException
+	 *             If the stream has an odd number of elements or a start lies
+	 *             after its finish.
+	 */
+	public static DateRangeList of(LongStream pairs) {
+		BulkOperationEvent event = Instrumentation.startBulk();
+		Collector collector = new Collector();
+		PrimitiveIterator.OfLong it = pairs.iterator();
+		while (it.hasNext()) {
+			long start = it.nextLong();
+			if (!it.hasNext())
+				throw new IllegalArgumentException(
+						"Missing finish of date range at index "
+								+ collector.size);
+			collector.accept(start, it.nextLong());
+		}
+		DateRangeList result = collector.toList();
+		Instrumentation.stop(Operation.BULK_CREATE, event, result.size);
+		return result;
+	}
+
+	/**
+	 * Returns a list of the date ranges handed to a sink by the given
+	 * producer.
+	 *
+	 * @param producer
+	 *            The producer, called once with the sink to fill.
+	 * @return The list.
+	 * @throws IllegalArgumentException
+	 *             If a start lies after its finish.
+	 */
+	public static DateRangeList of(Consumer<? super DateRangeSink> producer) {
+		BulkOperationEvent event = Instrumentation.startBulk();
+		Collector collector = new Collector();
+		producer.accept(collector);
+		DateRangeList result = collector.toList();
+		Instrumentation.stop(Operation.BULK_CREATE, event, result.size);
+		return result;
+	}
+
+	private static void checkLengths(long[] starts, long[] finishes) {
+		if (starts.length != finishes.length)
+			throw new IllegalArgumentException("Column lengths differ: "
+					+ starts.length + " != " + finishes.length);
+	}
+
+	private static IllegalArgumentException startAfterFinish(int index,
+			long start, long finish) {
+		return new IllegalArgumentException("Start after finish of date "
+				+ "range at index " + index + ": " + start + " > " + finish);
+	}
+
+	/**
+	 * Collects date ranges into growing columns.
+	 */
+	private static class Collector implements DateRangeSink {
+		private long[] starts = new long[16];
+
+		private long[] finishes = new long[16];
+
+		private int size;
+
+		@Override
+		public void accept(long start, long finish) {
+			if (start > finish)
+				throw startAfterFinish(size, start, finish);
+			if (size == starts.length) {
+				starts = Arrays.copyOf(starts, 2 * size);
+				finishes = Arrays.copyOf(finishes, 2 * size);
+			}
+			starts[size] = start;
+			finishes[size++] = finish;
+		}
+
+		DateRangeList toList() {
+			if (size < starts.length) {
+				starts = Arrays.copyOf(starts, size);
+				finishes = Arrays.copyOf(finishes, size);
+			}
+			return new DateRangeList(starts, finishes, size);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a new, immutable DateRange object for the date range at the
+	 * given position.
+	 *
+	 * @param index
+	 *            The position, 0 &lt;= index &lt; size().
+	 * @return The date range.
+	 */
+	@Override
+	public DateRange get(int index) {
+		checkIndex(index);
+		return new DateRangeImpl(starts[index], finishes[index]);
+	}
+
+	/**
+	 * Returns the start of the date range at the given position.
+	 *
+	 * @param index
+	 *            The position, 0 &lt;= index &lt; size().
+	 * @return The start in milliseconds.
+	 */
+	public long getStartMillis(int index) {
+		checkIndex(index);
+		return starts[index];
+	}
+
+	/**
+	 * Returns the end of the date range at the given position.
+	 *
+	 * @param index
+	 *            The position, 0 &lt;= index &lt; size().
+	 * @return The end in milliseconds.
+	 */
+	public long getFinishMillis(int index) {
+		checkIndex(index);
+		return finishes[index];
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: "
+					+ size);
+	}
+
+	/**
+	 * Hands all date ranges of this list to the given sink, in order.
+	 *
+	 * @param sink
+	 *            The sink.
+	 */
+	public void forEach(DateRangeSink sink) {
+		for (int i = 0; i < size; i++)
+			sink.accept(starts[i], finishes[i]);
+	}
+
+	/**
+	 * Returns a sorted set of the distinct date ranges of this list.
+	 *
+	 * @return The set.
+	 */
+	public DateRangeSet toSet() {
+		return new DateRangeSet(Arrays.copyOf(starts, size), Arrays.copyOf(
+				finishes, size), false);
+	}
+}
@@ -0,0 +1,708 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import ch.bfh.ti.daterange.AllenRelation;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+import ch.bfh.ti.daterange.PrimitiveDateRange;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+import ch.bfh.ti.daterange.metrics.BulkOperationEvent;
+import ch.bfh.ti.daterange.metrics.Instrumentation;
+import ch.bfh.ti.daterange.metrics.Operation;
+
+/**
+ * An immutable, sorted set of date ranges stored in columns. The starts and
+ * finishes of the date ranges are held in two parallel <code>long</code>
+ * arrays ordered as defined by {@link DateRange#compareTo(DateRange)}, without
+ * duplicates. A third column holds the running maximum of the finishes, so that
+ * {@link #includes(Date)} and {@link #overlaps(DateRange)} are answered by a
+ * single binary search.
+ * <p>
+ * The iterators of this set return a flyweight: the same DateRange view is
+ * positioned on every element in turn. A view must not be retained after the
+ * next call of <code>next()</code>; use {@link #get(int)} or
+ * {@link Cursor#toDateRange()} in order to obtain a stable DateRange object.
+ */
+public class DateRangeSet implements Iterable<DateRange> {
+
+	private final long[] starts;
+
+	private final long[] finishes;
+
+	/**
+	 * Running maximum of the finishes of all date ranges with start &lt;=
+	 * finish, up to and including the given index.
+	 */
+	private final long[] maxFinishes;
+
+	/**
+	 * Positions of the date ranges with start &gt; finish, in ascending order.
+	 */
+	private final int[] inverted;
+
+	/**
+	 * Constructs a set holding the given date ranges, e.g., the ones created
+	 * by a {@link ch.bfh.ti.daterange.DateRangeFactory}.
+	 *
+	 * @param ranges
+	 *            The date ranges.
+	 */
+	public DateRangeSet(Collection<? extends DateRange> ranges) {
+		this(startsOf(ranges), finishesOf(ranges), false);
+	}
+
+	/**
+	 * Constructs a set holding the date ranges given by their starts and
+	 * finishes. The arrays are copied.
+	 *
+	 * @param starts
+	 *            The starts in milliseconds since January 1, 1970, 00:00:00
+	 *            GMT.
+	 * @param finishes
+	 *            The finishes in milliseconds since January 1, 1970, 00:00:00
+	 *            GMT.
+	 * @throws IllegalArgumentException
+	 *             If the arrays differ in length.
+	 */
+	public DateRangeSet(long[] starts, long[] finishes) {
+		this(copyOf(starts, finishes.length), finishes.clone(), false);
+	}
+
+	/**
+	 * Constructs a set taking ownership of the given arrays.
+	 *
+	 * @param starts
+	 *            The starts.
+	 * @param finishes
+	 *            The finishes.
+	 * @param sorted
+	 *            Whether the arrays are already sorted and free of duplicates.
+	 */
+	DateRangeSet(long[] starts, long[] finishes, boolean sorted) {
+		BulkOperationEvent event = Instrumentation.startBulk();
+		int n = starts.length;
+		if (!sorted) {
+			DateRanges.sort(starts, finishes);
+			int m = 0;
+			for (int i = 0; i < n; i++) {
+				if (m > 0 && starts[m - 1] == starts[i]
+						&& finishes[m - 1] == finishes[i])
+					continue;
+				starts[m] = starts[i];
+				finishes[m++] = finishes[i];
+			}
+			n = m;
+		}
+		this.starts = n == starts.length ? starts : Arrays.copyOf(starts, n);
+		this.finishes = n == finishes.length ? finishes
+				: Arrays.copyOf(finishes, n);
+		this.maxFinishes = new long[n];
+		long max = Long.MIN_VALUE;
+		int[] positions = new int[0];
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			if (this.starts[i] <= this.finishes[i]) {
+				max = Math.max(max, this.finishes[i]);
+			} else {
+				if (count == positions.length)
+					positions = Arrays.copyOf(positions, 2 * count + 1);
+				positions[count++] = i;
+			}
+			maxFinishes[i] = max;
+		}
+		this.inverted = Arrays.copyOf(positions, count);
+		Instrumentation.stop(Operation.BUILD_SET, event, n);
+	}
+
+	private static long[] copyOf(long[] column, int length) {
+		if (column.length != length)
+			throw new IllegalArgumentException("Column lengths differ: "
+					+ column.length + " != " + length);
+		return column.clone();
+	}
+
+	private static long[] startsOf(Collection<? extends DateRange> ranges) {
+		long[] result = new long[ranges.size()];
+		int i = 0;
+		for (DateRange dr : ranges)
+			result[i++] = DateRanges.startMillis(dr);
+		return result;
+	}
+
+	private static long[] finishesOf(Collection<? extends DateRange> ranges) {
+		long[] result = new long[ranges.size()];
+		int i = 0;
+		for (DateRange dr : ranges)
+			result[i++] = DateRanges.finishMillis(dr);
+		return result;
+	}
+
+	/**
+	 * Returns the number of date ranges in this set.
+	 *
+	 * @return The number of date ranges.
+	 */
+	public int size() {
+		return starts.length;
+	}
+
+	/**
+	 * Returns the start of the date range at the given position.
+	 *
+	 * @param index
+	 *            The position, 0 &lt;= index &lt; size().
+	 * @return The start in milliseconds.
+	 */
+	public long getStartMillis(int index) {
+		return starts[index];
+	}
+
+	/**
+	 * Returns the end of the date range at the given position.
+	 *
+	 * @param index
+	 *            The position, 0 &lt;= index &lt; size().
+	 * @return The end in milliseconds.
+	 */
+	public long getFinishMillis(int index) {
+		return finishes[index];
+	}
+
+	/**
+	 * Returns a new, immutable DateRange object for the date range at the
+	 * given position.
+	 *
+	 * @param index
+	 *            The position, 0 &lt;= index &lt; size().
+	 * @return The date range.
+	 */
+	public DateRange get(int index) {
+		return new DateRangeImpl(starts[index], finishes[index]);
+	}
+
+	/**
+	 * Checks whether this set contains a date range equal to the given one.
+	 *
+	 * @param dr
+	 *            The date range.
+	 * @return True iff a date range with the same start and finish is
+	 *         contained.
+	 */
+	public boolean contains(DateRange dr) {
+		long s = DateRanges.startMillis(dr);
+		long f = DateRanges.finishMillis(dr);
+		int lo = 0;
+		int hi = starts.length - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int c = DateRanges.compare(starts[mid], finishes[mid], s, f);
+			if (c < 0)
+				lo = mid + 1;
+			else if (c > 0)
+				hi = mid - 1;
+			else
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the number of date ranges whose start is &lt;= the given point
+	 * in time.
+	 */
+	int countStartingUntil(long arg) {
+		int lo = 0;
+		int hi = starts.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (starts[mid] <= arg)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Returns the greatest finish of the date ranges with start &lt;= finish
+	 * up to and including the given position, or Long.MIN_VALUE if there is
+	 * none.
+	 */
+	long getMaxFinishMillis(int index) {
+		return maxFinishes[index];
+	}
+
+	/**
+	 * Returns the number of date ranges whose start is &lt; the given point in
+	 * time.
+	 */
+	private int countStartingBefore(long arg) {
+		return arg == Long.MIN_VALUE ? 0 : countStartingUntil(arg - 1);
+	}
+
+	/**
+	 * Checks whether some date range of this set includes the given date.
+	 *
+	 * @param arg
+	 *            The date to check.
+	 * @return True iff there is a date range r with r.includes(arg).
+	 */
+	public boolean includes(Date arg) {
+		return includes(arg.getTime());
+	}
+
+	/**
+	 * Checks whether some date range of this set includes the given point in
+	 * time.
+	 *
+	 * @param arg
+	 *            The point in time in milliseconds.
+	 * @return True iff there is a date range r with r.includes(arg).
+	 */
+	public boolean includes(long arg) {
+		long t = Instrumentation.start();
+		int n = countStartingUntil(arg);
+		boolean result = n > 0 && maxFinishes[n - 1] >= arg;
+		Instrumentation.stop(Operation.SET_QUERY, t, 0);
+		return result;
+	}
+
+	/**
+	 * Checks whether some date range of this set overlaps the given date
+	 * range.
+	 *
+	 * @param arg
+	 *            The date range.
+	 * @return True iff there is a date range r with r.overlaps(arg).
+	 */
+	public boolean overlaps(DateRange arg) {
+		return overlaps(DateRanges.startMillis(arg),
+				DateRanges.finishMillis(arg));
+	}
+
+	/**
+	 * Checks whether some date range of this set overlaps the date range given
+	 * by its limits.
+	 *
+	 * @param start
+	 *            The start in milliseconds.
+	 * @param finish
+	 *            The end in milliseconds.
+	 * @return True iff there is a date range r with r.overlaps([start,
+	 *         finish]).
+	 */
+	public boolean overlaps(long start, long finish) {
+		long t = Instrumentation.start();
+		boolean result = overlapsMillis(start, finish);
+		Instrumentation.stop(Operation.SET_QUERY, t, 0);
+		return result;
+	}
+
+	private boolean overlapsMillis(long start, long finish) {
+		int n = countStartingUntil(finish);
+		if (n > 0 && maxFinishes[n - 1] >= start)
+			return true;
+		for (int i : inverted) {
+			if (DateRanges.overlaps(starts[i], finishes[i], start, finish))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the relation of the given date range to each date range of this
+	 * set, as by {@link DateRange#relate(DateRange)}. See
+	 * {@link #relate(long, long)}.
+	 *
+	 * @param dr
+	 *            The given date range.
+	 * @return The relations, indexed by position within this set.
+	 */
+	public AllenRelation[] relate(DateRange dr) {
+		return relate(DateRanges.startMillis(dr), DateRanges.finishMillis(dr));
+	}
+
+	/**
+	 * Returns the relation of the given date range to each date range of this
+	 * set. The order of the set is used to skip whole regions: the date ranges
+	 * starting together with the given one, or when it finishes, are ordered
+	 * by finish, so binary search splits them by relation, and the date
+	 * ranges starting after its finish all follow it unless they start after
+	 * their finish. The date ranges finishing before its start precede it;
+	 * they form a prefix found by binary search over the running maximum of
+	 * the finishes. Only the remaining ones are compared one by one.
+	 *
+	 * @param start
+	 *            The start of the given date range in milliseconds.
+	 * @param finish
+	 *            The finish of the given date range in milliseconds.
+	 * @return The relations, indexed by position within this set.
+	 */
+	public AllenRelation[] relate(long start, long finish) {
+		int n = starts.length;
+		AllenRelation[] result = new AllenRelation[n];
+		if (start > finish) {
+			relate(start, finish, result, 0, n);
+			return result;
+		}
+		int from = countStartingBefore(start);
+		int after = countFinishingBefore(start, from);
+		Arrays.fill(result, 0, after, AllenRelation.AFTER);
+		relate(start, finish, result, after, from);
+		int to = countStartingUntil(start);
+		int lo = indexOf(start, finish, false);
+		int hi = indexOf(start, finish, true);
+		Arrays.fill(result, from, lo, AllenRelation.STARTED_BY);
+		Arrays.fill(result, lo, hi, AllenRelation.EQUALS);
+		Arrays.fill(result, hi, to, AllenRelation.STARTS);
+		if (start < finish) {
+			from = countStartingBefore(finish);
+			relate(start, finish, result, to, from);
+			to = countStartingUntil(finish);
+			lo = indexOf(finish, finish, false);
+			hi = indexOf(finish, finish, true);
+			Arrays.fill(result, from, lo, AllenRelation.CONTAINS);
+			Arrays.fill(result, lo, hi, AllenRelation.FINISHED_BY);
+			Arrays.fill(result, hi, to, AllenRelation.MEETS);
+		}
+		Arrays.fill(result, to, n, AllenRelation.BEFORE);
+		// date ranges starting after the finish but finishing at or before it
+		int k = Arrays.binarySearch(inverted, to);
+		for (k = k < 0 ? -k - 1 : k; k < inverted.length; k++) {
+			int i = inverted[k];
+			result[i] = AllenRelation.of(start, finish, starts[i],
+					finishes[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the length of the longest prefix of the first to date ranges
+	 * finishing before the given point in time. Date ranges with start &gt;
+	 * finish starting before it finish before it, too, so the running
+	 * maximum of the finishes decides.
+	 */
+	private int countFinishingBefore(long arg, int to) {
+		int lo = 0;
+		int hi = to;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (maxFinishes[mid] < arg)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	private void relate(long start, long finish, AllenRelation[] result,
+			int from, int to) {
+		for (int i = from; i < to; i++)
+			result[i] = AllenRelation.of(start, finish, starts[i],
+					finishes[i]);
+	}
+
+	/**
+	 * Returns the number of date ranges ordered before the given one, or, if
+	 * inclusive, ordered before or equal to it.
+	 */
+	private int indexOf(long start, long finish, boolean inclusive) {
+		int lo = 0;
+		int hi = starts.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			int c = DateRanges.compare(starts[mid], finishes[mid], start,
+					finish);
+			if (c < 0 || inclusive && c == 0)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Returns a flyweight iterator over all date ranges of this set.
+	 *
+	 * @return The iterator.
+	 */
+	@Override
+	public Iterator<DateRange> iterator() {
+		return new Cursor(0, starts.length);
+	}
+
+	/**
+	 * Returns a flyweight iterator over the date ranges of this set whose start
+	 * lies within the given limits.
+	 *
+	 * @param from
+	 *            The smallest start to report.
+	 * @param to
+	 *            The largest start to report.
+	 * @return The iterator.
+	 */
+	public Iterator<DateRange> iterator(Date from, Date to) {
+		return iterator(from.getTime(), to.getTime());
+	}
+
+	/**
+	 * Returns a flyweight iterator over the date ranges of this set whose start
+	 * lies within the given limits.
+	 *
+	 * @param from
+	 *            The smallest start to report in milliseconds.
+	 * @param to
+	 *            The largest start to report in milliseconds.
+	 * @return The iterator.
+	 */
+	public Iterator<DateRange> iterator(long from, long to) {
+		int lo = countStartingBefore(from);
+		return new Cursor(lo, Math.max(lo, countStartingUntil(to)));
+	}
+
+	/**
+	 * A flyweight view on the elements of the set. It serves as its own
+	 * iterator, moving to the next element on each call of {@link #next()}.
+	 */
+	public final class Cursor implements PrimitiveDateRange, Iterator<DateRange> {
+		/**
+		 * Default serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		private int index;
+
+		private final int end;
+
+		private Cursor(int from, int to) {
+			this.index = from - 1;
+			this.end = to;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean hasNext() {
+			return index + 1 < end;
+		}
+
+		/**
+		 * Moves this view to the next date range.
+		 *
+		 * @return This view.
+		 */
+		@Override
+		public Cursor next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			index++;
+			return this;
+		}
+
+		/**
+		 * Returns the position of the current date range within the set.
+		 *
+		 * @return The position.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Returns a new, immutable DateRange object for the current date range.
+		 *
+		 * @return The date range.
+		 */
+		public DateRange toDateRange() {
+			return get(index);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public long getStartMillis() {
+			return starts[index];
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public long getFinishMillis() {
+			return finishes[index];
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Date getFinish() {
+			return new Date(finishes[index]);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Date getStart() {
+			return new Date(starts[index]);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isEmpty() {
+			return starts[index] >= finishes[index];
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean includes(Date arg) {
+			return DateRanges.includes(starts[index], finishes[index],
+					arg.getTime());
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean includes(DateRange arg) {
+			return DateRanges.includes(starts[index], finishes[index],
+					DateRanges.startMillis(arg))
+					&& DateRanges.includes(starts[index], finishes[index],
+							DateRanges.finishMillis(arg));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean overlaps(DateRange arg) {
+			return DateRanges.overlaps(starts[index], finishes[index],
+					DateRanges.startMillis(arg), DateRanges.finishMillis(arg));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int compareTo(DateRange dr) {
+			return DateRanges.compare(starts[index], finishes[index],
+					DateRanges.startMillis(dr), DateRanges.finishMillis(dr));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean startsBefore(DateRange dr) {
+			return starts[index] < DateRanges.startMillis(dr);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean startsAfter(DateRange dr) {
+			return starts[index] > DateRanges.startMillis(dr);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean endsBefore(DateRange dr) {
+			return finishes[index] < DateRanges.finishMillis(dr);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean endsAfter(DateRange dr) {
+			return finishes[index] > DateRanges.finishMillis(dr);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean strictlyIncludes(DateRange dr) {
+			return includes(dr) && startsBefore(dr) && endsAfter(dr);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean exactlyMatches(DateRange dr) {
+			return includes(dr) && !startsBefore(dr) && !endsAfter(dr);
+		}
+
+		/**
+		 * Tests the current date range for equality with another DateRange
+		 * object of any implementation, as by
+		 * {@link DateRanges#equals(DateRange, Object)}.
+		 *
+		 * @param arg
+		 *            The object to compare.
+		 * @return True iff arg is a DateRange object with the same start time
+		 *         and end time.
+		 */
+		@Override
+		public boolean equals(Object arg) {
+			return DateRanges.equals(this, arg);
+		}
+
+		/**
+		 * Returns the hash code of the current date range, as by
+		 * {@link DateRanges#hashCode(DateRange)}.
+		 *
+		 * @return The hash code.
+		 */
+		@Override
+		public int hashCode() {
+			return DateRanges.hashCode(starts[index], finishes[index]);
+		}
+
+		/**
+		 * Returns a string representation of the current date range.
+		 *
+		 * @return A string representation.
+		 */
+		@Override
+		public String toString() {
+			return toDateRange().toString();
+		}
+
+		/**
+		 * Replaces this view by a copy of the current date range, as the
+		 * enclosing set is not serializable.
+		 *
+		 * @return The date range to serialize.
+		 */
+		private Object writeReplace() {
+			return toDateRange();
+		}
+	}
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+/**
+ * Receives date ranges given by their limits in milliseconds, without the need
+ * to create Date or DateRange objects.
+ */
+@FunctionalInterface
+public interface DateRangeSink {
+
+	/**
+	 * Accepts a date range.
+	 *
+	 * @param start
+	 *            The start in milliseconds since January 1, 1970, 00:00:00
+	 *            GMT.
+	 * @param finish
+	 *            The end in milliseconds since January 1, 1970, 00:00:00 GMT.
+	 */
+	public void accept(long start, long finish);
+}
@@ -0,0 +1,497 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.function.LongConsumer;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeFactory;
+import ch.bfh.ti.daterange.DateRanges;
+
+/**
+ * An immutable set of days, e.g., the days of a calendar, identified by their
+ * epoch day (see {@link DateFactory#toEpochDay(long)}). The days are
+ * partitioned into chunks of 65536 consecutive days; each non-empty chunk is
+ * stored either as a sorted array of the days it contains or, if it contains
+ * more than 4096 days, as a bitmap of 1024 words. Intersection, union and
+ * difference of bitmaps combine the chunks word by word.
+ * <p>
+ * A date range contributes all days from the day of its start up to and
+ * including the day of its finish; date ranges whose start lies after their
+ * finish contribute no days.
+ */
+public final class DayBitmap {
+
+	/**
+	 * The empty set of days.
+	 */
+	public static final DayBitmap EMPTY = new DayBitmap(new int[0],
+			new Container[0]);
+
+	/**
+	 * Maximum number of days of a chunk stored as an array.
+	 */
+	static final int ARRAY_LIMIT = 4096;
+
+	private static final int WORDS = 1024;
+
+	private final int[] keys;
+
+	private final Container[] containers;
+
+	private final long cardinality;
+
+	private DayBitmap(int[] keys, Container[] containers) {
+		this.keys = keys;
+		this.containers = containers;
+		long sum = 0;
+		for (Container c : containers)
+			sum += c.cardinality;
+		this.cardinality = sum;
+	}
+
+	/**
+	 * Returns the days covered by the given date ranges.
+	 *
+	 * @param ranges
+	 *            The date ranges.
+	 * @return The set of days.
+	 */
+	public static DayBitmap of(Collection<? extends DateRange> ranges) {
+		TreeMap<Integer, long[]> chunks = new TreeMap<>();
+		for (DateRange dr : ranges) {
+			long start = DateRanges.startMillis(dr);
+			long finish = DateRanges.finishMillis(dr);
+			if (start <= finish)
+				add(chunks, DateFactory.toEpochDay(start),
+						DateFactory.toEpochDay(finish));
+		}
+		return of(chunks);
+	}
+
+	/**
+	 * Returns the days from first up to and including last.
+	 *
+	 * @param first
+	 *            The first epoch day.
+	 * @param last
+	 *            The last epoch day.
+	 * @return The set of days, empty if first &gt; last.
+	 */
+	public static DayBitmap ofEpochDays(long first, long last) {
+		TreeMap<Integer, long[]> chunks = new TreeMap<>();
+		add(chunks, first, last);
+		return of(chunks);
+	}
+
+	private static void add(Map<Integer, long[]> chunks, long first,
+			long last) {
+		for (long day = first; day <= last;) {
+			int key = (int) (day >> 16);
+			long end = Math.min(last, (long) key << 16 | 0xFFFF);
+			setRange(chunks.computeIfAbsent(key, k -> new long[WORDS]),
+					(int) (day & 0xFFFF), (int) (end & 0xFFFF));
+			day = end + 1;
+		}
+	}
+
+	private static void setRange(long[] words, int from, int to) {
+		int first = from >>> 6;
+		int last = to >>> 6;
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> (63 - (to & 63));
+		if (first == last) {
+			words[first] |= firstMask & lastMask;
+			return;
+		}
+		words[first] |= firstMask;
+		Arrays.fill(words, first + 1, last, -1L);
+		words[last] |= lastMask;
+	}
+
+	private static DayBitmap of(TreeMap<Integer, long[]> chunks) {
+		int[] keys = new int[chunks.size()];
+		Container[] containers = new Container[chunks.size()];
+		int n = 0;
+		for (Map.Entry<Integer, long[]> e : chunks.entrySet()) {
+			Container c = Container.of(e.getValue());
+			if (c != null) {
+				keys[n] = e.getKey();
+				containers[n++] = c;
+			}
+		}
+		return new DayBitmap(Arrays.copyOf(keys, n), Arrays.copyOf(
+				containers, n));
+	}
+
+	/**
+	 * Returns the number of days in this set.
+	 *
+	 * @return The cardinality.
+	 */
+	public long cardinality() {
+		return cardinality;
+	}
+
+	/**
+	 * Checks whether this set is empty.
+	 *
+	 * @return True if this set contains no day.
+	 */
+	public boolean isEmpty() {
+		return cardinality == 0;
+	}
+
+	/**
+	 * Checks whether this set contains the day of the given date.
+	 *
+	 * @param arg
+	 *            The date.
+	 * @return True if the day is contained.
+	 */
+	public boolean includes(Date arg) {
+		return includesDay(DateFactory.toEpochDay(arg.getTime()));
+	}
+
+	/**
+	 * Checks whether this set contains the given day.
+	 *
+	 * @param epochDay
+	 *            The epoch day.
+	 * @return True if the day is contained.
+	 */
+	public boolean includesDay(long epochDay) {
+		int i = Arrays.binarySearch(keys, (int) (epochDay >> 16));
+		return i >= 0 && containers[i].contains((int) (epochDay & 0xFFFF));
+	}
+
+	/**
+	 * Returns the days contained in both this set and the argument.
+	 *
+	 * @param other
+	 *            The other set.
+	 * @return The intersection.
+	 */
+	public DayBitmap and(DayBitmap other) {
+		return merge(other, Container::and, false, false);
+	}
+
+	/**
+	 * Returns the days contained in this set or the argument.
+	 *
+	 * @param other
+	 *            The other set.
+	 * @return The union.
+	 */
+	public DayBitmap or(DayBitmap other) {
+		return merge(other, Container::or, true, true);
+	}
+
+	/**
+	 * Returns the days contained in this set but not in the argument.
+	 *
+	 * @param other
+	 *            The other set.
+	 * @return The difference.
+	 */
+	public DayBitmap andNot(DayBitmap other) {
+		return merge(other, Container::andNot, true, false);
+	}
+
+	private DayBitmap merge(DayBitmap other, BinaryOperator<Container> op,
+			boolean keepThis, boolean keepOther) {
+		int[] k = new int[keys.length + other.keys.length];
+		Container[] c = new Container[k.length];
+		int n = 0;
+		int i = 0;
+		int j = 0;
+		while (i < keys.length || j < other.keys.length) {
+			int key;
+			Container result;
+			if (j == other.keys.length
+					|| (i < keys.length && keys[i] < other.keys[j])) {
+				key = keys[i];
+				result = keepThis ? containers[i] : null;
+				i++;
+			} else if (i == keys.length || other.keys[j] < keys[i]) {
+				key = other.keys[j];
+				result = keepOther ? other.containers[j] : null;
+				j++;
+			} else {
+				key = keys[i];
+				result = op.apply(containers[i++], other.containers[j++]);
+			}
+			if (result != null) {
+				k[n] = key;
+				c[n++] = result;
+			}
+		}
+		return new DayBitmap(Arrays.copyOf(k, n), Arrays.copyOf(c, n));
+	}
+
+	/**
+	 * Hands all days of this set to a consumer, in ascending order.
+	 *
+	 * @param consumer
+	 *            Receives the epoch days.
+	 */
+	public void forEachDay(LongConsumer consumer) {
+		for (int i = 0; i < keys.length; i++) {
+			long base = (long) keys[i] << 16;
+			Container c = containers[i];
+			if (c.words == null) {
+				for (char low : c.values)
+					consumer.accept(base | low);
+				continue;
+			}
+			for (int w = 0; w < WORDS; w++) {
+				for (long word = c.words[w]; word != 0; word &= word - 1)
+					consumer.accept(base | w << 6
+							| Long.numberOfTrailingZeros(word));
+			}
+		}
+	}
+
+	/**
+	 * Returns the days of this set as a list of date ranges, one for every
+	 * maximal run of consecutive days, in ascending order. The date ranges
+	 * cover their days entirely: they start with the first millisecond of
+	 * their first day and finish with the last millisecond of their last day,
+	 * so that a single day is not an empty date range.
+	 *
+	 * @param factory
+	 *            The factory creating the date ranges.
+	 * @return The date ranges.
+	 */
+	public List<DateRange> toDateRanges(DateRangeFactory factory) {
+		List<DateRange> result = new ArrayList<>();
+		long[] run = { 0, Long.MIN_VALUE };
+		forEachDay(day -> {
+			if (run[1] != Long.MIN_VALUE && day != run[1] + 1) {
+				result.add(createDateRange(factory, run[0], run[1]));
+				run[0] = day;
+			} else if (run[1] == Long.MIN_VALUE) {
+				run[0] = day;
+			}
+			run[1] = day;
+		});
+		if (run[1] != Long.MIN_VALUE)
+			result.add(createDateRange(factory, run[0], run[1]));
+		return result;
+	}
+
+	private static DateRange createDateRange(DateRangeFactory factory,
+			long first, long last) {
+		return factory.createDateRange(
+				new Date(DateFactory.startOfEpochDay(first)),
+				new Date(DateFactory.startOfEpochDay(last + 1) - 1));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof DayBitmap))
+			return false;
+		DayBitmap other = (DayBitmap) obj;
+		if (cardinality != other.cardinality
+				|| !Arrays.equals(keys, other.keys))
+			return false;
+		for (int i = 0; i < keys.length; i++) {
+			if (!containers[i].sameDays(other.containers[i]))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(keys);
+		for (Container c : containers)
+			result = 31 * result + c.hashCode();
+		return result;
+	}
+
+	/**
+	 * The days of a chunk, stored either as a sorted array of the lower 16
+	 * bits of the days or as a bitmap. A chunk is stored as a bitmap if and
+	 * only if it contains more than {@link DayBitmap#ARRAY_LIMIT} days.
+	 */
+	private static final class Container {
+		final char[] values;
+
+		final long[] words;
+
+		final int cardinality;
+
+		private Container(char[] values) {
+			this.values = values;
+			this.words = null;
+			this.cardinality = values.length;
+		}
+
+		private Container(long[] words, int cardinality) {
+			this.values = null;
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		/**
+		 * Returns the container of the given bitmap, which it may take
+		 * ownership of, or null if it is empty.
+		 */
+		static Container of(long[] words) {
+			int n = 0;
+			for (long word : words)
+				n += Long.bitCount(word);
+			if (n == 0)
+				return null;
+			if (n > ARRAY_LIMIT)
+				return new Container(words, n);
+			char[] values = new char[n];
+			int k = 0;
+			for (int w = 0; w < WORDS; w++) {
+				for (long word = words[w]; word != 0; word &= word - 1)
+					values[k++] = (char) (w << 6 | Long
+							.numberOfTrailingZeros(word));
+			}
+			return new Container(values);
+		}
+
+		private static Container of(char[] values, int n) {
+			return n == 0 ? null : new Container(Arrays.copyOf(values, n));
+		}
+
+		boolean contains(int low) {
+			if (words != null)
+				return (words[low >>> 6] & 1L << low) != 0;
+			return Arrays.binarySearch(values, (char) low) >= 0;
+		}
+
+		private long[] toWords() {
+			if (words != null)
+				return words.clone();
+			long[] result = new long[WORDS];
+			for (char low : values)
+				result[low >>> 6] |= 1L << low;
+			return result;
+		}
+
+		Container and(Container other) {
+			if (words != null && other.words != null) {
+				long[] result = new long[WORDS];
+				for (int w = 0; w < WORDS; w++)
+					result[w] = words[w] & other.words[w];
+				return of(result);
+			}
+			if (words != null)
+				return other.and(this);
+			char[] result = new char[cardinality];
+			int n = 0;
+			if (other.words != null) {
+				for (char low : values) {
+					if (other.contains(low))
+						result[n++] = low;
+				}
+				return of(result, n);
+			}
+			for (int i = 0, j = 0; i < cardinality && j < other.cardinality;) {
+				if (values[i] < other.values[j])
+					i++;
+				else if (values[i] > other.values[j])
+					j++;
+				else {
+					result[n++] = values[i++];
+					j++;
+				}
+			}
+			return of(result, n);
+		}
+
+		Container or(Container other) {
+			if (words == null && other.words == null
+					&& cardinality + other.cardinality <= ARRAY_LIMIT) {
+				char[] result = new char[cardinality + other.cardinality];
+				int n = 0;
+				int i = 0;
+				int j = 0;
+				while (i < cardinality || j < other.cardinality) {
+					if (j == other.cardinality
+							|| (i < cardinality && values[i] < other.values[j]))
+						result[n++] = values[i++];
+					else if (i == cardinality || other.values[j] < values[i])
+						result[n++] = other.values[j++];
+					else {
+						result[n++] = values[i++];
+						j++;
+					}
+				}
+				return of(result, n);
+			}
+			long[] result = toWords();
+			if (other.words != null) {
+				for (int w = 0; w < WORDS; w++)
+					result[w] |= other.words[w];
+			} else {
+				for (char low : other.values)
+					result[low >>> 6] |= 1L << low;
+			}
+			return of(result);
+		}
+
+		Container andNot(Container other) {
+			if (words == null) {
+				char[] result = new char[cardinality];
+				int n = 0;
+				for (char low : values) {
+					if (!other.contains(low))
+						result[n++] = low;
+				}
+				return of(result, n);
+			}
+			long[] result = words.clone();
+			if (other.words != null) {
+				for (int w = 0; w < WORDS; w++)
+					result[w] &= ~other.words[w];
+			} else {
+				for (char low : other.values)
+					result[low >>> 6] &= ~(1L << low);
+			}
+			return of(result);
+		}
+
+		boolean sameDays(Container other) {
+			return Arrays.equals(values, other.values)
+					&& Arrays.equals(words, other.words);
+		}
+
+		@Override
+		public int hashCode() {
+			return words != null ? Arrays.hashCode(words) : Arrays
+					.hashCode(values);
+		}
+	}
+}
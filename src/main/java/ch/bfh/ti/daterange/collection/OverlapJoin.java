@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+import ch.bfh.ti.daterange.metrics.BulkOperationEvent;
+import ch.bfh.ti.daterange.metrics.Instrumentation;
+import ch.bfh.ti.daterange.metrics.Operation;
+
+/**
+ * Finds all pairs of overlapping date ranges between two collections in
+ * O((n + m) log(n + m) + k) time, where k is the number of pairs, by a
+ * sweep-line merge over both collections sorted by start. A pair (l, r) is
+ * reported if and only if <code>l.overlaps(r)</code> holds.
+ * <p>
+ * Date ranges whose start lies after their finish do not fit the sweep; they
+ * are compared one by one against the other collection.
+ */
+public final class OverlapJoin {
+
+	/**
+	 * Not used.
+	 */
+	private OverlapJoin() {
+	}
+
+	/**
+	 * Reports every pair of date ranges l from <code>left</code> and r from
+	 * <code>right</code> where <code>l.overlaps(r)</code> holds. The pairs
+	 * are reported in no particular order.
+	 *
+	 * @param left
+	 *            The left date ranges.
+	 * @param right
+	 *            The right date ranges.
+	 * @param consumer
+	 *            Receives the overlapping pairs.
+	 */
+	public static <L extends DateRange, R extends DateRange> void join(
+			Collection<? extends L> left, Collection<? extends R> right,
+			BiConsumer<? super L, ? super R> consumer) {
+		join(left, right, consumer, 1);
+	}
+
+	/**
+	 * Like {@link #join(Collection, Collection, BiConsumer)}, but splits the
+	 * time axis into slabs joined in parallel on the common fork/join pool.
+	 * Every pair is reported exactly once, by the slab containing the later
+	 * of both starts. The consumer must be thread-safe.
+	 *
+	 * @param left
+	 *            The left date ranges.
+	 * @param right
+	 *            The right date ranges.
+	 * @param consumer
+	 *            Receives the overlapping pairs; called concurrently.
+	 */
+	public static <L extends DateRange, R extends DateRange> void joinParallel(
+			Collection<? extends L> left, Collection<? extends R> right,
+			BiConsumer<? super L, ? super R> consumer) {
+		join(left, right, consumer,
+				4 * ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	private static <L extends DateRange, R extends DateRange> void join(
+			Collection<? extends L> left, Collection<? extends R> right,
+			BiConsumer<? super L, ? super R> consumer, int slabs) {
+		BulkOperationEvent event = Instrumentation.startBulk();
+		Side<L> l = new Side<>(left);
+		Side<R> r = new Side<>(right);
+		for (int i : l.inverted) {
+			for (int j = 0; j < r.elements.length; j++) {
+				if (DateRanges.overlaps(l.allStarts[i], l.allFinishes[i],
+						r.allStarts[j], r.allFinishes[j]))
+					consumer.accept(l.element(i), r.element(j));
+			}
+		}
+		for (int j : r.inverted) {
+			for (int k = 0; k < l.starts.length; k++) {
+				int i = l.index[k];
+				if (DateRanges.overlaps(l.allStarts[i], l.allFinishes[i],
+						r.allStarts[j], r.allFinishes[j]))
+					consumer.accept(l.element(i), r.element(j));
+			}
+		}
+		long[] bounds = bounds(l.starts.length >= r.starts.length ? l.starts
+				: r.starts, slabs);
+		int[][] lOpen = open(l.starts, l.finishes, bounds);
+		int[][] rOpen = open(r.starts, r.finishes, bounds);
+		if (bounds.length == 1)
+			sweep(l, r, bounds, 0, lOpen[0], rOpen[0], consumer);
+		else
+			IntStream.range(0, bounds.length).parallel().forEach(
+					slab -> sweep(l, r, bounds, slab, lOpen[slab],
+							rOpen[slab], consumer));
+		Instrumentation.stop(Operation.OVERLAP_JOIN, event, l.elements.length
+				+ r.elements.length);
+	}
+
+	/**
+	 * Returns the lower bounds of the slabs, starting with Long.MIN_VALUE and
+	 * strictly increasing.
+	 */
+	private static long[] bounds(long[] starts, int slabs) {
+		int n = Math.min(slabs, starts.length);
+		long[] bounds = new long[Math.max(n, 1)];
+		bounds[0] = Long.MIN_VALUE;
+		int m = 1;
+		for (int i = 1; i < n; i++) {
+			long bound = starts[(int) ((long) i * starts.length / n)];
+			if (bound > bounds[m - 1])
+				bounds[m++] = bound;
+		}
+		return Arrays.copyOf(bounds, m);
+	}
+
+	/**
+	 * Returns for every slab the positions of the date ranges of one side
+	 * that start in earlier slabs and are still open at its lower bound. The
+	 * open date ranges are carried over from slab to slab, so every date
+	 * range is visited once when it starts and once per further slab it
+	 * reaches.
+	 */
+	private static int[][] open(long[] starts, long[] finishes,
+			long[] bounds) {
+		int[][] result = new int[bounds.length][];
+		int[] open = new int[16];
+		int size = 0;
+		int from = 0;
+		for (int slab = 0; slab < bounds.length; slab++) {
+			long lower = bounds[slab];
+			int m = 0;
+			for (int k = 0; k < size; k++) {
+				if (finishes[open[k]] >= lower)
+					open[m++] = open[k];
+			}
+			size = m;
+			int to = lowerBound(starts, lower);
+			for (int i = from; i < to; i++) {
+				if (finishes[i] < lower)
+					continue;
+				if (size == open.length)
+					open = Arrays.copyOf(open, 2 * size);
+				open[size++] = i;
+			}
+			from = to;
+			result[slab] = Arrays.copyOf(open, size);
+		}
+		return result;
+	}
+
+	/**
+	 * Joins the date ranges of both sides that start within the given slab
+	 * against each other and against the given date ranges of earlier slabs
+	 * still open at its lower bound.
+	 */
+	private static <L extends DateRange, R extends DateRange> void sweep(
+			Side<L> l, Side<R> r, long[] bounds, int slab, int[] lOpen,
+			int[] rOpen, BiConsumer<? super L, ? super R> consumer) {
+		long lower = bounds[slab];
+		int lFrom = lowerBound(l.starts, lower);
+		int rFrom = lowerBound(r.starts, lower);
+		int lTo = slab + 1 < bounds.length ? lowerBound(l.starts,
+				bounds[slab + 1]) : l.starts.length;
+		int rTo = slab + 1 < bounds.length ? lowerBound(r.starts,
+				bounds[slab + 1]) : r.starts.length;
+		Active lActive = new Active(l.finishes, lOpen);
+		Active rActive = new Active(r.finishes, rOpen);
+		int i = lFrom;
+		int j = rFrom;
+		while (i < lTo || j < rTo) {
+			if (j == rTo || (i < lTo && l.starts[i] <= r.starts[j])) {
+				long start = l.starts[i];
+				L element = l.element(l.index[i]);
+				int n = rActive.evict(start);
+				for (int k = 0; k < n; k++)
+					consumer.accept(element,
+							r.element(r.index[rActive.items[k]]));
+				lActive.add(i++);
+			} else {
+				long start = r.starts[j];
+				R element = r.element(r.index[j]);
+				int n = lActive.evict(start);
+				for (int k = 0; k < n; k++)
+					consumer.accept(l.element(l.index[lActive.items[k]]),
+							element);
+				rActive.add(j++);
+			}
+		}
+	}
+
+	private static int lowerBound(long[] starts, long key) {
+		int lo = 0;
+		int hi = starts.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (starts[mid] < key)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * The date ranges of one side of the join. The ordered ones are sorted
+	 * by start; their positions in the given collection are kept in index.
+	 */
+	private static class Side<T extends DateRange> {
+		final Object[] elements;
+
+		final long[] allStarts;
+
+		final long[] allFinishes;
+
+		final long[] starts;
+
+		final long[] finishes;
+
+		final int[] index;
+
+		final int[] inverted;
+
+		Side(Collection<? extends T> ranges) {
+			elements = ranges.toArray();
+			int n = elements.length;
+			allStarts = new long[n];
+			allFinishes = new long[n];
+			long[] keys = new long[n];
+			long[] positions = new long[n];
+			int[] others = new int[n];
+			int m = 0;
+			int o = 0;
+			for (int i = 0; i < n; i++) {
+				DateRange dr = (DateRange) elements[i];
+				allStarts[i] = DateRanges.startMillis(dr);
+				allFinishes[i] = DateRanges.finishMillis(dr);
+				if (allStarts[i] > allFinishes[i]) {
+					others[o++] = i;
+				} else {
+					keys[m] = allStarts[i];
+					positions[m++] = i;
+				}
+			}
+			starts = Arrays.copyOf(keys, m);
+			long[] order = Arrays.copyOf(positions, m);
+			DateRanges.sort(starts, order);
+			finishes = new long[m];
+			index = new int[m];
+			for (int k = 0; k < m; k++) {
+				index[k] = (int) order[k];
+				finishes[k] = allFinishes[index[k]];
+			}
+			inverted = Arrays.copyOf(others, o);
+		}
+
+		@SuppressWarnings("unchecked")
+		T element(int i) {
+			return (T) elements[i];
+		}
+	}
+
+	/**
+	 * The positions of the date ranges of one side that have started but may
+	 * not yet have finished.
+	 */
+	private static class Active {
+		private final long[] finishes;
+
+		int[] items = new int[16];
+
+		private int size;
+
+		/**
+		 * Starts with the given positions, taking ownership of the array.
+		 */
+		Active(long[] finishes, int[] open) {
+			this.finishes = finishes;
+			if (open.length > 0)
+				items = open;
+			size = open.length;
+		}
+
+		void add(int position) {
+			if (size == items.length)
+				items = Arrays.copyOf(items, 2 * size);
+			items[size++] = position;
+		}
+
+		/**
+		 * Removes the date ranges finished before the given start and
+		 * returns the number of remaining ones, kept at the front of items.
+		 */
+		int evict(long start) {
+			int m = 0;
+			for (int k = 0; k < size; k++) {
+				if (finishes[items[k]] >= start)
+					items[m++] = items[k];
+			}
+			size = m;
+			return m;
+		}
+	}
+}
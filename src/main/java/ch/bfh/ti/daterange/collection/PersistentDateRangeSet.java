@@ -0,0 +1,435 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * An immutable, persistent set of date ranges. Adding or removing a date
+ * range returns a new version of the set in O(log n) time, sharing all but
+ * O(log n) nodes with the old one, which remains valid. A version is never
+ * modified, so any number of threads may query it without locking while a
+ * writer derives new versions. Publishing the current version through a
+ * volatile field or an {@link java.util.concurrent.atomic.AtomicReference}
+ * gives readers consistent snapshots; writers may update such a reference
+ * with <code>updateAndGet(s -&gt; s.add(dr))</code>.
+ * <p>
+ * The date ranges are kept in an AVL tree ordered as by
+ * {@link DateRange#compareTo(DateRange)}, with each node augmented by the
+ * greatest finish within its subtree, so that includes and overlaps queries
+ * take O(log n) time. Date ranges whose start lies after their finish are
+ * rejected.
+ */
+public final class PersistentDateRangeSet implements Iterable<DateRange> {
+
+	/**
+	 * The empty set.
+	 */
+	public static final PersistentDateRangeSet EMPTY =
+			new PersistentDateRangeSet(null);
+
+	private final Node root;
+
+	private PersistentDateRangeSet(Node root) {
+		this.root = root;
+	}
+
+	/**
+	 * A node of the tree. Nodes are immutable and shared between versions.
+	 */
+	private static final class Node {
+		final long start;
+
+		final long finish;
+
+		final Node left;
+
+		final Node right;
+
+		final int height;
+
+		final int size;
+
+		/**
+		 * The greatest finish within the subtree rooted at this node.
+		 */
+		final long maxFinish;
+
+		Node(long start, long finish, Node left, Node right) {
+			this.start = start;
+			this.finish = finish;
+			this.left = left;
+			this.right = right;
+			this.height = Math.max(height(left), height(right)) + 1;
+			this.size = size(left) + size(right) + 1;
+			long max = finish;
+			if (left != null)
+				max = Math.max(max, left.maxFinish);
+			if (right != null)
+				max = Math.max(max, right.maxFinish);
+			this.maxFinish = max;
+		}
+	}
+
+	/**
+	 * Returns a set holding the given date ranges, built in O(n log n) time.
+	 *
+	 * @param ranges
+	 *            The date ranges.
+	 * @return The set.
+	 * @throws IllegalArgumentException
+	 *             If a date range starts after its finish.
+	 */
+	public static PersistentDateRangeSet of(
+			Collection<? extends DateRange> ranges) {
+		long[] starts = new long[ranges.size()];
+		long[] finishes = new long[starts.length];
+		int n = 0;
+		for (DateRange dr : ranges) {
+			starts[n] = DateRanges.startMillis(dr);
+			finishes[n] = DateRanges.finishMillis(dr);
+			if (starts[n] > finishes[n])
+				throw new IllegalArgumentException("Start after finish: " + dr);
+			n++;
+		}
+		DateRanges.sort(starts, finishes);
+		int m = 0;
+		for (int i = 0; i < n; i++) {
+			if (m > 0 && starts[m - 1] == starts[i]
+					&& finishes[m - 1] == finishes[i])
+				continue;
+			starts[m] = starts[i];
+			finishes[m++] = finishes[i];
+		}
+		return new PersistentDateRangeSet(build(starts, finishes, 0, m));
+	}
+
+	private static Node build(long[] starts, long[] finishes, int from,
+			int to) {
+		if (from >= to)
+			return null;
+		int mid = (from + to) >>> 1;
+		return new Node(starts[mid], finishes[mid], build(starts, finishes,
+				from, mid), build(starts, finishes, mid + 1, to));
+	}
+
+	private static int height(Node n) {
+		return n == null ? 0 : n.height;
+	}
+
+	private static int size(Node n) {
+		return n == null ? 0 : n.size;
+	}
+
+	/**
+	 * Returns the number of date ranges in this set.
+	 *
+	 * @return The number of date ranges.
+	 */
+	public int size() {
+		return size(root);
+	}
+
+	/**
+	 * Checks whether this set is empty.
+	 *
+	 * @return True iff this set holds no date range.
+	 */
+	public boolean isEmpty() {
+		return root == null;
+	}
+
+	/**
+	 * Returns a set holding the date ranges of this one and the given one.
+	 *
+	 * @param dr
+	 *            The date range to add.
+	 * @return The new version, or this set if it already contains a date range
+	 *         equal to the given one.
+	 * @throws IllegalArgumentException
+	 *             If the start lies after the finish.
+	 */
+	public PersistentDateRangeSet add(DateRange dr) {
+		return add(DateRanges.startMillis(dr), DateRanges.finishMillis(dr));
+	}
+
+	/**
+	 * Returns a set holding the date ranges of this one and the given one.
+	 *
+	 * @param start
+	 *            The start in milliseconds.
+	 * @param finish
+	 *            The finish in milliseconds.
+	 * @return The new version, or this set if it already contains the date
+	 *         range.
+	 * @throws IllegalArgumentException
+	 *             If the start lies after the finish.
+	 */
+	public PersistentDateRangeSet add(long start, long finish) {
+		if (start > finish)
+			throw new IllegalArgumentException("Start after finish: " + start
+					+ " > " + finish);
+		Node n = insert(root, start, finish);
+		return n == root ? this : new PersistentDateRangeSet(n);
+	}
+
+	/**
+	 * Returns a set holding the date ranges of this one except the given one.
+	 *
+	 * @param dr
+	 *            The date range to remove.
+	 * @return The new version, or this set if it contains no date range equal
+	 *         to the given one.
+	 */
+	public PersistentDateRangeSet remove(DateRange dr) {
+		return remove(DateRanges.startMillis(dr), DateRanges.finishMillis(dr));
+	}
+
+	/**
+	 * Returns a set holding the date ranges of this one except the given one.
+	 *
+	 * @param start
+	 *            The start in milliseconds.
+	 * @param finish
+	 *            The finish in milliseconds.
+	 * @return The new version, or this set if it does not contain the date
+	 *         range.
+	 */
+	public PersistentDateRangeSet remove(long start, long finish) {
+		Node n = delete(root, start, finish);
+		return n == root ? this : new PersistentDateRangeSet(n);
+	}
+
+	private static Node insert(Node n, long start, long finish) {
+		if (n == null)
+			return new Node(start, finish, null, null);
+		int c = DateRanges.compare(start, finish, n.start, n.finish);
+		if (c < 0) {
+			Node left = insert(n.left, start, finish);
+			return left == n.left ? n : balance(n.start, n.finish, left,
+					n.right);
+		}
+		if (c > 0) {
+			Node right = insert(n.right, start, finish);
+			return right == n.right ? n : balance(n.start, n.finish, n.left,
+					right);
+		}
+		return n;
+	}
+
+	private static Node delete(Node n, long start, long finish) {
+		if (n == null)
+			return null;
+		int c = DateRanges.compare(start, finish, n.start, n.finish);
+		if (c < 0) {
+			Node left = delete(n.left, start, finish);
+			return left == n.left ? n : balance(n.start, n.finish, left,
+					n.right);
+		}
+		if (c > 0) {
+			Node right = delete(n.right, start, finish);
+			return right == n.right ? n : balance(n.start, n.finish, n.left,
+					right);
+		}
+		if (n.left == null)
+			return n.right;
+		if (n.right == null)
+			return n.left;
+		Node min = n.right;
+		while (min.left != null)
+			min = min.left;
+		return balance(min.start, min.finish, n.left, deleteMin(n.right));
+	}
+
+	private static Node deleteMin(Node n) {
+		if (n.left == null)
+			return n.right;
+		return balance(n.start, n.finish, deleteMin(n.left), n.right);
+	}
+
+	/**
+	 * Creates a node from the given parts, rotating once or twice if the
+	 * heights of the subtrees differ by two.
+	 */
+	private static Node balance(long start, long finish, Node left,
+			Node right) {
+		int hl = height(left);
+		int hr = height(right);
+		if (hl > hr + 1) {
+			if (height(left.left) >= height(left.right))
+				return new Node(left.start, left.finish, left.left, new Node(
+						start, finish, left.right, right));
+			Node lr = left.right;
+			return new Node(lr.start, lr.finish, new Node(left.start,
+					left.finish, left.left, lr.left), new Node(start, finish,
+					lr.right, right));
+		}
+		if (hr > hl + 1) {
+			if (height(right.right) >= height(right.left))
+				return new Node(right.start, right.finish, new Node(start,
+						finish, left, right.left), right.right);
+			Node rl = right.left;
+			return new Node(rl.start, rl.finish, new Node(start, finish, left,
+					rl.left), new Node(right.start, right.finish, rl.right,
+					right.right));
+		}
+		return new Node(start, finish, left, right);
+	}
+
+	/**
+	 * Checks whether this set contains a date range equal to the given one.
+	 *
+	 * @param dr
+	 *            The date range.
+	 * @return True iff a date range with the same start and finish is
+	 *         contained.
+	 */
+	public boolean contains(DateRange dr) {
+		long start = DateRanges.startMillis(dr);
+		long finish = DateRanges.finishMillis(dr);
+		Node n = root;
+		while (n != null) {
+			int c = DateRanges.compare(start, finish, n.start, n.finish);
+			if (c == 0)
+				return true;
+			n = c < 0 ? n.left : n.right;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether some date range of this set includes the given date.
+	 *
+	 * @param arg
+	 *            The date to check.
+	 * @return True iff there is a date range r with r.includes(arg).
+	 */
+	public boolean includes(Date arg) {
+		return includes(arg.getTime());
+	}
+
+	/**
+	 * Checks whether some date range of this set includes the given point in
+	 * time.
+	 *
+	 * @param arg
+	 *            The point in time in milliseconds.
+	 * @return True iff there is a date range r with r.includes(arg).
+	 */
+	public boolean includes(long arg) {
+		return overlaps(arg, arg);
+	}
+
+	/**
+	 * Checks whether some date range of this set overlaps the given one.
+	 *
+	 * @param dr
+	 *            The date range.
+	 * @return True iff there is a date range r with r.overlaps(dr).
+	 */
+	public boolean overlaps(DateRange dr) {
+		return overlaps(DateRanges.startMillis(dr), DateRanges
+				.finishMillis(dr));
+	}
+
+	/**
+	 * Checks whether some date range of this set overlaps the given one. If
+	 * the left subtree reaches the start, either it holds an overlapping date
+	 * range, or it holds one starting after the finish, and so does every
+	 * date range to the right of it.
+	 *
+	 * @param start
+	 *            The start in milliseconds.
+	 * @param finish
+	 *            The finish in milliseconds.
+	 * @return True iff there is a date range r with r.overlaps([start,
+	 *         finish]).
+	 */
+	public boolean overlaps(long start, long finish) {
+		Node n = root;
+		while (n != null && n.maxFinish >= start) {
+			if (n.start <= finish && n.finish >= start)
+				return true;
+			n = n.left != null && n.left.maxFinish >= start ? n.left : n.right;
+		}
+		return false;
+	}
+
+	/**
+	 * Reports the date ranges of this set overlapping the given one, in
+	 * ascending order.
+	 *
+	 * @param start
+	 *            The start in milliseconds.
+	 * @param finish
+	 *            The finish in milliseconds.
+	 * @param sink
+	 *            Receives the overlapping date ranges.
+	 */
+	public void overlapping(long start, long finish, DateRangeSink sink) {
+		overlapping(root, start, finish, sink);
+	}
+
+	private static void overlapping(Node n, long start, long finish,
+			DateRangeSink sink) {
+		while (n != null && n.maxFinish >= start) {
+			overlapping(n.left, start, finish, sink);
+			if (n.start > finish)
+				return;
+			if (n.finish >= start)
+				sink.accept(n.start, n.finish);
+			n = n.right;
+		}
+	}
+
+	/**
+	 * Returns an iterator over the date ranges of this set in ascending
+	 * order. The iterator returns new, immutable DateRange objects.
+	 *
+	 * @return The iterator.
+	 */
+	@Override
+	public Iterator<DateRange> iterator() {
+		return new Iterator<DateRange>() {
+			private final Deque<Node> path = descend(new ArrayDeque<>(),
+					root);
+
+			@Override
+			public boolean hasNext() {
+				return !path.isEmpty();
+			}
+
+			@Override
+			public DateRange next() {
+				if (path.isEmpty())
+					throw new NoSuchElementException();
+				Node n = path.pop();
+				descend(path, n.right);
+				return new DateRangeImpl(n.start, n.finish);
+			}
+		};
+	}
+
+	private static Deque<Node> descend(Deque<Node> path, Node n) {
+		for (; n != null; n = n.left)
+			path.push(n);
+		return path;
+	}
+}
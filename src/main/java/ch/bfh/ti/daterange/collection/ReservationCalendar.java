@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+
+/**
+ * A thread-safe calendar of reservations that never overlap each other in the
+ * sense of {@link DateRange#overlaps(DateRange)}. A date range is reserved
+ * atomically if and only if it overlaps no reservation.
+ * <p>
+ * The time axis is divided into buckets of fixed width, and every bucket is
+ * guarded by one of a fixed number of locks. Reserving or cancelling a date
+ * range locks the stripes of all buckets it touches, in ascending order, so
+ * that overlapping date ranges, which share a bucket, are serialized, while
+ * date ranges touching disjoint stripes proceed in parallel. The reservations
+ * are kept in a concurrent skip list keyed by start; as they do not overlap,
+ * a date range conflicts iff the reservation with the greatest start not
+ * after its finish ends at or after its start. Queries do not lock.
+ */
+public class ReservationCalendar {
+
+	/**
+	 * The default width of a bucket: one day.
+	 */
+	public static final long DEFAULT_BUCKET_MILLIS = 24L * 60 * 60 * 1000;
+
+	/**
+	 * The default number of locks.
+	 */
+	public static final int DEFAULT_STRIPES = 64;
+
+	private final ConcurrentSkipListMap<Long, DateRange> reservations =
+			new ConcurrentSkipListMap<>();
+
+	private final long bucketMillis;
+
+	private final ReentrantLock[] locks;
+
+	/**
+	 * Constructs a calendar with buckets of one day and
+	 * {@link #DEFAULT_STRIPES} locks.
+	 */
+	public ReservationCalendar() {
+		this(DEFAULT_BUCKET_MILLIS, DEFAULT_STRIPES);
+	}
+
+	/**
+	 * Constructs a calendar. The bucket width should be about the length of a
+	 * typical reservation.
+	 *
+	 * @param bucketMillis
+	 *            The width of a bucket in milliseconds, &gt; 0.
+	 * @param stripes
+	 *            The number of locks, &gt; 0.
+	 */
+	public ReservationCalendar(long bucketMillis, int stripes) {
+		if (bucketMillis <= 0)
+			throw new IllegalArgumentException("Bucket width: " + bucketMillis);
+		if (stripes <= 0)
+			throw new IllegalArgumentException("Stripes: " + stripes);
+		this.bucketMillis = bucketMillis;
+		this.locks = new ReentrantLock[stripes];
+		for (int i = 0; i < stripes; i++)
+			locks[i] = new ReentrantLock();
+	}
+
+	/**
+	 * Reserves a date range unless it overlaps a reservation.
+	 *
+	 * @param dr
+	 *            The date range, where start &lt;= finish must be true.
+	 * @return True if the date range has been reserved, false if it overlaps
+	 *         a reservation.
+	 * @throws IllegalArgumentException
+	 *             If the start lies after the finish.
+	 */
+	public boolean tryReserve(DateRange dr) {
+		long start = DateRanges.startMillis(dr);
+		long finish = DateRanges.finishMillis(dr);
+		if (start > finish)
+			throw new IllegalArgumentException("Start after finish: " + dr);
+		lock(start, finish);
+		try {
+			if (conflict(start, finish) != null)
+				return false;
+			reservations.put(start, dr);
+			return true;
+		} finally {
+			unlock(start, finish);
+		}
+	}
+
+	/**
+	 * Cancels a reservation.
+	 *
+	 * @param dr
+	 *            The reserved date range, or one equal to it.
+	 * @return True if the reservation has been cancelled, false if there is
+	 *         no such reservation.
+	 */
+	public boolean cancel(DateRange dr) {
+		long start = DateRanges.startMillis(dr);
+		long finish = DateRanges.finishMillis(dr);
+		if (start > finish)
+			return false;
+		lock(start, finish);
+		try {
+			DateRange reserved = reservations.get(start);
+			if (reserved == null || DateRanges.finishMillis(reserved) != finish)
+				return false;
+			reservations.remove(start);
+			return true;
+		} finally {
+			unlock(start, finish);
+		}
+	}
+
+	/**
+	 * Returns a reservation overlapping the given date range, if any. The
+	 * result reflects the reservations at some point during the call.
+	 *
+	 * @param dr
+	 *            The date range.
+	 * @return An overlapping reservation, or null.
+	 */
+	public DateRange getConflict(DateRange dr) {
+		return conflict(DateRanges.startMillis(dr), DateRanges.finishMillis(dr));
+	}
+
+	/**
+	 * Checks whether the given date range overlaps no reservation. The result
+	 * reflects the reservations at some point during the call.
+	 *
+	 * @param dr
+	 *            The date range.
+	 * @return True if the date range overlaps no reservation.
+	 */
+	public boolean isFree(DateRange dr) {
+		return getConflict(dr) == null;
+	}
+
+	/**
+	 * Returns the number of reservations.
+	 *
+	 * @return The size.
+	 */
+	public int size() {
+		return reservations.size();
+	}
+
+	/**
+	 * Returns the reservations sorted by start. The list is a snapshot that
+	 * is not updated afterwards; reservations made or cancelled during the
+	 * call may or may not be included.
+	 *
+	 * @return The reservations.
+	 */
+	public List<DateRange> getReservations() {
+		return new ArrayList<>(reservations.values());
+	}
+
+	private DateRange conflict(long start, long finish) {
+		Map.Entry<Long, DateRange> e = reservations.floorEntry(finish);
+		if (e != null && DateRanges.finishMillis(e.getValue()) >= start)
+			return e.getValue();
+		return null;
+	}
+
+	/**
+	 * Locks the stripes of all buckets touched by [start, finish] in
+	 * ascending order. The buckets are consecutive, so their stripes are
+	 * distinct and form a cyclic interval, which is locked as at most two
+	 * ascending runs: the wrapped part [0, to - n) first, then [from, to).
+	 */
+	private void lock(long start, long finish) {
+		int n = locks.length;
+		int count = stripeCount(start, finish);
+		int from = count == n ? 0 : firstStripe(start);
+		int to = from + count;
+		for (int i = 0; i < to - n; i++)
+			locks[i].lock();
+		for (int i = from; i < Math.min(to, n); i++)
+			locks[i].lock();
+	}
+
+	/**
+	 * Unlocks the stripes locked by {@link #lock(long, long)} in reverse
+	 * order.
+	 */
+	private void unlock(long start, long finish) {
+		int n = locks.length;
+		int count = stripeCount(start, finish);
+		int from = count == n ? 0 : firstStripe(start);
+		int to = from + count;
+		for (int i = Math.min(to, n) - 1; i >= from; i--)
+			locks[i].unlock();
+		for (int i = to - n - 1; i >= 0; i--)
+			locks[i].unlock();
+	}
+
+	/**
+	 * Returns the number of stripes of the buckets touched by [start,
+	 * finish], at most the number of locks.
+	 */
+	private int stripeCount(long start, long finish) {
+		long buckets = Math.floorDiv(finish, bucketMillis)
+				- Math.floorDiv(start, bucketMillis) + 1;
+		// buckets <= 0 if the difference overflows
+		return buckets <= 0 || buckets >= locks.length ? locks.length
+				: (int) buckets;
+	}
+
+	private int firstStripe(long start) {
+		return (int) Math.floorMod(Math.floorDiv(start, bucketMillis),
+				(long) locks.length);
+	}
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+
+/**
+ * Finds free slots of a given length in the calendars of a group of
+ * resources, e.g., rooms or people, where some number of the resources must
+ * be free at the same time. The calendar of a resource is a
+ * {@link DateRangeSet} of busy date ranges. A slot is free for a resource iff
+ * it overlaps none of its busy date ranges in the sense of
+ * {@link DateRange#overlaps(DateRange)}; date ranges whose start lies after
+ * their finish include no point in time and block nothing.
+ * <p>
+ * The possible starts of free slots of a resource form gaps between its busy
+ * date ranges. The gaps of all resources are merged by a sweep over a heap
+ * holding the next gap boundary of every resource, counting the resources
+ * free at the current point in time. Each calendar is positioned at the
+ * window by binary search, and the sweep stops as soon as enough slots are
+ * found, so the work grows with the number of bookings passed until then
+ * rather than with the size of the calendars.
+ */
+public class SlotFinder {
+
+	private final DateRangeSet[] calendars;
+
+	/**
+	 * Constructs a slot finder for a group of resources.
+	 *
+	 * @param calendars
+	 *            The busy date ranges of the resources, one set per resource.
+	 */
+	public SlotFinder(List<DateRangeSet> calendars) {
+		this.calendars = calendars.toArray(new DateRangeSet[0]);
+	}
+
+	/**
+	 * Returns the number of resources of this group.
+	 *
+	 * @return The number of resources.
+	 */
+	public int getResourceCount() {
+		return calendars.length;
+	}
+
+	/**
+	 * Returns the earliest free slots within a window. See
+	 * {@link #find(long, long, long, int, int, DateRangeSink)}.
+	 *
+	 * @param window
+	 *            The window containing the slots.
+	 * @param duration
+	 *            The length of a slot in milliseconds, &gt;= 0.
+	 * @param required
+	 *            The number of resources that must be free, 1 &lt;= required
+	 *            &lt;= getResourceCount().
+	 * @param limit
+	 *            The maximum number of slots to find, &gt;= 0.
+	 * @return The slots in ascending order.
+	 * @throws IllegalArgumentException
+	 *             If the window starts after its finish, or an argument is
+	 *             out of range.
+	 */
+	public DateRangeList find(DateRange window, long duration, int required,
+			int limit) {
+		long from = DateRanges.startMillis(window);
+		long to = DateRanges.finishMillis(window);
+		return DateRangeList.of(sink -> find(from, to, duration, required,
+				limit, sink));
+	}
+
+	/**
+	 * Finds the earliest free slots within a window. A slot is a date range
+	 * [s, s + duration] within the window for which at least the required
+	 * number of resources is free. The slots are chosen greedily from the
+	 * start of the window on: each slot starts at the earliest possible point
+	 * in time after the finish of the previous one, so the slots do not
+	 * overlap each other and could all be reserved in a
+	 * {@link ReservationCalendar}.
+	 *
+	 * @param from
+	 *            The start of the window in milliseconds.
+	 * @param to
+	 *            The finish of the window in milliseconds.
+	 * @param duration
+	 *            The length of a slot in milliseconds, &gt;= 0.
+	 * @param required
+	 *            The number of resources that must be free, 1 &lt;= required
+	 *            &lt;= getResourceCount().
+	 * @param limit
+	 *            The maximum number of slots to find, &gt;= 0.
+	 * @param sink
+	 *            Receives the slots in ascending order.
+	 * @return The number of slots found.
+	 * @throws IllegalArgumentException
+	 *             If the window starts after its finish, or an argument is
+	 *             out of range.
+	 */
+	public int find(long from, long to, long duration, int required,
+			int limit, DateRangeSink sink) {
+		if (from > to)
+			throw new IllegalArgumentException("Start after finish of window: "
+					+ from + " > " + to);
+		if (duration < 0)
+			throw new IllegalArgumentException("Duration: " + duration);
+		if (required <= 0 || required > calendars.length)
+			throw new IllegalArgumentException("Required resources: "
+					+ required);
+		if (limit < 0)
+			throw new IllegalArgumentException("Limit: " + limit);
+		long last = to - duration;
+		if (last > to || last < from || limit == 0)
+			return 0;
+		int n = calendars.length;
+		Gaps[] gaps = new Gaps[n];
+		long[] keys = new long[n];
+		int[] heap = new int[n];
+		int size = 0;
+		for (int i = 0; i < n; i++) {
+			gaps[i] = new Gaps(calendars[i], from, last, duration);
+			if (gaps[i].next()) {
+				keys[i] = gaps[i].start;
+				heap[size] = i;
+				siftUp(heap, keys, size++);
+			}
+		}
+		long pos = from;
+		int count = 0;
+		int found = 0;
+		while (found < limit && size > 0) {
+			long t = keys[heap[0]];
+			if (count >= required) {
+				while (pos < t && found < limit) {
+					sink.accept(pos, pos + duration);
+					found++;
+					if (pos + duration == Long.MAX_VALUE)
+						return found;
+					pos += duration + 1;
+				}
+			}
+			pos = Math.max(pos, t);
+			while (size > 0 && keys[heap[0]] == t) {
+				int i = heap[0];
+				Gaps g = gaps[i];
+				if (!g.open) {
+					g.open = true;
+					count++;
+					keys[i] = g.end == Long.MAX_VALUE ? g.end : g.end + 1;
+				} else {
+					g.open = false;
+					count--;
+					if (g.next()) {
+						keys[i] = g.start;
+					} else {
+						heap[0] = heap[--size];
+					}
+				}
+				siftDown(heap, size, keys, 0);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Finds the earliest free slots within a window for several groups of
+	 * resources in parallel on the common fork/join pool. See
+	 * {@link #find(DateRange, long, int, int)}.
+	 *
+	 * @param groups
+	 *            The slot finders of the groups.
+	 * @param window
+	 *            The window containing the slots.
+	 * @param duration
+	 *            The length of a slot in milliseconds, &gt;= 0.
+	 * @param required
+	 *            The number of resources of each group that must be free.
+	 * @param limit
+	 *            The maximum number of slots to find per group, &gt;= 0.
+	 * @return The slots of each group, in the order of the groups.
+	 * @throws IllegalArgumentException
+	 *             If the window starts after its finish, or an argument is
+	 *             out of range for some group.
+	 */
+	public static List<DateRangeList> findParallel(List<SlotFinder> groups,
+			DateRange window, long duration, int required, int limit) {
+		DateRangeList[] result = new DateRangeList[groups.size()];
+		IntStream.range(0, result.length).parallel()
+				.forEach(i -> result[i] = groups.get(i).find(window, duration,
+						required, limit));
+		return Arrays.asList(result);
+	}
+
+	private static void siftUp(int[] heap, long[] keys, int k) {
+		int i = heap[k];
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			if (keys[heap[parent]] <= keys[i])
+				break;
+			heap[k] = heap[parent];
+			k = parent;
+		}
+		heap[k] = i;
+	}
+
+	private static void siftDown(int[] heap, int size, long[] keys, int k) {
+		if (k >= size)
+			return;
+		int i = heap[k];
+		int half = size >>> 1;
+		while (k < half) {
+			int child = 2 * k + 1;
+			if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+				child++;
+			if (keys[i] <= keys[heap[child]])
+				break;
+			heap[k] = heap[child];
+			k = child;
+		}
+		heap[k] = i;
+	}
+
+	/**
+	 * Iterates over the gaps of possible slot starts of one resource within
+	 * [from, last], in ascending order.
+	 */
+	private static final class Gaps {
+		private final DateRangeSet set;
+
+		private final long from;
+
+		private final long last;
+
+		private final long duration;
+
+		/**
+		 * The position of the next busy date range to pass.
+		 */
+		private int index;
+
+		/**
+		 * The greatest finish of the busy date ranges passed so far;
+		 * Long.MAX_VALUE once all gaps are reported.
+		 */
+		private long after;
+
+		long start;
+
+		long end;
+
+		boolean open;
+
+		Gaps(DateRangeSet set, long from, long last, long duration) {
+			this.set = set;
+			this.from = from;
+			this.last = last;
+			this.duration = duration;
+			this.index = set.countStartingUntil(from + duration);
+			this.after = index == 0 ? Long.MIN_VALUE : set
+					.getMaxFinishMillis(index - 1);
+		}
+
+		/**
+		 * Moves to the next non-empty gap.
+		 *
+		 * @return False if there is none.
+		 */
+		boolean next() {
+			int size = set.size();
+			while (after != Long.MAX_VALUE) {
+				long s = after == Long.MIN_VALUE ? from : Math.max(from,
+						after + 1);
+				if (s > last)
+					return false;
+				while (index < size && set.getStartMillis(index) > set
+						.getFinishMillis(index))
+					index++;
+				long e;
+				if (index == size) {
+					e = last;
+					after = Long.MAX_VALUE;
+				} else {
+					e = Math.min(last, set.getStartMillis(index) - duration
+							- 1);
+					after = Math.max(after, set.getFinishMillis(index++));
+				}
+				if (s <= e) {
+					start = s;
+					end = e;
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+
+/**
+ * Detects overlaps within an unbounded stream of date ranges, e.g., sessions
+ * or leases, as they arrive. Every arriving date range is reported together
+ * with each earlier one it overlaps in the sense of
+ * {@link DateRange#overlaps(DateRange)}.
+ * <p>
+ * The date ranges must arrive roughly ordered by start: the watermark is the
+ * greatest start seen so far minus a fixed lateness, and a date range
+ * starting before the watermark is late and rejected. As later date ranges
+ * start at or after the watermark, a date range finishing before it cannot
+ * overlap any of them and is evicted. So only the active date ranges are
+ * kept: in an AVL tree ordered by start, with each node augmented by the
+ * greatest finish within its subtree, as in {@link PersistentDateRangeSet},
+ * and in a set ordered by finish for the eviction. An arriving date range
+ * only descends into subtrees reaching its start and stops at the first date
+ * range starting after its finish, so every node visited off the search path
+ * of its finish lies above an overlapping date range. Each arrival and
+ * eviction costs O(log n) time for n active date ranges, plus O(log n) per
+ * reported overlap.
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @param <T>
+ *            The type of the date ranges.
+ */
+public class StreamingOverlapDetector<T extends DateRange> {
+
+	private static final Comparator<Active<?>> BY_FINISH = Comparator
+			.<Active<?>>comparingLong(a -> a.finish).thenComparingLong(
+					a -> a.sequence);
+
+	private final long lateness;
+
+	private final BiConsumer<? super T, ? super T> consumer;
+
+	private final TreeSet<Active<T>> active = new TreeSet<>(BY_FINISH);
+
+	private Active<T> root;
+
+	private long maxStart = Long.MIN_VALUE;
+
+	private long watermark = Long.MIN_VALUE;
+
+	private long sequence;
+
+	private long lateCount;
+
+	/**
+	 * Constructs a detector.
+	 *
+	 * @param latenessMillis
+	 *            How far in milliseconds the start of a date range may lie
+	 *            before the greatest start seen so far, &gt;= 0.
+	 * @param consumer
+	 *            Receives each arriving date range, as first argument,
+	 *            together with each earlier date range it overlaps.
+	 */
+	public StreamingOverlapDetector(long latenessMillis,
+			BiConsumer<? super T, ? super T> consumer) {
+		if (latenessMillis < 0)
+			throw new IllegalArgumentException("Lateness: " + latenessMillis);
+		this.lateness = latenessMillis;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * Processes an arriving date range: reports the active date ranges it
+	 * overlaps, advances the watermark, evicts the date ranges finishing
+	 * before it, and keeps the arriving one if it is still active.
+	 *
+	 * @param dr
+	 *            The date range, where start &lt;= finish must be true.
+	 * @return False if the date range is late and has been rejected.
+	 * @throws IllegalArgumentException
+	 *             If the start lies after the finish.
+	 */
+	public boolean accept(T dr) {
+		long start = DateRanges.startMillis(dr);
+		long finish = DateRanges.finishMillis(dr);
+		if (start > finish)
+			throw new IllegalArgumentException("Start after finish: " + dr);
+		if (start < watermark) {
+			lateCount++;
+			return false;
+		}
+		overlapping(root, start, finish, dr);
+		if (start > maxStart) {
+			maxStart = start;
+			watermark = start - lateness > start ? Long.MIN_VALUE : start
+					- lateness;
+			while (!active.isEmpty() && active.first().finish < watermark)
+				root = delete(root, active.pollFirst());
+		}
+		if (finish >= watermark) {
+			Active<T> a = new Active<>(start, finish, sequence++, dr);
+			active.add(a);
+			root = insert(root, a);
+		}
+		return true;
+	}
+
+	private void overlapping(Active<T> n, long start, long finish, T dr) {
+		while (n != null && n.maxFinish >= start) {
+			overlapping(n.left, start, finish, dr);
+			if (n.start > finish)
+				return;
+			if (n.finish >= start)
+				consumer.accept(dr, n.range);
+			n = n.right;
+		}
+	}
+
+	private static int compare(Active<?> a, Active<?> b) {
+		int c = Long.compare(a.start, b.start);
+		return c != 0 ? c : Long.compare(a.sequence, b.sequence);
+	}
+
+	private static <T> Active<T> insert(Active<T> n, Active<T> a) {
+		if (n == null)
+			return a;
+		if (compare(a, n) < 0)
+			n.left = insert(n.left, a);
+		else
+			n.right = insert(n.right, a);
+		return balance(n);
+	}
+
+	private static <T> Active<T> delete(Active<T> n, Active<T> a) {
+		int c = compare(a, n);
+		if (c < 0) {
+			n.left = delete(n.left, a);
+			return balance(n);
+		}
+		if (c > 0) {
+			n.right = delete(n.right, a);
+			return balance(n);
+		}
+		if (n.left == null)
+			return n.right;
+		if (n.right == null)
+			return n.left;
+		Active<T> min = n.right;
+		while (min.left != null)
+			min = min.left;
+		min.right = deleteMin(n.right);
+		min.left = n.left;
+		return balance(min);
+	}
+
+	private static <T> Active<T> deleteMin(Active<T> n) {
+		if (n.left == null)
+			return n.right;
+		n.left = deleteMin(n.left);
+		return balance(n);
+	}
+
+	private static int height(Active<?> n) {
+		return n == null ? 0 : n.height;
+	}
+
+	/**
+	 * Rotates once or twice if the heights of the subtrees differ by two and
+	 * updates the augmented fields. Returns the new root of the subtree.
+	 */
+	private static <T> Active<T> balance(Active<T> n) {
+		int hl = height(n.left);
+		int hr = height(n.right);
+		if (hl > hr + 1) {
+			if (height(n.left.left) < height(n.left.right))
+				n.left = rotateLeft(n.left);
+			return rotateRight(n);
+		}
+		if (hr > hl + 1) {
+			if (height(n.right.right) < height(n.right.left))
+				n.right = rotateRight(n.right);
+			return rotateLeft(n);
+		}
+		n.update();
+		return n;
+	}
+
+	private static <T> Active<T> rotateRight(Active<T> n) {
+		Active<T> l = n.left;
+		n.left = l.right;
+		n.update();
+		l.right = n;
+		l.update();
+		return l;
+	}
+
+	private static <T> Active<T> rotateLeft(Active<T> n) {
+		Active<T> r = n.right;
+		n.right = r.left;
+		n.update();
+		r.left = n;
+		r.update();
+		return r;
+	}
+
+	/**
+	 * Returns the watermark: the greatest start seen so far minus the
+	 * lateness. Date ranges starting before it are rejected.
+	 *
+	 * @return The watermark in milliseconds, Long.MIN_VALUE before the first
+	 *         date range.
+	 */
+	public long getWatermark() {
+		return watermark;
+	}
+
+	/**
+	 * Returns the number of date ranges kept, i.e., the ones finishing at or
+	 * after the watermark.
+	 *
+	 * @return The number of active date ranges.
+	 */
+	public int getActiveCount() {
+		return active.size();
+	}
+
+	/**
+	 * Returns the number of date ranges rejected as late.
+	 *
+	 * @return The number of late date ranges.
+	 */
+	public long getLateCount() {
+		return lateCount;
+	}
+
+	/**
+	 * A date range kept by the detector, which is a node of the tree, too.
+	 */
+	private static final class Active<T> {
+		final long start;
+
+		final long finish;
+
+		final long sequence;
+
+		final T range;
+
+		Active<T> left;
+
+		Active<T> right;
+
+		int height = 1;
+
+		/**
+		 * The greatest finish within the subtree rooted at this node.
+		 */
+		long maxFinish;
+
+		Active(long start, long finish, long sequence, T range) {
+			this.start = start;
+			this.finish = finish;
+			this.sequence = sequence;
+			this.range = range;
+			this.maxFinish = finish;
+		}
+
+		void update() {
+			height = Math.max(height(left), height(right)) + 1;
+			long max = finish;
+			if (left != null)
+				max = Math.max(max, left.maxFinish);
+			if (right != null)
+				max = Math.max(max, right.maxFinish);
+			maxFinish = max;
+		}
+	}
+}
@@ -11,6 +11,8 @@
 package ch.bfh.ti.daterange.impl.pojo;
 
 import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.metrics.Instrumentation;
+import ch.bfh.ti.daterange.metrics.Operation;
 
 /**
  * A date range factory that creates DateRange objects being plain old Java
@@ -26,7 +28,11 @@ public class DateRangeFactory implements ch.bfh.ti.daterange.DateRangeFactory {
 	 */
 	@Override
 	public DateRange createDateRange(java.util.Date start, java.util.Date end) {
-		return new ch.bfh.ti.daterange.impl.pojo.DateRangeImpl(start, end);
+		long t = Instrumentation.start();
+		DateRange result = new ch.bfh.ti.daterange.impl.pojo.DateRangeImpl(
+				start, end);
+		Instrumentation.stop(Operation.CREATE_DATE_RANGE, t, 1);
+		return result;
 	}
 
 }
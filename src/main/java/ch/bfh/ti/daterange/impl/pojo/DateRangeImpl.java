@@ -10,8 +10,10 @@
  */
 package ch.bfh.ti.daterange.impl.pojo;
 
-import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateFormatter;
 import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+import ch.bfh.ti.daterange.io.SerializedForm;
 
 /**
  * Implements a range of date values using plain old Java objects. See <a
@@ -66,8 +68,9 @@ public class DateRangeImpl implements DateRange {
 	public String toString() {
 		if (isEmpty())
 			return DateRange.EMPTY;
-		return DateFactory.toString(start) + " - "
-		+ DateFactory.toString(finish);
+		StringBuilder sb = new StringBuilder(23);
+		DateFormatter.DEFAULT.appendTo(start, sb).append(" - ");
+		return DateFormatter.DEFAULT.appendTo(finish, sb).toString();
 	}
 
 	/**
@@ -105,7 +108,8 @@ public class DateRangeImpl implements DateRange {
 
 	/**
 	 * Tests another DateRange object for equality. Two DateRange objects are
-	 * equal iff their start time and end time are equal.
+	 * equal iff their start time and end time are equal, regardless of their
+	 * implementations.
 	 *
 	 * @param arg
 	 *            The object to compare.
@@ -114,10 +118,11 @@ public class DateRangeImpl implements DateRange {
 	 */
 	@Override
 	public boolean equals(Object arg) {
-		if (!(arg instanceof DateRangeImpl))
-			return false;
-		DateRangeImpl other = (DateRangeImpl) arg;
-		return start.equals(other.start) && finish.equals(other.finish);
+		if (arg instanceof DateRangeImpl) {
+			DateRangeImpl other = (DateRangeImpl) arg;
+			return start.equals(other.start) && finish.equals(other.finish);
+		}
+		return DateRanges.equals(this, arg);
 	}
 
 	/**
@@ -138,13 +143,16 @@ public class DateRangeImpl implements DateRange {
 	 */
 	@Override
 	public int compareTo(DateRange dr) {
-		DateRangeImpl other = (DateRangeImpl) dr;
-		int rval = this.start.compareTo(other.start);
-		if (rval == 0) {
-			// Start times do not differ -- take finish times, too.
-			return this.finish.compareTo(other.finish);
+		if (dr instanceof DateRangeImpl) {
+			DateRangeImpl other = (DateRangeImpl) dr;
+			int rval = this.start.compareTo(other.start);
+			if (rval == 0) {
+				// Start times do not differ -- take finish times, too.
+				return this.finish.compareTo(other.finish);
+			}
+			return rval;
 		}
-		return rval;
+		return DateRanges.compare(this, dr);
 	}
 
 	/**
@@ -194,4 +202,14 @@ public class DateRangeImpl implements DateRange {
 	public boolean exactlyMatches(DateRange dr) {
 		return includes(dr) && !startsBefore(dr) && !endsAfter(dr);
 	}
+
+	/**
+	 * Replaces this object by its compact serialized form.
+	 *
+	 * @return The serialized form.
+	 * @see SerializedForm
+	 */
+	private Object writeReplace() {
+		return SerializedForm.of(this);
+	}
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.impl.primitive;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.metrics.Instrumentation;
+import ch.bfh.ti.daterange.metrics.Operation;
+
+/**
+ * A date range factory that creates immutable DateRange objects storing their
+ * limits as primitive epoch milliseconds.
+ */
+public class DateRangeFactory implements ch.bfh.ti.daterange.DateRangeFactory {
+
+	/**
+	 * Creates a primitive DateRange object.
+	 *
+	 * @see ch.bfh.ti.daterange.DateRangeFactory#createDateRange(java.util.Date,
+	 *      java.util.Date)
+	 */
+	@Override
+	public DateRange createDateRange(java.util.Date start, java.util.Date end) {
+		return createDateRange(start.getTime(), end.getTime());
+	}
+
+	/**
+	 * Creates a primitive DateRange object given its limits in milliseconds
+	 * since January 1, 1970, 00:00:00 GMT.
+	 *
+	 * @param start
+	 *            The start of the range where the condition start &lt;= end
+	 *            must be true.
+	 * @param end
+	 *            The end of the range.
+	 * @return A DateRange object.
+	 */
+	public DateRange createDateRange(long start, long end) {
+		long t = Instrumentation.start();
+		DateRange result = new ch.bfh.ti.daterange.impl.primitive.DateRangeImpl(
+				start, end);
+		Instrumentation.stop(Operation.CREATE_DATE_RANGE, t, 1);
+		return result;
+	}
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.impl.primitive;
+
+import java.util.Date;
+
+import ch.bfh.ti.daterange.DateFormatter;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+import ch.bfh.ti.daterange.PrimitiveDateRange;
+import ch.bfh.ti.daterange.io.SerializedForm;
+
+/**
+ * Implements an immutable range of date values using primitive epoch
+ * milliseconds. Start and finish are kept as <code>long</code> values, the
+ * hash code is computed once at construction time, and all predicates compare
+ * raw milliseconds. Date objects are only created when {@link #getStart()} or
+ * {@link #getFinish()} is called. See <a
+ * href="http://www.martinfowler.com/ap2/range.html">http://www.martinfowler.com/ap2/range.html</a>
+ */
+public final class DateRangeImpl implements PrimitiveDateRange {
+	/**
+	 * Default serial version UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	private final long start;
+
+	private final long finish;
+
+	private final int hash;
+
+	/**
+	 * Constructs a DateRange object.
+	 *
+	 * @param start
+	 *            The start of the range in milliseconds since January 1, 1970,
+	 *            00:00:00 GMT, where the condition start &lt;= finish must be
+	 *            true.
+	 * @param finish
+	 *            The end of the range in milliseconds since January 1, 1970,
+	 *            00:00:00 GMT.
+	 */
+	public DateRangeImpl(long start, long finish) {
+		this.start = start;
+		this.finish = finish;
+		this.hash = DateRanges.hashCode(start, finish);
+	}
+
+	/**
+	 * Constructs a DateRange object.
+	 *
+	 * @param start
+	 *            The start of the range where the condition start &lt;= end
+	 *            must be true.
+	 * @param finish
+	 *            The end of the range.
+	 */
+	public DateRangeImpl(Date start, Date finish) {
+		this(start.getTime(), finish.getTime());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getStartMillis() {
+		return start;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getFinishMillis() {
+		return finish;
+	}
+
+	/**
+	 * Returns a new Date object for the end of the date range.
+	 *
+	 * @return The end of the data range.
+	 */
+	@Override
+	public Date getFinish() {
+		return new Date(finish);
+	}
+
+	/**
+	 * Returns a new Date object for the start of the date range.
+	 *
+	 * @return The start of the date range.
+	 */
+	@Override
+	public Date getStart() {
+		return new Date(start);
+	}
+
+	/**
+	 * Returns a string representation of this object.
+	 *
+	 * @return A string representation.
+	 */
+	@Override
+	public String toString() {
+		if (isEmpty())
+			return DateRange.EMPTY;
+		StringBuilder sb = new StringBuilder(23);
+		DateFormatter.DEFAULT.appendTo(start, sb).append(" - ");
+		return DateFormatter.DEFAULT.appendTo(finish, sb).toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty() {
+		return start >= finish;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean includes(Date arg) {
+		return includes(arg.getTime());
+	}
+
+	/**
+	 * Returns true iff start &lt;= arg &lt;= finish.
+	 *
+	 * @param arg
+	 *            The point in time to check, in milliseconds since January 1,
+	 *            1970, 00:00:00 GMT.
+	 * @return Whether the arg is within the range.
+	 */
+	public boolean includes(long arg) {
+		return DateRanges.includes(start, finish, arg);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean includes(DateRange arg) {
+		return includes(DateRanges.startMillis(arg))
+				&& includes(DateRanges.finishMillis(arg));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean overlaps(DateRange arg) {
+		if (arg instanceof PrimitiveDateRange) {
+			PrimitiveDateRange other = (PrimitiveDateRange) arg;
+			return DateRanges.overlaps(start, finish, other.getStartMillis(),
+					other.getFinishMillis());
+		}
+		return arg.includes(getStart()) || arg.includes(getFinish())
+				|| this.includes(arg);
+	}
+
+	/**
+	 * Tests another DateRange object for equality. Two DateRange objects are
+	 * equal iff their start time and end time are equal, regardless of their
+	 * implementations.
+	 *
+	 * @param arg
+	 *            The object to compare.
+	 * @return True iff arg is a DateRange object and the the start time and end
+	 *         time are equal.
+	 */
+	@Override
+	public boolean equals(Object arg) {
+		if (arg instanceof DateRangeImpl) {
+			DateRangeImpl other = (DateRangeImpl) arg;
+			return start == other.start && finish == other.finish;
+		}
+		return DateRanges.equals(this, arg);
+	}
+
+	/**
+	 * Returns the hash code of this object. The hash code is computed once at
+	 * construction time.
+	 *
+	 * @return The hash code.
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int compareTo(DateRange dr) {
+		return DateRanges.compare(start, finish, DateRanges.startMillis(dr),
+				DateRanges.finishMillis(dr));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean startsBefore(DateRange dr) {
+		return start < DateRanges.startMillis(dr);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean startsAfter(DateRange dr) {
+		return start > DateRanges.startMillis(dr);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean endsBefore(DateRange dr) {
+		return finish < DateRanges.finishMillis(dr);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean endsAfter(DateRange dr) {
+		return finish > DateRanges.finishMillis(dr);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean strictlyIncludes(DateRange dr) {
+		return includes(dr) && startsBefore(dr) && endsAfter(dr);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean exactlyMatches(DateRange dr) {
+		return includes(dr) && !startsBefore(dr) && !endsAfter(dr);
+	}
+
+	/**
+	 * Replaces this object by its compact serialized form.
+	 *
+	 * @return The serialized form.
+	 * @see SerializedForm
+	 */
+	private Object writeReplace() {
+		return SerializedForm.of(this);
+	}
+}
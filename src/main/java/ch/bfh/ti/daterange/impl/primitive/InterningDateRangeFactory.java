@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.impl.primitive;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.metrics.Instrumentation;
+import ch.bfh.ti.daterange.metrics.Operation;
+
+/**
+ * A date range factory that returns canonical, immutable DateRange objects.
+ * Creating a date range with the same limits as a recently created one
+ * returns the very same object instead of a new one, which pays off when the
+ * same ranges, e.g., "this week", are created over and over.
+ * <p>
+ * The canonical objects are held in a bounded, two-way set-associative cache
+ * keyed on the limits in milliseconds. Within each set the least recently
+ * used object is evicted. The cache is lock-free; concurrent updates may
+ * occasionally lose an entry, which only costs a later miss. Hit and miss
+ * counts are kept in order to help sizing the cache.
+ */
+public class InterningDateRangeFactory implements
+		ch.bfh.ti.daterange.DateRangeFactory {
+
+	/**
+	 * Default number of cached date ranges.
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * The cache. Set i consists of the slots 2i (most recently used) and 2i+1.
+	 */
+	private final AtomicReferenceArray<DateRangeImpl> slots;
+
+	private final int mask;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Constructs a factory caching up to {@link #DEFAULT_CAPACITY} date
+	 * ranges.
+	 */
+	public InterningDateRangeFactory() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a factory caching up to the given number of date ranges,
+	 * rounded up to a power of two.
+	 *
+	 * @param capacity
+	 *            The maximum number of cached date ranges, at least 2.
+	 * @throws IllegalArgumentException
+	 *             If the capacity is less than 2.
+	 */
+	public InterningDateRangeFactory(int capacity) {
+		if (capacity < 2 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Illegal capacity: " + capacity);
+		int sets = Integer.highestOneBit(capacity - 1);
+		this.slots = new AtomicReferenceArray<>(2 * sets);
+		this.mask = sets - 1;
+	}
+
+	/**
+	 * Returns a canonical, immutable DateRange object.
+	 *
+	 * @see ch.bfh.ti.daterange.DateRangeFactory#createDateRange(java.util.Date,
+	 *      java.util.Date)
+	 */
+	@Override
+	public DateRange createDateRange(java.util.Date start, java.util.Date end) {
+		return createDateRange(start.getTime(), end.getTime());
+	}
+
+	/**
+	 * Returns a canonical, immutable DateRange object given its limits in
+	 * milliseconds since January 1, 1970, 00:00:00 GMT.
+	 *
+	 * @param start
+	 *            The start of the range where the condition start &lt;= end
+	 *            must be true.
+	 * @param end
+	 *            The end of the range.
+	 * @return A DateRange object.
+	 */
+	public DateRange createDateRange(long start, long end) {
+		long t = Instrumentation.start();
+		// Unlike DateRanges.hashCode, mix the limits asymmetrically, so that
+		// date ranges with the same sum of limits do not share a set.
+		int hash = Long.hashCode(start * 0x9E3779B97F4A7C15L ^ end);
+		int first = 2 * ((hash ^ hash >>> 16) & mask);
+		DateRangeImpl mru = slots.get(first);
+		if (matches(mru, start, end)) {
+			hits.increment();
+			Instrumentation.stop(Operation.CREATE_DATE_RANGE, t, 0);
+			return mru;
+		}
+		DateRangeImpl lru = slots.get(first + 1);
+		if (matches(lru, start, end)) {
+			hits.increment();
+			// Promote to the most recently used slot.
+			slots.set(first, lru);
+			slots.set(first + 1, mru);
+			Instrumentation.stop(Operation.CREATE_DATE_RANGE, t, 0);
+			return lru;
+		}
+		misses.increment();
+		DateRangeImpl created = new DateRangeImpl(start, end);
+		slots.set(first + 1, mru);
+		slots.set(first, created);
+		Instrumentation.stop(Operation.CREATE_DATE_RANGE, t, 1);
+		return created;
+	}
+
+	private static boolean matches(DateRangeImpl dr, long start, long end) {
+		return dr != null && dr.getStartMillis() == start
+				&& dr.getFinishMillis() == end;
+	}
+
+	/**
+	 * Returns the maximum number of cached date ranges.
+	 *
+	 * @return The capacity.
+	 */
+	public int getCapacity() {
+		return slots.length();
+	}
+
+	/**
+	 * Returns the number of calls that returned a cached date range.
+	 *
+	 * @return The number of cache hits.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of calls that created a new date range.
+	 *
+	 * @return The number of cache misses.
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the ratio of cache hits to all calls.
+	 *
+	 * @return The hit rate between 0 and 1, or 0 if there were no calls.
+	 */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0.0 : (double) h / total;
+	}
+
+	/**
+	 * Resets the hit and miss counts. The cached date ranges are kept.
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+	}
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+import ch.bfh.ti.daterange.collection.DateRangeList;
+import ch.bfh.ti.daterange.collection.DateRangeSink;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * Encodes date ranges in a compact binary form. A single date range is a
+ * fixed record of {@link #RECORD_SIZE} bytes: the start and the finish in
+ * milliseconds since January 1, 1970, 00:00:00 GMT, each as a big-endian
+ * <code>long</code>.
+ * <p>
+ * A batch of date ranges is written in blocks. Each block starts with the
+ * number of its date ranges as a variable-length integer; a block of size 0
+ * ends the batch. Every date range is written as the difference of its start
+ * to the previous start followed by its length, both as zig-zag encoded
+ * variable-length integers. A batch sorted by start typically takes 3 to 6
+ * bytes per date range.
+ * <p>
+ * Date ranges are decoded as immutable primitive date ranges. Date ranges with
+ * <code>null</code> limits cannot be encoded.
+ */
+public final class DateRangeCodec {
+
+	/**
+	 * The size of a fixed record in bytes.
+	 */
+	public static final int RECORD_SIZE = 16;
+
+	/**
+	 * Maximum number of date ranges in a block of a batch.
+	 */
+	static final int BLOCK_SIZE = 256;
+
+	/**
+	 * Not used.
+	 */
+	private DateRangeCodec() {
+	}
+
+	/**
+	 * Writes a date range as a fixed record at the current position of a
+	 * buffer.
+	 *
+	 * @param buffer
+	 *            The buffer.
+	 * @param dr
+	 *            The date range.
+	 */
+	public static void put(ByteBuffer buffer, DateRange dr) {
+		put(buffer, DateRanges.startMillis(dr), DateRanges.finishMillis(dr));
+	}
+
+	/**
+	 * Writes a date range given by its limits in milliseconds as a fixed
+	 * record at the current position of a buffer.
+	 *
+	 * @param buffer
+	 *            The buffer.
+	 * @param start
+	 *            The start.
+	 * @param finish
+	 *            The end.
+	 */
+	public static void put(ByteBuffer buffer, long start, long finish) {
+		buffer.putLong(start).putLong(finish);
+	}
+
+	/**
+	 * Reads a fixed record at the current position of a buffer.
+	 *
+	 * @param buffer
+	 *            The buffer.
+	 * @return The date range.
+	 */
+	public static DateRange get(ByteBuffer buffer) {
+		long start = buffer.getLong();
+		return new DateRangeImpl(start, buffer.getLong());
+	}
+
+	/**
+	 * Writes a date range as a fixed record.
+	 *
+	 * @param out
+	 *            The output.
+	 * @param dr
+	 *            The date range.
+	 * @throws IOException
+	 *             If writing fails.
+	 */
+	public static void write(DataOutput out, DateRange dr) throws IOException {
+		write(out, DateRanges.startMillis(dr), DateRanges.finishMillis(dr));
+	}
+
+	/**
+	 * Writes a date range given by its limits in milliseconds as a fixed
+	 * record.
+	 *
+	 * @param out
+	 *            The output.
+	 * @param start
+	 *            The start.
+	 * @param finish
+	 *            The end.
+	 * @throws IOException
+	 *             If writing fails.
+	 */
+	public static void write(DataOutput out, long start, long finish)
+			throws IOException {
+		out.writeLong(start);
+		out.writeLong(finish);
+	}
+
+	/**
+	 * Reads a fixed record.
+	 *
+	 * @param in
+	 *            The input.
+	 * @return The date range.
+	 * @throws IOException
+	 *             If reading fails.
+	 */
+	public static DateRange read(DataInput in) throws IOException {
+		long start = in.readLong();
+		return new DateRangeImpl(start, in.readLong());
+	}
+
+	/**
+	 * Writes the given date ranges as a batch.
+	 *
+	 * @param out
+	 *            The output.
+	 * @param ranges
+	 *            The date ranges, preferably sorted by start.
+	 * @throws IOException
+	 *             If writing fails.
+	 */
+	public static void writeBatch(DataOutput out,
+			Iterable<? extends DateRange> ranges) throws IOException {
+		BatchWriter writer = new BatchWriter(out);
+		for (DateRange dr : ranges)
+			writer.write(DateRanges.startMillis(dr),
+					DateRanges.finishMillis(dr));
+		writer.close();
+	}
+
+	/**
+	 * Reads a batch, handing its date ranges to a sink in the order they were
+	 * written.
+	 *
+	 * @param in
+	 *            The input.
+	 * @param sink
+	 *            The sink.
+	 * @throws IOException
+	 *             If reading fails.
+	 */
+	public static void readBatch(DataInput in, DateRangeSink sink)
+			throws IOException {
+		long start = 0;
+		for (int n = (int) readVarLong(in); n > 0; n = (int) readVarLong(in)) {
+			for (int i = 0; i < n; i++) {
+				start += readVarLong(in);
+				sink.accept(start, start + readVarLong(in));
+			}
+		}
+	}
+
+	/**
+	 * Reads a batch into a list.
+	 *
+	 * @param in
+	 *            The input.
+	 * @return The date ranges in the order they were written.
+	 * @throws IOException
+	 *             If reading fails.
+	 * @throws IllegalArgumentException
+	 *             If a start lies after its finish.
+	 */
+	public static DateRangeList readBatch(DataInput in) throws IOException {
+		try {
+			return DateRangeList.of(sink -> {
+				try {
+					readBatch(in, sink);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Writes a zig-zag encoded variable-length integer of 1 to 10 bytes.
+	 */
+	static void writeVarLong(DataOutput out, long value) throws IOException {
+		long v = (value << 1) ^ (value >> 63);
+		while ((v & ~0x7FL) != 0) {
+			out.writeByte((int) (v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.writeByte((int) v);
+	}
+
+	/**
+	 * Reads a zig-zag encoded variable-length integer.
+	 */
+	static long readVarLong(DataInput in) throws IOException {
+		long v = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readByte();
+			v |= (long) (b & 0x7F) << shift;
+			if (b >= 0)
+				return (v >>> 1) ^ -(v & 1);
+		}
+		throw new IOException("Malformed variable-length integer");
+	}
+
+	/**
+	 * Writes date ranges one by one as a batch. The date ranges are buffered
+	 * in blocks; {@link #close()} must be called in order to complete the
+	 * batch. The underlying output is not closed.
+	 */
+	public static class BatchWriter implements DateRangeSink {
+
+		private final DataOutput out;
+
+		private final long[] starts = new long[BLOCK_SIZE];
+
+		private final long[] finishes = new long[BLOCK_SIZE];
+
+		private int size;
+
+		private long previous;
+
+		private boolean closed;
+
+		/**
+		 * Constructs a writer.
+		 *
+		 * @param out
+		 *            The output.
+		 */
+		public BatchWriter(DataOutput out) {
+			this.out = out;
+		}
+
+		/**
+		 * Writes a date range.
+		 *
+		 * @param start
+		 *            The start in milliseconds.
+		 * @param finish
+		 *            The end in milliseconds.
+		 * @throws IOException
+		 *             If writing a full block fails.
+		 */
+		public void write(long start, long finish) throws IOException {
+			if (closed)
+				throw new IllegalStateException("Batch already closed");
+			starts[size] = start;
+			finishes[size++] = finish;
+			if (size == BLOCK_SIZE)
+				flush();
+		}
+
+		/**
+		 * Writes a date range, wrapping an IOException into an
+		 * UncheckedIOException.
+		 *
+		 * @see #write(long, long)
+		 */
+		@Override
+		public void accept(long start, long finish) {
+			try {
+				write(start, finish);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/**
+		 * Writes the buffered date ranges as a block.
+		 *
+		 * @throws IOException
+		 *             If writing fails.
+		 */
+		public void flush() throws IOException {
+			if (size == 0)
+				return;
+			writeVarLong(out, size);
+			for (int i = 0; i < size; i++) {
+				writeVarLong(out, starts[i] - previous);
+				writeVarLong(out, finishes[i] - starts[i]);
+				previous = starts[i];
+			}
+			size = 0;
+		}
+
+		/**
+		 * Writes the buffered date ranges and the end of the batch.
+		 *
+		 * @throws IOException
+		 *             If writing fails.
+		 */
+		public void close() throws IOException {
+			if (closed)
+				return;
+			flush();
+			writeVarLong(out, 0);
+			closed = true;
+		}
+	}
+}
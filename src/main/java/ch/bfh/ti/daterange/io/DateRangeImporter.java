@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeFactory;
+import ch.bfh.ti.daterange.collection.DateRangeSink;
+import ch.bfh.ti.daterange.metrics.BulkOperationEvent;
+import ch.bfh.ti.daterange.metrics.Instrumentation;
+import ch.bfh.ti.daterange.metrics.Operation;
+
+/**
+ * Reads date ranges from text with one date range per line in the form
+ * produced by <code>DateRange.toString()</code>, i.e., "dd.mm.yyyy -
+ * dd.mm.yyyy". Days and months may have one or two digits, and values out of
+ * range are normalized, as by {@link ch.bfh.ti.daterange.DateFormatter}. The
+ * limits are positioned at 12.00 o'clock. Lines may end with "\n" or "\r\n".
+ * Blank lines and lines reading {@link DateRange#EMPTY} are skipped, as the
+ * limits of an empty date range are not part of its textual form.
+ * <p>
+ * The text is read through direct byte buffers and parsed byte by byte; no
+ * objects are created per line unless a line is malformed. Malformed lines
+ * are handed to an {@link ErrorHandler} together with their line number.
+ */
+public class DateRangeImporter {
+
+	/**
+	 * Receives malformed lines.
+	 */
+	@FunctionalInterface
+	public interface ErrorHandler {
+
+		/**
+		 * Throws an IllegalArgumentException on the first malformed line.
+		 */
+		public static final ErrorHandler STRICT = (lineNumber, line) -> {
+			throw new IllegalArgumentException("Line " + lineNumber
+					+ ": not a date range: " + line);
+		};
+
+		/**
+		 * Handles a malformed line.
+		 *
+		 * @param lineNumber
+		 *            The number of the line, starting at 1.
+		 * @param line
+		 *            The text of the line, decoded as ISO-8859-1.
+		 */
+		public void malformedLine(long lineNumber, String line);
+	}
+
+	private static final byte[] EMPTY = DateRange.EMPTY
+			.getBytes(StandardCharsets.ISO_8859_1);
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+	private static final long MAX_CHUNK_SIZE = 1 << 30;
+
+	private final ErrorHandler errorHandler;
+
+	/**
+	 * Constructs an importer throwing an IllegalArgumentException on the
+	 * first malformed line.
+	 */
+	public DateRangeImporter() {
+		this(ErrorHandler.STRICT);
+	}
+
+	/**
+	 * Constructs an importer.
+	 *
+	 * @param errorHandler
+	 *            Receives the malformed lines.
+	 */
+	public DateRangeImporter(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Reads all lines of a channel.
+	 *
+	 * @param channel
+	 *            The channel, which is not closed.
+	 * @param sink
+	 *            Receives the date ranges in the order of the lines.
+	 * @return The number of date ranges read.
+	 * @throws IOException
+	 *             If reading fails.
+	 */
+	public long read(ReadableByteChannel channel, DateRangeSink sink)
+			throws IOException {
+		BulkOperationEvent event = Instrumentation.startBulk();
+		Parser parser = new Parser(sink, errorHandler);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		boolean skipping = false;
+		while (true) {
+			boolean eof = channel.read(buffer) < 0;
+			buffer.flip();
+			int end = buffer.limit();
+			int from = 0;
+			for (int i = 0; i < end; i++) {
+				if (buffer.get(i) != '\n')
+					continue;
+				if (skipping)
+					skipping = false;
+				else
+					parser.parseLine(buffer, from, i);
+				from = i + 1;
+			}
+			if (eof) {
+				if (from < end && !skipping)
+					parser.parseLine(buffer, from, end);
+				break;
+			}
+			if (from == 0 && end == buffer.capacity()) {
+				// The line does not fit into the buffer; skip the rest.
+				if (!skipping) {
+					parser.lineNumber++;
+					parser.malformed(buffer, 0, 64);
+				}
+				skipping = true;
+				from = end;
+			}
+			buffer.position(from);
+			buffer.compact();
+		}
+		Instrumentation.stop(Operation.IMPORT, event, parser.count);
+		return parser.count;
+	}
+
+	/**
+	 * Reads all lines of a file.
+	 *
+	 * @param path
+	 *            The file.
+	 * @param sink
+	 *            Receives the date ranges in the order of the lines.
+	 * @return The number of date ranges read.
+	 * @throws IOException
+	 *             If reading fails.
+	 */
+	public long read(Path path, DateRangeSink sink) throws IOException {
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.READ)) {
+			return read(channel, sink);
+		}
+	}
+
+	/**
+	 * Reads all lines of a file into a list of DateRange objects.
+	 *
+	 * @param path
+	 *            The file.
+	 * @param factory
+	 *            Creates the date ranges.
+	 * @return The date ranges in the order of the lines.
+	 * @throws IOException
+	 *             If reading fails.
+	 */
+	public List<DateRange> readAll(Path path, DateRangeFactory factory)
+			throws IOException {
+		List<DateRange> result = new ArrayList<>();
+		read(path, (start, finish) -> result.add(factory.createDateRange(
+				new Date(start), new Date(finish))));
+		return result;
+	}
+
+	/**
+	 * Reads all lines of a file, parsing chunks of the file in parallel on
+	 * the common fork/join pool. The sink is called concurrently and in no
+	 * particular order, so it must be thread-safe. Malformed lines are
+	 * handed to the error handler after all chunks are parsed, in the order
+	 * of the lines.
+	 *
+	 * @param path
+	 *            The file.
+	 * @param sink
+	 *            Receives the date ranges; called concurrently.
+	 * @return The number of date ranges read.
+	 * @throws IOException
+	 *             If reading fails.
+	 */
+	public long readParallel(Path path, DateRangeSink sink)
+			throws IOException {
+		BulkOperationEvent event = Instrumentation.startBulk();
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.READ)) {
+			long size = channel.size();
+			int parallelism = ForkJoinPool.getCommonPoolParallelism();
+			long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(
+					MIN_CHUNK_SIZE, size / (4 * parallelism) + 1));
+			List<Long> bounds = new ArrayList<>();
+			bounds.add(0L);
+			ByteBuffer one = ByteBuffer.allocate(1);
+			for (long p = chunkSize; p < size; p += chunkSize) {
+				// Move the bound behind the next line feed.
+				for (one.clear(); channel.read(one, p - 1) > 0
+						&& one.get(0) != '\n'; one.clear())
+					p++;
+				if (p < size && p > bounds.get(bounds.size() - 1))
+					bounds.add(p);
+			}
+			bounds.add(size);
+			int n = bounds.size() - 1;
+			ChunkResult[] results = new ChunkResult[n];
+			IOException[] failure = new IOException[1];
+			IntStream.range(0, n).parallel().forEach(i -> {
+				try {
+					long from = bounds.get(i);
+					ByteBuffer chunk = channel.map(
+							FileChannel.MapMode.READ_ONLY, from,
+							bounds.get(i + 1) - from);
+					results[i] = parseChunk(chunk, sink);
+				} catch (IOException e) {
+					synchronized (failure) {
+						failure[0] = e;
+					}
+				}
+			});
+			if (failure[0] != null)
+				throw failure[0];
+			long count = 0;
+			long lines = 0;
+			for (ChunkResult result : results) {
+				for (int k = 0; k < result.lineNumbers.size(); k++)
+					errorHandler.malformedLine(lines
+							+ result.lineNumbers.get(k), result.lines.get(k));
+				lines += result.parser.lineNumber;
+				count += result.parser.count;
+			}
+			Instrumentation.stop(Operation.IMPORT, event, count);
+			return count;
+		}
+	}
+
+	private static ChunkResult parseChunk(ByteBuffer chunk, DateRangeSink sink) {
+		ChunkResult result = new ChunkResult();
+		Parser parser = new Parser(sink, (lineNumber, line) -> {
+			result.lineNumbers.add(lineNumber);
+			result.lines.add(line);
+		});
+		result.parser = parser;
+		int end = chunk.limit();
+		int from = 0;
+		for (int i = 0; i < end; i++) {
+			if (chunk.get(i) == '\n') {
+				parser.parseLine(chunk, from, i);
+				from = i + 1;
+			}
+		}
+		if (from < end)
+			parser.parseLine(chunk, from, end);
+		return result;
+	}
+
+	/**
+	 * The outcome of parsing a chunk; malformed lines are numbered relative
+	 * to the chunk.
+	 */
+	private static class ChunkResult {
+		Parser parser;
+
+		final List<Long> lineNumbers = new ArrayList<>();
+
+		final List<String> lines = new ArrayList<>();
+	}
+
+	/**
+	 * Parses single lines.
+	 */
+	private static class Parser {
+		private final DateRangeSink sink;
+
+		private final ErrorHandler errorHandler;
+
+		long lineNumber;
+
+		long count;
+
+		private int position;
+
+		private boolean valid;
+
+		Parser(DateRangeSink sink, ErrorHandler errorHandler) {
+			this.sink = sink;
+			this.errorHandler = errorHandler;
+		}
+
+		/**
+		 * Parses the line at [from, to) of the buffer, excluding the line
+		 * feed.
+		 */
+		void parseLine(ByteBuffer buffer, int from, int to) {
+			lineNumber++;
+			int end = to > from && buffer.get(to - 1) == '\r' ? to - 1 : to;
+			if (end == from || isEmpty(buffer, from, end))
+				return;
+			valid = true;
+			position = from;
+			long start = parseDate(buffer, end);
+			expect(buffer, end, ' ');
+			expect(buffer, end, '-');
+			expect(buffer, end, ' ');
+			long finish = parseDate(buffer, end);
+			if (!valid || position != end) {
+				malformed(buffer, from, end);
+				return;
+			}
+			count++;
+			sink.accept(start, finish);
+		}
+
+		private static boolean isEmpty(ByteBuffer buffer, int from, int end) {
+			if (end - from != EMPTY.length)
+				return false;
+			for (int i = 0; i < EMPTY.length; i++) {
+				if (buffer.get(from + i) != EMPTY[i])
+					return false;
+			}
+			return true;
+		}
+
+		private void expect(ByteBuffer buffer, int end, char ch) {
+			if (valid && position < end && buffer.get(position) == ch)
+				position++;
+			else
+				valid = false;
+		}
+
+		private long parseDate(ByteBuffer buffer, int end) {
+			int day = parseNumber(buffer, end, 2);
+			expect(buffer, end, '.');
+			int month = parseNumber(buffer, end, 2);
+			expect(buffer, end, '.');
+			int year = parseNumber(buffer, end, 9);
+			return valid ? DateFactory.createDateMillis(year, month - 1, day)
+					: 0;
+		}
+
+		private int parseNumber(ByteBuffer buffer, int end, int maxDigits) {
+			int value = 0;
+			int digits = 0;
+			while (valid && position < end && digits < maxDigits) {
+				int ch = buffer.get(position) - '0';
+				if (ch < 0 || ch > 9)
+					break;
+				value = value * 10 + ch;
+				digits++;
+				position++;
+			}
+			if (digits == 0)
+				valid = false;
+			return value;
+		}
+
+		void malformed(ByteBuffer buffer, int from, int to) {
+			byte[] bytes = new byte[to - from];
+			for (int i = 0; i < bytes.length; i++)
+				bytes[i] = buffer.get(from + i);
+			errorHandler.malformedLine(lineNumber, new String(bytes,
+					StandardCharsets.ISO_8859_1));
+		}
+	}
+}
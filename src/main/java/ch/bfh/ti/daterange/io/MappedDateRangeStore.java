@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+import ch.bfh.ti.daterange.collection.DateRangeSink;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * A read-only store of date ranges in a memory-mapped file. The queries run
+ * directly against the mapped bytes: opening a store reads its header only,
+ * and the memory used is bounded by the page cache of the operating system.
+ * <p>
+ * The file consists of a header of {@link #HEADER_SIZE} bytes, the date
+ * ranges as fixed records (see {@link DateRangeCodec}) sorted by start and
+ * finish, and a sparse index holding, for every block of
+ * {@link #BLOCK_SIZE} records, the start of its first record, the maximum
+ * finish within the block and the maximum finish of all records up to the
+ * end of the block. All values are big-endian.
+ * <p>
+ * A store holds date ranges whose start does not lie after their finish
+ * only. A date range r of the store is reported as overlapping the argument
+ * if <code>r.overlaps(arg)</code> holds.
+ */
+public class MappedDateRangeStore implements Closeable {
+
+	/**
+	 * The size of the file header in bytes.
+	 */
+	public static final int HEADER_SIZE = 32;
+
+	/**
+	 * The default number of records per block of the sparse index.
+	 */
+	public static final int BLOCK_SIZE = 4096;
+
+	private static final int MAGIC = 0x44525331;
+
+	private final FileChannel channel;
+
+	private final long size;
+
+	private final int blockSize;
+
+	private final MappedLongs records;
+
+	private final MappedLongs index;
+
+	private final long blocks;
+
+	private MappedDateRangeStore(FileChannel channel) throws IOException {
+		this.channel = channel;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining()) {
+			if (channel.read(header, header.position()) < 0)
+				throw new IOException("Truncated header");
+		}
+		header.flip();
+		if (header.getInt() != MAGIC)
+			throw new IOException("Not a date range store");
+		this.blockSize = header.getInt();
+		this.size = header.getLong();
+		this.blocks = header.getLong();
+		if (blockSize <= 0 || size < 0 || blocks != blocks(size, blockSize)
+				|| channel.size() < HEADER_SIZE + 16 * size + 24 * blocks)
+			throw new IOException("Corrupt header");
+		this.records = new MappedLongs(channel, HEADER_SIZE, 2 * size);
+		this.index = new MappedLongs(channel, HEADER_SIZE + 16 * size,
+				3 * blocks);
+	}
+
+	private static long blocks(long size, int blockSize) {
+		return (size + blockSize - 1) / blockSize;
+	}
+
+	/**
+	 * Opens a store.
+	 *
+	 * @param path
+	 *            The file written by a {@link Writer}.
+	 * @return The store.
+	 * @throws IOException
+	 *             If the file cannot be opened or is not a valid store.
+	 */
+	public static MappedDateRangeStore open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new MappedDateRangeStore(channel);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes the given date ranges to a new store, sorting them first.
+	 *
+	 * @param path
+	 *            The file to write.
+	 * @param ranges
+	 *            The date ranges.
+	 * @throws IOException
+	 *             If writing fails.
+	 * @throws IllegalArgumentException
+	 *             If a start lies after its finish.
+	 */
+	public static void write(Path path, Collection<? extends DateRange> ranges)
+			throws IOException {
+		long[] starts = new long[ranges.size()];
+		long[] finishes = new long[ranges.size()];
+		int n = 0;
+		for (DateRange dr : ranges) {
+			starts[n] = DateRanges.startMillis(dr);
+			finishes[n++] = DateRanges.finishMillis(dr);
+		}
+		DateRanges.sort(starts, finishes);
+		try (Writer writer = new Writer(path)) {
+			for (int i = 0; i < n; i++)
+				writer.write(starts[i], finishes[i]);
+		}
+	}
+
+	/**
+	 * Closes the underlying file. The mapped bytes are released once the
+	 * store is no longer referenced.
+	 *
+	 * @throws IOException
+	 *             If closing fails.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Returns the number of date ranges in this store.
+	 *
+	 * @return The size.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns the start of the date range at the given position in sorted
+	 * order.
+	 *
+	 * @param index
+	 *            The position, 0 &lt;= index &lt; size().
+	 * @return The start in milliseconds.
+	 */
+	public long getStartMillis(long index) {
+		checkIndex(index);
+		return records.get(2 * index);
+	}
+
+	/**
+	 * Returns the end of the date range at the given position in sorted
+	 * order.
+	 *
+	 * @param index
+	 *            The position, 0 &lt;= index &lt; size().
+	 * @return The end in milliseconds.
+	 */
+	public long getFinishMillis(long index) {
+		checkIndex(index);
+		return records.get(2 * index + 1);
+	}
+
+	/**
+	 * Returns a new DateRange object for the date range at the given
+	 * position in sorted order.
+	 *
+	 * @param index
+	 *            The position, 0 &lt;= index &lt; size().
+	 * @return The date range.
+	 */
+	public DateRange get(long index) {
+		checkIndex(index);
+		return new DateRangeImpl(records.get(2 * index),
+				records.get(2 * index + 1));
+	}
+
+	private void checkIndex(long index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: "
+					+ size);
+	}
+
+	/**
+	 * Checks whether some date range of this store includes the given date.
+	 *
+	 * @param arg
+	 *            The date.
+	 * @return True if a date range includes the date.
+	 */
+	public boolean includes(Date arg) {
+		return includes(arg.getTime());
+	}
+
+	/**
+	 * Checks whether some date range of this store includes the given date.
+	 *
+	 * @param arg
+	 *            The date in milliseconds.
+	 * @return True if a date range includes the date.
+	 */
+	public boolean includes(long arg) {
+		return overlaps(arg, arg);
+	}
+
+	/**
+	 * Checks whether some date range of this store overlaps the given one.
+	 *
+	 * @param arg
+	 *            The date range.
+	 * @return True if a date range overlaps the argument.
+	 */
+	public boolean overlaps(DateRange arg) {
+		return overlaps(DateRanges.startMillis(arg),
+				DateRanges.finishMillis(arg));
+	}
+
+	/**
+	 * Checks whether some date range of this store overlaps the given one.
+	 *
+	 * @param start
+	 *            The start of the argument in milliseconds.
+	 * @param finish
+	 *            The end of the argument in milliseconds.
+	 * @return True if a date range overlaps the argument.
+	 */
+	public boolean overlaps(long start, long finish) {
+		long p = rank(finish, true);
+		if (p == 0)
+			return false;
+		long block = (p - 1) / blockSize;
+		if (maxFinish(block, 2) < start)
+			return false;
+		if (block > 0 && maxFinish(block - 1, 2) >= start)
+			return true;
+		for (long i = block * blockSize; i < p; i++) {
+			if (records.get(2 * i + 1) >= start)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Hands all date ranges of this store overlapping the given one to a
+	 * sink, in sorted order.
+	 *
+	 * @param start
+	 *            The start of the argument in milliseconds.
+	 * @param finish
+	 *            The end of the argument in milliseconds.
+	 * @param sink
+	 *            The sink.
+	 */
+	public void overlapping(long start, long finish, DateRangeSink sink) {
+		long p = rank(finish, true);
+		long lo = 0;
+		long hi = blocks(p, blockSize);
+		while (lo < hi) {
+			long mid = (lo + hi) >>> 1;
+			if (maxFinish(mid, 2) < start)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		for (long block = lo; block * blockSize < p; block++) {
+			if (maxFinish(block, 1) < start)
+				continue;
+			long to = Math.min(p, (block + 1) * blockSize);
+			for (long i = block * blockSize; i < to; i++) {
+				long f = records.get(2 * i + 1);
+				if (f >= start)
+					sink.accept(records.get(2 * i), f);
+			}
+		}
+	}
+
+	/**
+	 * Hands all date ranges of this store whose start lies within the given
+	 * window to a sink, in sorted order.
+	 *
+	 * @param from
+	 *            The lower bound in milliseconds, inclusive.
+	 * @param to
+	 *            The upper bound in milliseconds, inclusive.
+	 * @param sink
+	 *            The sink.
+	 */
+	public void window(long from, long to, DateRangeSink sink) {
+		long end = rank(to, true);
+		for (long i = rank(from, false); i < end; i++)
+			sink.accept(records.get(2 * i), records.get(2 * i + 1));
+	}
+
+	private long maxFinish(long block, int column) {
+		return index.get(3 * block + column);
+	}
+
+	/**
+	 * Returns the number of date ranges starting before the given value, or
+	 * at it if inclusive is true.
+	 */
+	private long rank(long value, boolean inclusive) {
+		long lo = 0;
+		long hi = blocks;
+		while (lo < hi) {
+			long mid = (lo + hi) >>> 1;
+			long first = index.get(3 * mid);
+			if (first < value || (inclusive && first == value))
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		if (lo == 0)
+			return 0;
+		long block = lo - 1;
+		lo = block * blockSize;
+		hi = Math.min(size, lo + blockSize);
+		while (lo < hi) {
+			long mid = (lo + hi) >>> 1;
+			long s = records.get(2 * mid);
+			if (s < value || (inclusive && s == value))
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Writes a store from date ranges given in sorted order. Only the sparse
+	 * index is kept in memory while writing.
+	 */
+	public static class Writer implements DateRangeSink, Closeable {
+
+		private final FileChannel channel;
+
+		private final int blockSize;
+
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+		private long[] index = new long[3 * 64];
+
+		private long size;
+
+		private long lastStart = Long.MIN_VALUE;
+
+		private long lastFinish = Long.MIN_VALUE;
+
+		private long prefixMax = Long.MIN_VALUE;
+
+		private boolean closed;
+
+		/**
+		 * Creates or truncates the given file.
+		 *
+		 * @param path
+		 *            The file.
+		 * @throws IOException
+		 *             If the file cannot be created.
+		 */
+		public Writer(Path path) throws IOException {
+			this(path, BLOCK_SIZE);
+		}
+
+		/**
+		 * Creates or truncates the given file.
+		 *
+		 * @param path
+		 *            The file.
+		 * @param blockSize
+		 *            The number of records per block of the sparse index.
+		 * @throws IOException
+		 *             If the file cannot be created.
+		 */
+		public Writer(Path path, int blockSize) throws IOException {
+			if (blockSize <= 0)
+				throw new IllegalArgumentException("Block size: " + blockSize);
+			this.blockSize = blockSize;
+			this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.WRITE);
+			channel.position(HEADER_SIZE);
+		}
+
+		/**
+		 * Appends a date range.
+		 *
+		 * @param start
+		 *            The start in milliseconds.
+		 * @param finish
+		 *            The end in milliseconds.
+		 * @throws IOException
+		 *             If writing fails.
+		 * @throws IllegalArgumentException
+		 *             If the start lies after the finish, or the date range
+		 *             is ordered before the previous one.
+		 */
+		public void write(long start, long finish) throws IOException {
+			if (closed)
+				throw new IllegalStateException("Store already closed");
+			if (start > finish)
+				throw new IllegalArgumentException("Start after finish: "
+						+ start + " > " + finish);
+			if (size > 0 && DateRanges.compare(start, finish, lastStart,
+					lastFinish) < 0)
+				throw new IllegalArgumentException("Date range out of order"
+						+ " at index " + size);
+			int block = (int) (size / blockSize);
+			if (size % blockSize == 0) {
+				if (3 * block == index.length)
+					index = Arrays.copyOf(index, 2 * index.length);
+				index[3 * block] = start;
+				index[3 * block + 1] = finish;
+			} else {
+				index[3 * block + 1] = Math.max(index[3 * block + 1], finish);
+			}
+			prefixMax = Math.max(prefixMax, finish);
+			index[3 * block + 2] = prefixMax;
+			if (buffer.remaining() < DateRangeCodec.RECORD_SIZE)
+				drain();
+			DateRangeCodec.put(buffer, start, finish);
+			lastStart = start;
+			lastFinish = finish;
+			size++;
+		}
+
+		/**
+		 * Appends a date range, wrapping an IOException into an
+		 * UncheckedIOException.
+		 *
+		 * @see #write(long, long)
+		 */
+		@Override
+		public void accept(long start, long finish) {
+			try {
+				write(start, finish);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void drain() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			buffer.clear();
+		}
+
+		/**
+		 * Writes the sparse index and the header and closes the file.
+		 *
+		 * @throws IOException
+		 *             If writing fails.
+		 */
+		@Override
+		public void close() throws IOException {
+			if (closed)
+				return;
+			closed = true;
+			try {
+				long blocks = blocks(size, blockSize);
+				for (int i = 0; i < 3 * blocks; i++) {
+					if (buffer.remaining() < 8)
+						drain();
+					buffer.putLong(index[i]);
+				}
+				drain();
+				buffer.putInt(MAGIC).putInt(blockSize).putLong(size)
+						.putLong(blocks).putLong(0);
+				buffer.flip();
+				long position = 0;
+				while (buffer.hasRemaining())
+					position += channel.write(buffer, position);
+				buffer.clear();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+}
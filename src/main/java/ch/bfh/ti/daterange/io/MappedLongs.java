@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.io;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A read-only array of <code>long</code> values mapped from a region of a
+ * file. The region is mapped in segments, as a single mapped buffer cannot
+ * exceed 2 GiB.
+ */
+final class MappedLongs {
+
+	private static final int SHIFT = 27;
+
+	private static final long MASK = (1L << SHIFT) - 1;
+
+	private final LongBuffer[] segments;
+
+	private final long length;
+
+	/**
+	 * Maps the given number of values starting at the given byte offset.
+	 */
+	MappedLongs(FileChannel channel, long offset, long length)
+			throws IOException {
+		this.length = length;
+		int n = (int) ((length + MASK) >>> SHIFT);
+		segments = new LongBuffer[n];
+		for (int i = 0; i < n; i++) {
+			long first = (long) i << SHIFT;
+			long size = Math.min(1L << SHIFT, length - first);
+			segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+					offset + 8 * first, 8 * size).asLongBuffer();
+		}
+	}
+
+	long length() {
+		return length;
+	}
+
+	long get(long index) {
+		return segments[(int) (index >>> SHIFT)].get((int) (index & MASK));
+	}
+}
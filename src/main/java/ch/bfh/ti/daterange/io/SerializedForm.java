@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.io;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.util.Date;
+
+import ch.bfh.ti.daterange.DateRange;
+
+/**
+ * The serialized form of the DateRange implementations of this library. The
+ * implementations replace themselves by an instance of this class when being
+ * serialized, which writes a tag byte followed by the limits as
+ * <code>long</code> values, and resolves to an equal instance of the original
+ * implementation when being deserialized. This class is not meant to be used
+ * directly.
+ */
+public final class SerializedForm implements Externalizable {
+	/**
+	 * Default serial version UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	private static final int PRIMITIVE = 0;
+
+	private static final int POJO = 1;
+
+	private static final int NO_START = 2;
+
+	private static final int NO_FINISH = 4;
+
+	private int tag;
+
+	private long start;
+
+	private long finish;
+
+	/**
+	 * Constructs an empty instance for deserialization.
+	 */
+	public SerializedForm() {
+	}
+
+	private SerializedForm(int tag, Date start, Date finish) {
+		this.tag = tag | (start == null ? NO_START : 0)
+				| (finish == null ? NO_FINISH : 0);
+		this.start = start == null ? 0 : start.getTime();
+		this.finish = finish == null ? 0 : finish.getTime();
+	}
+
+	/**
+	 * Returns the serialized form of a date range.
+	 *
+	 * @param dr
+	 *            A DateRange of this library.
+	 * @return The serialized form.
+	 * @throws IllegalArgumentException
+	 *             If the date range is not implemented by this library.
+	 */
+	public static SerializedForm of(DateRange dr) {
+		if (dr instanceof ch.bfh.ti.daterange.impl.primitive.DateRangeImpl) {
+			ch.bfh.ti.daterange.impl.primitive.DateRangeImpl p =
+					(ch.bfh.ti.daterange.impl.primitive.DateRangeImpl) dr;
+			SerializedForm result = new SerializedForm();
+			result.tag = PRIMITIVE;
+			result.start = p.getStartMillis();
+			result.finish = p.getFinishMillis();
+			return result;
+		}
+		if (dr instanceof ch.bfh.ti.daterange.impl.pojo.DateRangeImpl)
+			return new SerializedForm(POJO, dr.getStart(), dr.getFinish());
+		throw new IllegalArgumentException("Unsupported implementation: "
+				+ dr.getClass().getName());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeByte(tag);
+		if ((tag & NO_START) == 0)
+			out.writeLong(start);
+		if ((tag & NO_FINISH) == 0)
+			out.writeLong(finish);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		tag = in.readByte();
+		if ((tag & NO_START) == 0)
+			start = in.readLong();
+		if ((tag & NO_FINISH) == 0)
+			finish = in.readLong();
+	}
+
+	/**
+	 * Resolves to the original implementation.
+	 *
+	 * @return The date range.
+	 * @throws ObjectStreamException
+	 *             If the tag is unknown.
+	 */
+	private Object readResolve() throws ObjectStreamException {
+		if (tag == PRIMITIVE)
+			return new ch.bfh.ti.daterange.impl.primitive.DateRangeImpl(start,
+					finish);
+		if ((tag & ~(NO_START | NO_FINISH)) == POJO)
+			return new ch.bfh.ti.daterange.impl.pojo.DateRangeImpl(
+					(tag & NO_START) == 0 ? new Date(start) : null,
+					(tag & NO_FINISH) == 0 ? new Date(finish) : null);
+		throw new InvalidObjectException("Unknown tag: " + tag);
+	}
+}
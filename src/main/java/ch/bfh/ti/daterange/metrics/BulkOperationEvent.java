@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event recorded for every instrumented bulk operation. Its duration is
+ * the one of the operation. Events are created by
+ * {@link Instrumentation#startBulk()} only.
+ */
+@Name("ch.bfh.ti.daterange.BulkOperation")
+@Label("Date Range Bulk Operation")
+@Category("Date Range")
+@Description("A bulk operation of the date range library")
+public final class BulkOperationEvent extends Event {
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Size")
+	@Description("The number of date ranges processed")
+	long size;
+
+	/**
+	 * The value of System.nanoTime() at the start, for the metrics sink.
+	 */
+	transient long startNanos;
+
+	/**
+	 * Constructs an event.
+	 */
+	BulkOperationEvent() {
+	}
+}
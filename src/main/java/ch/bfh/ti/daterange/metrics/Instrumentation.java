@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.metrics;
+
+/**
+ * The switch and the entry points of the instrumentation. Instrumentation is
+ * enabled by setting the system property {@value #PROPERTY} to
+ * <code>true</code> at startup. As {@link #ENABLED} is a constant, the JIT
+ * compiler removes the instrumentation entirely if it is disabled.
+ * <p>
+ * An instrumented operation is bracketed as follows:
+ *
+ * <pre>
+ * long t = Instrumentation.start();
+ * ...
+ * Instrumentation.stop(Operation.CREATE_DATE, t, 0);
+ * </pre>
+ *
+ * Bulk operations are bracketed by {@link #startBulk()} instead, as they are
+ * additionally reported as JFR events if a recording is running:
+ *
+ * <pre>
+ * BulkOperationEvent event = Instrumentation.startBulk();
+ * ...
+ * Instrumentation.stop(Operation.BUILD_SET, event, n);
+ * </pre>
+ *
+ * The measurements go to the current sink, an instance of {@link Metrics}
+ * unless replaced by {@link #setSink(MetricsSink)}.
+ */
+public final class Instrumentation {
+
+	/**
+	 * The system property enabling the instrumentation.
+	 */
+	public static final String PROPERTY = "ch.bfh.ti.daterange.instrumentation";
+
+	/**
+	 * True iff the instrumentation is enabled.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+	private static volatile MetricsSink sink = new Metrics();
+
+	/**
+	 * Not used.
+	 */
+	private Instrumentation() {
+	}
+
+	/**
+	 * Returns the current sink.
+	 *
+	 * @return The sink.
+	 */
+	public static MetricsSink getSink() {
+		return sink;
+	}
+
+	/**
+	 * Replaces the current sink.
+	 *
+	 * @param sink
+	 *            The new sink.
+	 */
+	public static void setSink(MetricsSink sink) {
+		if (sink == null)
+			throw new IllegalArgumentException("Sink must not be null");
+		Instrumentation.sink = sink;
+	}
+
+	/**
+	 * Starts measuring an operation.
+	 *
+	 * @return The start time to pass to {@link #stop}, or 0 if the
+	 *         instrumentation is disabled.
+	 */
+	public static long start() {
+		return ENABLED ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Stops measuring an operation and records it.
+	 *
+	 * @param operation
+	 *            The operation.
+	 * @param start
+	 *            The value returned by {@link #start()}.
+	 * @param allocations
+	 *            The number of objects allocated for the result, or, for bulk
+	 *            operations, the number of date ranges processed.
+	 */
+	public static void stop(Operation operation, long start, long allocations) {
+		if (!ENABLED)
+			return;
+		sink.record(operation, System.nanoTime() - start, allocations);
+	}
+
+	/**
+	 * Starts measuring a bulk operation. The JFR event, if enabled, starts
+	 * now, too.
+	 *
+	 * @return The event to pass to {@link #stop(Operation, BulkOperationEvent,
+	 *         long)}, or null if the instrumentation is disabled.
+	 */
+	public static BulkOperationEvent startBulk() {
+		if (!ENABLED)
+			return null;
+		BulkOperationEvent event = new BulkOperationEvent();
+		event.begin();
+		event.startNanos = System.nanoTime();
+		return event;
+	}
+
+	/**
+	 * Stops measuring a bulk operation, records it and commits its JFR event.
+	 *
+	 * @param operation
+	 *            The operation.
+	 * @param event
+	 *            The value returned by {@link #startBulk()}.
+	 * @param size
+	 *            The number of date ranges processed.
+	 */
+	public static void stop(Operation operation, BulkOperationEvent event,
+			long size) {
+		if (!ENABLED)
+			return;
+		sink.record(operation, System.nanoTime() - event.startNanos, size);
+		event.end();
+		if (event.shouldCommit()) {
+			event.operation = operation.name();
+			event.size = size;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metrics sink aggregating the measurements in memory: per operation the
+ * number of calls, the total time, the number of allocations, and a latency
+ * histogram whose bucket i counts the calls taking less than 2<sup>i</sup>
+ * but at least 2<sup>i - 1</sup> nanoseconds.
+ */
+public class Metrics implements MetricsSink {
+
+	/**
+	 * The number of buckets of a latency histogram.
+	 */
+	public static final int BUCKETS = 64;
+
+	private final Counters[] counters;
+
+	/**
+	 * Constructs empty metrics.
+	 */
+	public Metrics() {
+		Operation[] operations = Operation.values();
+		counters = new Counters[operations.length];
+		for (int i = 0; i < operations.length; i++)
+			counters[i] = new Counters();
+	}
+
+	private static class Counters {
+		final LongAdder count = new LongAdder();
+
+		final LongAdder nanos = new LongAdder();
+
+		final LongAdder allocations = new LongAdder();
+
+		final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+		Counters() {
+			for (int i = 0; i < BUCKETS; i++)
+				histogram[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void record(Operation operation, long nanos, long allocations) {
+		Counters c = counters[operation.ordinal()];
+		c.count.increment();
+		c.nanos.add(nanos);
+		c.allocations.add(allocations);
+		c.histogram[Math.min(BUCKETS - 1, 64 - Long
+				.numberOfLeadingZeros(Math.max(nanos, 0)))].increment();
+	}
+
+	/**
+	 * Returns the number of recorded calls of an operation.
+	 *
+	 * @param operation
+	 *            The operation.
+	 * @return The number of calls.
+	 */
+	public long getCount(Operation operation) {
+		return counters[operation.ordinal()].count.sum();
+	}
+
+	/**
+	 * Returns the total time spent in an operation.
+	 *
+	 * @param operation
+	 *            The operation.
+	 * @return The time in nanoseconds.
+	 */
+	public long getTotalNanos(Operation operation) {
+		return counters[operation.ordinal()].nanos.sum();
+	}
+
+	/**
+	 * Returns the number of allocations of an operation.
+	 *
+	 * @param operation
+	 *            The operation.
+	 * @return The number of allocations, see {@link MetricsSink}.
+	 */
+	public long getAllocations(Operation operation) {
+		return counters[operation.ordinal()].allocations.sum();
+	}
+
+	/**
+	 * Returns the latency histogram of an operation.
+	 *
+	 * @param operation
+	 *            The operation.
+	 * @return A copy of the {@link #BUCKETS} buckets.
+	 */
+	public long[] getHistogram(Operation operation) {
+		LongAdder[] histogram = counters[operation.ordinal()].histogram;
+		long[] result = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+			result[i] = histogram[i].sum();
+		return result;
+	}
+
+	/**
+	 * Returns an upper bound of the given percentile of the latency of an
+	 * operation, accurate to a factor of two.
+	 *
+	 * @param operation
+	 *            The operation.
+	 * @param percentile
+	 *            The percentile, 0 &lt; percentile &lt;= 100.
+	 * @return The upper bound in nanoseconds, or 0 if nothing is recorded.
+	 */
+	public long getPercentileNanos(Operation operation, double percentile) {
+		long[] histogram = getHistogram(operation);
+		long total = 0;
+		for (long n : histogram)
+			total += n;
+		long rank = (long) Math.ceil(total * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += histogram[i];
+			if (seen >= rank && seen > 0)
+				return i == BUCKETS - 1 ? Long.MAX_VALUE : 1L << i;
+		}
+		return 0;
+	}
+
+	/**
+	 * Resets all measurements.
+	 */
+	public void reset() {
+		for (Counters c : counters) {
+			c.count.reset();
+			c.nanos.reset();
+			c.allocations.reset();
+			for (LongAdder bucket : c.histogram)
+				bucket.reset();
+		}
+	}
+
+	/**
+	 * Returns a summary of the operations recorded so far.
+	 *
+	 * @return One line per operation.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Operation operation : Operation.values()) {
+			long count = getCount(operation);
+			if (count == 0)
+				continue;
+			sb.append(operation).append(": count=").append(count)
+					.append(", mean=").append(getTotalNanos(operation) / count)
+					.append("ns, p99<=")
+					.append(getPercentileNanos(operation, 99))
+					.append("ns, allocations=")
+					.append(getAllocations(operation)).append('\n');
+		}
+		return sb.toString();
+	}
+}
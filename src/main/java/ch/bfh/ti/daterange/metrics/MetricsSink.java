@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.metrics;
+
+/**
+ * Receives the measurements of instrumented operations. Implementations must be
+ * thread-safe and should be fast, as they are called on the hot path.
+ */
+@FunctionalInterface
+public interface MetricsSink {
+
+	/**
+	 * Records an operation.
+	 *
+	 * @param operation
+	 *            The operation.
+	 * @param nanos
+	 *            The elapsed time in nanoseconds.
+	 * @param allocations
+	 *            The number of objects allocated for the result, or, for bulk
+	 *            operations, the number of date ranges processed.
+	 */
+	public void record(Operation operation, long nanos, long allocations);
+}
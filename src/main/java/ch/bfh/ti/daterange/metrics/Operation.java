@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.metrics;
+
+/**
+ * The instrumented operations of the library.
+ */
+public enum Operation {
+
+	/**
+	 * DateFactory.createDateMillis and the methods built upon it.
+	 */
+	CREATE_DATE,
+
+	/**
+	 * DateFactory.addDaysMillis and the methods built upon it.
+	 */
+	ADD_DAYS,
+
+	/**
+	 * The creation of a single DateRange object by a factory.
+	 */
+	CREATE_DATE_RANGE,
+
+	/**
+	 * The creation of a DateRangeList by one of its static factory methods.
+	 */
+	BULK_CREATE(true),
+
+	/**
+	 * The construction of a DateRangeSet.
+	 */
+	BUILD_SET(true),
+
+	/**
+	 * The construction of a DateRangeIndex.
+	 */
+	BUILD_INDEX(true),
+
+	/**
+	 * A query of a DateRangeSet.
+	 */
+	SET_QUERY,
+
+	/**
+	 * A query of a DateRangeIndex.
+	 */
+	INDEX_QUERY,
+
+	/**
+	 * An overlap join of two collections.
+	 */
+	OVERLAP_JOIN(true),
+
+	/**
+	 * The import of a textual file of date ranges.
+	 */
+	IMPORT(true);
+
+	private final boolean bulk;
+
+	private Operation() {
+		this(false);
+	}
+
+	private Operation(boolean bulk) {
+		this.bulk = bulk;
+	}
+
+	/**
+	 * Checks whether this operation processes many date ranges at once. Bulk
+	 * operations are reported as JFR events, too.
+	 *
+	 * @return True for bulk operations.
+	 */
+	public boolean isBulk() {
+		return bulk;
+	}
+}
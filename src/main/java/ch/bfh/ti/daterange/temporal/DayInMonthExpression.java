@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.temporal;
+
+/**
+ * A temporal expression including a given day of the week at a given position
+ * within each month, e.g., "the second Monday of each month" or, counting from
+ * the end of the month, "the last Friday of each month".
+ */
+public class DayInMonthExpression implements TemporalExpression {
+
+	private final int dayOfWeek;
+
+	private final int count;
+
+	/**
+	 * Constructs a temporal expression for a day of the week within each month.
+	 *
+	 * @param dayOfWeek
+	 *            The day of the week as in java.util.Calendar, e.g.,
+	 *            Calendar.MONDAY.
+	 * @param count
+	 *            The position within the month: 1 to 5 counting from the
+	 *            beginning of the month, -1 to -5 counting from its end.
+	 * @throws IllegalArgumentException
+	 *             If the day of the week or the count are out of range.
+	 */
+	public DayInMonthExpression(int dayOfWeek, int count) {
+		if (dayOfWeek < 1 || dayOfWeek > 7)
+			throw new IllegalArgumentException("Illegal day of week: "
+					+ dayOfWeek);
+		if (count == 0 || count < -5 || count > 5)
+			throw new IllegalArgumentException("Illegal count: " + count);
+		this.dayOfWeek = dayOfWeek;
+		this.count = count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean includesDay(long epochDay) {
+		return Days.dayOfWeek(epochDay) == dayOfWeek && weekMatches(epochDay);
+	}
+
+	private boolean weekMatches(long epochDay) {
+		int civil = Days.toCivil(epochDay);
+		int day = Days.dayOfMonth(civil);
+		if (count > 0)
+			return (day - 1) / 7 + 1 == count;
+		int length = Days.lengthOfMonth(Days.year(civil), Days.month(civil));
+		return (length - day) / 7 + 1 == -count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long nextDay(long from, long to) {
+		long day = from + Math.floorMod(dayOfWeek - Days.dayOfWeek(from), 7);
+		while (day <= to && !weekMatches(day))
+			day += 7;
+		return day;
+	}
+}
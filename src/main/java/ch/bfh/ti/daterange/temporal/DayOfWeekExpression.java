@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.temporal;
+
+/**
+ * A temporal expression including every day with a given day of the week, e.g.,
+ * "every Monday".
+ */
+public class DayOfWeekExpression implements TemporalExpression {
+
+	private final int dayOfWeek;
+
+	/**
+	 * Constructs a temporal expression including every day with the given day
+	 * of the week.
+	 *
+	 * @param dayOfWeek
+	 *            The day of the week as in java.util.Calendar, e.g.,
+	 *            Calendar.MONDAY.
+	 * @throws IllegalArgumentException
+	 *             If the day of the week is out of range.
+	 */
+	public DayOfWeekExpression(int dayOfWeek) {
+		if (dayOfWeek < 1 || dayOfWeek > 7)
+			throw new IllegalArgumentException("Illegal day of week: "
+					+ dayOfWeek);
+		this.dayOfWeek = dayOfWeek;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean includesDay(long epochDay) {
+		return Days.dayOfWeek(epochDay) == dayOfWeek;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long nextDay(long from, long to) {
+		return from + Math.floorMod(dayOfWeek - Days.dayOfWeek(from), 7);
+	}
+}
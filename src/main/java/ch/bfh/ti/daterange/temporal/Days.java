@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.temporal;
+
+import ch.bfh.ti.daterange.DateFactory;
+
+/**
+ * Calendar arithmetic on epoch days, i.e., the number of days since January 1,
+ * 1970, in the default time zone. The computations use the proleptic Gregorian
+ * calendar and do not create Calendar objects.
+ */
+final class Days {
+	/**
+	 * Not used.
+	 */
+	private Days() {
+	}
+
+	/**
+	 * Returns the epoch day of the given point in time.
+	 *
+	 * @param millis
+	 *            The point in time in milliseconds since January 1, 1970,
+	 *            00:00:00 GMT.
+	 * @return The epoch day in the default time zone.
+	 */
+	static long epochDay(long millis) {
+		return DateFactory.toEpochDay(millis);
+	}
+
+	/**
+	 * Returns 12.00 o'clock of the given epoch day in the default time zone.
+	 *
+	 * @param epochDay
+	 *            The epoch day.
+	 * @return The point in time in milliseconds since January 1, 1970,
+	 *         00:00:00 GMT.
+	 */
+	static long noon(long epochDay) {
+		return DateFactory.fromEpochDay(epochDay);
+	}
+
+	/**
+	 * Returns the day of the week of the given epoch day.
+	 *
+	 * @param epochDay
+	 *            The epoch day.
+	 * @return The day of the week as in java.util.Calendar, i.e., 1 for
+	 *         Sunday, 2 for Monday, ..., 7 for Saturday.
+	 */
+	static int dayOfWeek(long epochDay) {
+		// January 1, 1970 was a Thursday.
+		return (int) Math.floorMod(epochDay + 4, 7L) + 1;
+	}
+
+	/**
+	 * Returns the epoch day of the given date.
+	 *
+	 * @param year
+	 *            The year.
+	 * @param month
+	 *            The month, 0-based.
+	 * @param day
+	 *            The day of the month, 1-based.
+	 * @return The epoch day.
+	 */
+	static long fromCivil(int year, int month, int day) {
+		return DateFactory.toEpochDay(year, month, day);
+	}
+
+	/**
+	 * Returns the year, month, and day of the month of the given epoch day,
+	 * packed into an int. Use {@link #year(int)}, {@link #month(int)}, and
+	 * {@link #dayOfMonth(int)} to unpack.
+	 *
+	 * @param epochDay
+	 *            The epoch day.
+	 * @return The packed date.
+	 */
+	static int toCivil(long epochDay) {
+		// See http://howardhinnant.github.io/date_algorithms.html
+		long z = epochDay + 719468;
+		long era = Math.floorDiv(z, 146097);
+		long doe = z - era * 146097;
+		long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		long mp = (5 * doy + 2) / 153;
+		int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+		int month = (int) (mp < 10 ? mp + 2 : mp - 10);
+		long year = yoe + era * 400 + (month < 2 ? 1 : 0);
+		return (int) (year << 9) | month << 5 | day;
+	}
+
+	static int year(int civil) {
+		return civil >> 9;
+	}
+
+	static int month(int civil) {
+		return civil >> 5 & 0xf;
+	}
+
+	static int dayOfMonth(int civil) {
+		return civil & 0x1f;
+	}
+
+	/**
+	 * Returns the number of days of the given month.
+	 *
+	 * @param year
+	 *            The year.
+	 * @param month
+	 *            The month, 0-based.
+	 * @return The number of days.
+	 */
+	static int lengthOfMonth(int year, int month) {
+		if (month == 1) {
+			boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+			return leap ? 29 : 28;
+		}
+		return month == 3 || month == 5 || month == 8 || month == 10 ? 30 : 31;
+	}
+}
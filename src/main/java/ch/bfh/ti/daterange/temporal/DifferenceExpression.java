@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.temporal;
+
+/**
+ * A temporal expression including every day that is included in one temporal
+ * expression but not in another, e.g., "every Monday except during the summer
+ * holidays".
+ */
+public class DifferenceExpression implements TemporalExpression {
+
+	private final TemporalExpression included;
+
+	private final TemporalExpression excluded;
+
+	/**
+	 * Constructs the difference of two temporal expressions.
+	 *
+	 * @param included
+	 *            The temporal expression whose days are included.
+	 * @param excluded
+	 *            The temporal expression whose days are excluded.
+	 */
+	public DifferenceExpression(TemporalExpression included,
+			TemporalExpression excluded) {
+		this.included = included;
+		this.excluded = excluded;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean includesDay(long epochDay) {
+		return included.includesDay(epochDay) && !excluded.includesDay(epochDay);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long nextDay(long from, long to) {
+		long day = included.nextDay(from, to);
+		while (day <= to && excluded.includesDay(day))
+			day = included.nextDay(day + 1, to);
+		return day;
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.temporal;
+
+/**
+ * A temporal expression including every day that is included in all of its
+ * elements.
+ */
+public class IntersectionExpression implements TemporalExpression {
+
+	private final TemporalExpression[] elements;
+
+	/**
+	 * Constructs the intersection of the given temporal expressions.
+	 *
+	 * @param elements
+	 *            The temporal expressions.
+	 */
+	public IntersectionExpression(TemporalExpression... elements) {
+		this.elements = elements.clone();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean includesDay(long epochDay) {
+		for (TemporalExpression e : elements) {
+			if (!e.includesDay(epochDay))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the first epoch day within [from, to] that belongs to all
+	 * elements. The elements take turns in skipping ahead to their next day
+	 * until they agree.
+	 */
+	@Override
+	public long nextDay(long from, long to) {
+		long day = from;
+		int agreeing = 0;
+		int i = 0;
+		while (day <= to && agreeing < elements.length) {
+			long next = elements[i].nextDay(day, to);
+			if (next == day) {
+				agreeing++;
+			} else {
+				day = next;
+				agreeing = 1;
+			}
+			i = (i + 1) % elements.length;
+		}
+		return day;
+	}
+}
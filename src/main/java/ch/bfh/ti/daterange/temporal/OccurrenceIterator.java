@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.temporal;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRanges;
+
+/**
+ * Iterates lazily over the occurrences of a temporal expression within a date
+ * range.
+ */
+class OccurrenceIterator implements Iterator<Date> {
+
+	private final TemporalExpression expression;
+
+	private final long start;
+
+	private final long finish;
+
+	private final long lastDay;
+
+	private long next;
+
+	OccurrenceIterator(TemporalExpression expression, DateRange range) {
+		this.expression = expression;
+		this.start = DateRanges.startMillis(range);
+		this.finish = DateRanges.finishMillis(range);
+		this.lastDay = Days.epochDay(finish);
+		this.next = Long.MIN_VALUE;
+		advance(Days.epochDay(start));
+	}
+
+	/**
+	 * Positions the iterator on the first occurrence at or after the given
+	 * epoch day.
+	 */
+	private void advance(long from) {
+		long day = from;
+		next = Long.MIN_VALUE;
+		while (day <= lastDay) {
+			day = expression.nextDay(day, lastDay);
+			if (day > lastDay)
+				return;
+			long noon = Days.noon(day);
+			if (DateRanges.includes(start, finish, noon)) {
+				next = noon;
+				return;
+			}
+			day++;
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return next != Long.MIN_VALUE;
+	}
+
+	@Override
+	public Date next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		Date result = new Date(next);
+		advance(Days.epochDay(next) + 1);
+		return result;
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.temporal;
+
+/**
+ * A temporal expression including the same period of days every year, e.g.,
+ * "from April 15 to May 10 of each year". The period may wrap around the end
+ * of the year, e.g., "from December 20 to January 6".
+ */
+public class RangeEachYearExpression implements TemporalExpression {
+
+	private final int startMonth;
+
+	private final int startDay;
+
+	private final int start;
+
+	private final int end;
+
+	/**
+	 * Constructs a temporal expression for a period of days of each year.
+	 *
+	 * @param startMonth
+	 *            The month of the first day, 0-based.
+	 * @param startDay
+	 *            The first day within the start month, 1-based.
+	 * @param endMonth
+	 *            The month of the last day, 0-based.
+	 * @param endDay
+	 *            The last day within the end month, 1-based.
+	 * @throws IllegalArgumentException
+	 *             If a month or a day is out of range.
+	 */
+	public RangeEachYearExpression(int startMonth, int startDay, int endMonth,
+			int endDay) {
+		this.startMonth = startMonth;
+		this.startDay = startDay;
+		this.start = key(startMonth, startDay);
+		this.end = key(endMonth, endDay);
+	}
+
+	/**
+	 * Constructs a temporal expression for a period of whole months of each
+	 * year.
+	 *
+	 * @param startMonth
+	 *            The first month, 0-based.
+	 * @param endMonth
+	 *            The last month, 0-based.
+	 * @throws IllegalArgumentException
+	 *             If a month is out of range.
+	 */
+	public RangeEachYearExpression(int startMonth, int endMonth) {
+		this(startMonth, 1, endMonth, 31);
+	}
+
+	private static int key(int month, int day) {
+		if (month < 0 || month > 11)
+			throw new IllegalArgumentException("Illegal month: " + month);
+		if (day < 1 || day > 31)
+			throw new IllegalArgumentException("Illegal day: " + day);
+		return month << 5 | day;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean includesDay(long epochDay) {
+		int civil = Days.toCivil(epochDay);
+		int key = Days.month(civil) << 5 | Days.dayOfMonth(civil);
+		if (start <= end)
+			return start <= key && key <= end;
+		return start <= key || key <= end;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long nextDay(long from, long to) {
+		if (includesDay(from))
+			return from;
+		int year = Days.year(Days.toCivil(from));
+		long day = firstDay(year);
+		if (day < from)
+			day = firstDay(++year);
+		// If the start day does not exist in a year, e.g., February 29, the
+		// period may include no day of that year at all.
+		while (day <= to && !includesDay(day))
+			day = firstDay(++year);
+		return day;
+	}
+
+	/**
+	 * Returns the epoch day of the first day of the period within the given
+	 * year, or of the first day of the next month if the start day does not
+	 * exist in that year. The latter need not be included.
+	 */
+	private long firstDay(int year) {
+		if (startDay <= Days.lengthOfMonth(year, startMonth))
+			return Days.fromCivil(year, startMonth, startDay);
+		// E.g. February 30: the period starts with the next month.
+		return Days.fromCivil(year, startMonth + 1, 1);
+	}
+}
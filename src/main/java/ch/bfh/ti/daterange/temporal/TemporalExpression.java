@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.temporal;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import ch.bfh.ti.daterange.DateRange;
+
+/**
+ * A temporal expression describes a recurring event with a granularity of days,
+ * e.g., "every Monday" or "the last Friday of each month". See <a
+ * href="http://martinfowler.com/apsupp/recurring.pdf">http://martinfowler.com/apsupp/recurring.pdf</a>
+ * <p>
+ * Days are given as epoch days, i.e., the number of days since January 1,
+ * 1970, in the default time zone. Implementations answer
+ * {@link #includesDay(long)} by arithmetic on the epoch day, without walking a
+ * calendar. Occurrences are generated lazily.
+ */
+public interface TemporalExpression {
+
+	/**
+	 * Checks whether the given epoch day belongs to this expression.
+	 *
+	 * @param epochDay
+	 *            The number of days since January 1, 1970.
+	 * @return True iff the day is included.
+	 */
+	public boolean includesDay(long epochDay);
+
+	/**
+	 * Checks whether the day of the given date belongs to this expression.
+	 *
+	 * @param d
+	 *            The date.
+	 * @return True iff the day of the date is included.
+	 */
+	public default boolean includes(Date d) {
+		return includesDay(Days.epochDay(d.getTime()));
+	}
+
+	/**
+	 * Returns the first epoch day within [from, to] that belongs to this
+	 * expression. Implementations are encouraged to skip days that cannot
+	 * belong to the expression instead of testing each of them.
+	 *
+	 * @param from
+	 *            The first epoch day to consider.
+	 * @param to
+	 *            The last epoch day to consider.
+	 * @return The first included epoch day, or a value greater than
+	 *         <code>to</code> if there is none.
+	 */
+	public default long nextDay(long from, long to) {
+		long day = from;
+		while (day <= to && !includesDay(day))
+			day++;
+		return day;
+	}
+
+	/**
+	 * Returns the occurrences of this expression within the given date range.
+	 * The occurrences are positioned at 12.00 o'clock, as the ones created by
+	 * {@link ch.bfh.ti.daterange.DateFactory}, and are only reported if
+	 * included in the date range. They are computed one at a time while the
+	 * iterator advances.
+	 *
+	 * @param range
+	 *            The date range.
+	 * @return An iterator over the occurrences in ascending order.
+	 */
+	public default Iterator<Date> occurrences(DateRange range) {
+		return new OccurrenceIterator(this, range);
+	}
+
+	/**
+	 * Returns the occurrences of this expression within the given date range
+	 * as a lazy, sequential stream. See {@link #occurrences(DateRange)}.
+	 *
+	 * @param range
+	 *            The date range.
+	 * @return A stream of the occurrences in ascending order.
+	 */
+	public default Stream<Date> stream(DateRange range) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+				occurrences(range), Spliterator.ORDERED | Spliterator.SORTED
+						| Spliterator.DISTINCT | Spliterator.NONNULL),
+				false);
+	}
+}
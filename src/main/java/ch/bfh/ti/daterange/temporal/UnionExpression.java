@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.temporal;
+
+/**
+ * A temporal expression including every day that is included in at least one
+ * of its elements.
+ */
+public class UnionExpression implements TemporalExpression {
+
+	private final TemporalExpression[] elements;
+
+	/**
+	 * Constructs the union of the given temporal expressions.
+	 *
+	 * @param elements
+	 *            The temporal expressions.
+	 */
+	public UnionExpression(TemporalExpression... elements) {
+		this.elements = elements.clone();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean includesDay(long epochDay) {
+		for (TemporalExpression e : elements) {
+			if (e.includesDay(epochDay))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long nextDay(long from, long to) {
+		long result = to + 1;
+		for (TemporalExpression e : elements) {
+			result = Math.min(result, e.nextDay(from, Math.min(to, result)));
+		}
+		return result;
+	}
+}
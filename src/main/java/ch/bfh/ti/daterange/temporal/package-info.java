@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.temporal;
+/**
+ * This package implements temporal expressions for recurring events. See also
+ * <a href="http://martinfowler.com/apsupp/recurring.pdf">Recurring Events for
+ * Calendars</a>.
+ *
+ * @author Eric Dubuis
+ */
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * Tests for enum AllenRelation and DateRange.relate.
+ */
+public class AllenRelationTest {
+
+	private static DateRange range(long start, long finish) {
+		return new DateRangeImpl(start, finish);
+	}
+
+	@Test
+	public void testAllRelations() {
+		DateRange y = range(10, 20);
+		assertEquals(AllenRelation.BEFORE, range(0, 5).relate(y));
+		assertEquals(AllenRelation.MEETS, range(0, 10).relate(y));
+		assertEquals(AllenRelation.OVERLAPS, range(0, 15).relate(y));
+		assertEquals(AllenRelation.STARTS, range(10, 15).relate(y));
+		assertEquals(AllenRelation.DURING, range(12, 15).relate(y));
+		assertEquals(AllenRelation.FINISHES, range(15, 20).relate(y));
+		assertEquals(AllenRelation.EQUALS, range(10, 20).relate(y));
+		assertEquals(AllenRelation.FINISHED_BY, range(5, 20).relate(y));
+		assertEquals(AllenRelation.CONTAINS, range(5, 25).relate(y));
+		assertEquals(AllenRelation.STARTED_BY, range(10, 25).relate(y));
+		assertEquals(AllenRelation.OVERLAPPED_BY, range(15, 25).relate(y));
+		assertEquals(AllenRelation.MET_BY, range(20, 25).relate(y));
+		assertEquals(AllenRelation.AFTER, range(25, 30).relate(y));
+		assertEquals(AllenRelation.EQUALS, new ch.bfh.ti.daterange.impl.pojo
+				.DateRangeImpl(new Date(10), new Date(20)).relate(y));
+	}
+
+	@Test
+	public void testAgreesWithPredicates() {
+		Set<AllenRelation> startsBefore = EnumSet.of(AllenRelation.BEFORE,
+				AllenRelation.MEETS, AllenRelation.OVERLAPS,
+				AllenRelation.FINISHED_BY, AllenRelation.CONTAINS);
+		Set<AllenRelation> endsAfter = EnumSet.of(AllenRelation.AFTER,
+				AllenRelation.MET_BY, AllenRelation.OVERLAPPED_BY,
+				AllenRelation.STARTED_BY, AllenRelation.CONTAINS);
+		Set<AllenRelation> disjoint = EnumSet.of(AllenRelation.BEFORE,
+				AllenRelation.AFTER);
+		Random random = new Random(4711);
+		for (int k = 0; k < 20000; k++) {
+			long xs = random.nextInt(30);
+			long ys = random.nextInt(30);
+			DateRange x = range(xs, xs + random.nextInt(15) + 1);
+			DateRange y = range(ys, ys + random.nextInt(15) + 1);
+			AllenRelation r = x.relate(y);
+			assertEquals(r.getInverse(), y.relate(x));
+			assertEquals(startsBefore.contains(r), x.startsBefore(y));
+			assertEquals(endsAfter.contains(r), x.endsAfter(y));
+			assertEquals(disjoint.contains(r), !x.overlaps(y));
+			assertEquals(r == AllenRelation.EQUALS, x.exactlyMatches(y));
+			assertEquals(r == AllenRelation.CONTAINS, x.strictlyIncludes(y));
+		}
+	}
+
+	@Test
+	public void testDegenerate() {
+		Random random = new Random(4712);
+		for (int k = 0; k < 20000; k++) {
+			DateRange x = range(random.nextInt(10), random.nextInt(10));
+			DateRange y = range(random.nextInt(10), random.nextInt(10));
+			assertEquals(x.relate(y).getInverse(), y.relate(x));
+		}
+	}
+}
@@ -144,6 +144,48 @@ public class DateFactoryTest {
 
 	}
 
+	/**
+	 * Tests that createDate() and addDays() yield the same results as
+	 * java.util.GregorianCalendar, including the normalization of months and
+	 * days out of range and dates before 1901.
+	 */
+	@Test
+	public void testCreateDateMatchesCalendar() {
+		Calendar c = new GregorianCalendar();
+		int[] years = { 1, 1582, 1583, 1900, 1901, 1970, 2000, 2006, 2100 };
+		for (int year : years) {
+			for (int month = -13; month < 25; month++) {
+				for (int day = -40; day < 70; day += 3) {
+					c.clear();
+					c.set(year, month, day, 12, 0);
+					assertEquals(c.getTimeInMillis(),
+							DateFactory.createDateMillis(year, month, day));
+				}
+			}
+		}
+		for (int days = -1000; days < 1000; days += 7) {
+			Date d = DateFactory.createDate(1901, DateFactory.MARCH, 1);
+			c.clear();
+			c.setTime(d);
+			c.set(Calendar.DAY_OF_MONTH, c.get(Calendar.DAY_OF_MONTH) + days);
+			assertEquals(c.getTime(), DateFactory.addDays(d, days));
+		}
+		assertEquals(DateFactory.createDate(2006, DateFactory.FEBRUARY, 1),
+				DateFactory.createDate(2006, DateFactory.JANUARY, 32));
+		assertEquals(DateFactory.getToday().getTime(),
+				DateFactory.getTodayMillis());
+	}
+
+	@Test
+	public void testStartOfEpochDay() {
+		for (long day = -30000; day < 60000; day += 13) {
+			long start = DateFactory.startOfEpochDay(day);
+			assertEquals(day, DateFactory.toEpochDay(start));
+			assertEquals(day - 1, DateFactory.toEpochDay(start - 1));
+			assertTrue(start < DateFactory.fromEpochDay(day));
+		}
+	}
+
 	@Test
 	public void testAdd1() {
 		Date d = DateFactory.getToday();
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for class DateFormatter.
+ */
+public class DateFormatterTest {
+
+	@Test
+	public void testFormatMatchesSimpleDateFormat() {
+		DateFormatter formatter = new DateFormatter(64);
+		SimpleDateFormat sf = new SimpleDateFormat("dd.MM.yyyy");
+		for (Date d = DateFactory.createDate(1850, 0, 1); d
+				.before(DateFactory.createDate(2100, 0, 1)); d = DateFactory
+						.addDays(d, 13)) {
+			assertEquals(sf.format(d), formatter.format(d));
+			Date midnight = new Date(d.getTime() - 12 * 60 * 60 * 1000);
+			assertEquals(sf.format(midnight), formatter.format(midnight));
+		}
+		assertEquals(sf.format(DateFactory.EPOCH),
+				formatter.format(DateFactory.EPOCH));
+		assertEquals(sf.format(DateFactory.INFINITY),
+				formatter.format(DateFactory.INFINITY));
+	}
+
+	@Test
+	public void testCache() {
+		DateFormatter formatter = new DateFormatter(16);
+		Date d = DateFactory.createDate(2006, 3, 10);
+		String text = formatter.format(d);
+		assertSame(text, formatter.format(DateFactory.addDays(d, 0)));
+		assertEquals("10.04.2006", text);
+	}
+
+	@Test
+	public void testAppendTo() {
+		StringBuilder sb = new StringBuilder("From ");
+		DateFormatter.DEFAULT.appendTo(DateFactory.createDate(2006, 3, 10), sb)
+				.append(" to ");
+		DateFormatter.DEFAULT.appendTo(DateFactory.createDateMillis(2006, 3,
+				20), sb);
+		assertEquals("From 10.04.2006 to 20.04.2006", sb.toString());
+	}
+
+	@Test
+	public void testParse() {
+		for (Date d = DateFactory.createDate(1990, 0, 1); d
+				.before(DateFactory.createDate(2030, 0, 1)); d = DateFactory
+						.addDays(d, 11)) {
+			assertEquals(d, DateFormatter.DEFAULT.parse(DateFactory.toString(d)));
+		}
+		assertEquals(DateFactory.createDate(2006, 1, 1),
+				DateFormatter.DEFAULT.parse("1.2.2006"));
+		assertEquals(DateFactory.createDate(2006, 1, 1),
+				DateFormatter.DEFAULT.parse("32.01.2006"));
+	}
+
+	@Test
+	public void testParseMalformed() {
+		String[] texts = { "", "10.04", "10.04.", "10-04-2006", "100.04.2006",
+				"10.04.2006 ", ".04.2006", "10..2006" };
+		for (String text : texts)
+			assertThrows(IllegalArgumentException.class,
+					() -> DateFormatter.DEFAULT.parse(text), text);
+	}
+}
@@ -35,10 +35,22 @@ public class DateRangeTest {
 	 */
 	@BeforeEach
 	public void setUp() throws Exception {
+		factory = createFactory();
+	}
+
+	/**
+	 * Creates the date range factory under test. Subclasses may override this
+	 * method in order to test a specific implementation.
+	 *
+	 * @return The date range factory.
+	 * @throws Exception
+	 *             If the factory cannot be instantiated.
+	 */
+	protected DateRangeFactory createFactory() throws Exception {
 		String className = System.getProperty("daterangefactory.name",
 				"ch.bfh.ti.daterange.impl.pojo.DateRangeFactory");
 		Class<?> clazz = Class.forName(className);
-		factory = (DateRangeFactory) clazz.getDeclaredConstructor().newInstance();
+		return (DateRangeFactory) clazz.getDeclaredConstructor().newInstance();
 	}
 
 	/**
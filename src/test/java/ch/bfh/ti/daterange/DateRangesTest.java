@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * Tests for class DateRanges.
+ */
+public class DateRangesTest {
+
+	private static DateRange range(long start, long finish) {
+		return new DateRangeImpl(start, finish);
+	}
+
+	@Test
+	public void testCoalesce() {
+		List<DateRange> ranges = Arrays.asList(range(50, 60), range(10, 20),
+				range(15, 30), range(30, 40), range(70, 70), range(80, 75),
+				range(55, 58));
+		assertEquals(Arrays.asList(range(10, 40), range(50, 60)),
+				DateRanges.coalesce(ranges, true));
+		assertEquals(Arrays.asList(range(10, 30), range(30, 40),
+				range(50, 60)), DateRanges.coalesce(ranges, false));
+	}
+
+	@Test
+	public void testCoalesceRandom() {
+		Random random = new Random(4711);
+		List<DateRange> ranges = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			long start = random.nextInt(10000);
+			ranges.add(range(start, start + random.nextInt(40)));
+		}
+		List<DateRange> merged = DateRanges.coalesce(ranges, true);
+		for (int i = 1; i < merged.size(); i++)
+			assertFalse(merged.get(i - 1).overlaps(merged.get(i)));
+		for (long t = 0; t < 10100; t++) {
+			boolean expected = false;
+			for (DateRange dr : ranges)
+				expected |= !dr.isEmpty() && dr.includes(new Date(t));
+			boolean actual = false;
+			for (DateRange dr : merged)
+				actual |= dr.includes(new Date(t));
+			assertEquals(expected, actual);
+		}
+		Collections.sort(ranges);
+		assertEquals(merged, DateRanges.coalesce(ranges.stream(), true)
+				.collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testCoalesceStreamIsLazy() {
+		List<DateRange> merged = DateRanges.coalesce(Stream
+				.iterate(0L, t -> t + 10).map(t -> range(t, t + 5)), true)
+				.limit(3).collect(Collectors.toList());
+		assertEquals(Arrays.asList(range(0, 5), range(10, 15), range(20, 25)),
+				merged);
+	}
+
+	@Test
+	public void testCoalesceStreamUnsorted() {
+		assertThrows(IllegalArgumentException.class, () -> DateRanges
+				.coalesce(Arrays.asList(range(10, 20), range(5, 8)).stream(),
+						true)
+				.count());
+		assertTrue(DateRanges.coalesce(Collections.<DateRange>emptyList(),
+				true).isEmpty());
+	}
+
+	@Test
+	public void testMixedImplementations() {
+		Random random = new Random(4712);
+		List<DateRange> ranges = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			long start = random.nextInt(100);
+			long finish = start + random.nextInt(10);
+			ranges.add(i % 2 == 0 ? range(start, finish)
+					: new ch.bfh.ti.daterange.impl.pojo.DateRangeImpl(
+							new Date(start), new Date(finish)));
+		}
+		for (DateRange a : ranges.subList(0, 100)) {
+			for (DateRange b : ranges.subList(0, 100)) {
+				boolean same = a.getStart().equals(b.getStart())
+						&& a.getFinish().equals(b.getFinish());
+				assertEquals(same, a.equals(b));
+				assertEquals(same, b.equals(a));
+				if (same)
+					assertEquals(a.hashCode(), b.hashCode());
+				assertEquals(Integer.signum(a.compareTo(b)), -Integer
+						.signum(b.compareTo(a)));
+				assertEquals(same, a.compareTo(b) == 0);
+			}
+		}
+		Collections.sort(ranges);
+		for (int i = 1; i < ranges.size(); i++)
+			assertTrue(ranges.get(i - 1).compareTo(ranges.get(i)) <= 0);
+		Set<DateRange> tree = new TreeSet<>(ranges);
+		Set<DateRange> hash = new HashSet<>(ranges);
+		assertEquals(tree.size(), hash.size());
+		assertTrue(hash.containsAll(tree));
+		assertFalse(range(1, 2).equals("1 - 2"));
+	}
+
+	private static boolean[] points(List<DateRange> ranges) {
+		boolean[] result = new boolean[150];
+		for (DateRange dr : ranges) {
+			for (long t = DateRanges.startMillis(dr); t < DateRanges
+					.finishMillis(dr); t++)
+				result[(int) t] = true;
+		}
+		return result;
+	}
+
+	private static void assertNormalized(List<DateRange> ranges) {
+		for (DateRange dr : ranges)
+			assertFalse(dr.isEmpty());
+		for (int i = 1; i < ranges.size(); i++)
+			assertTrue(DateRanges.finishMillis(ranges.get(i - 1)) < DateRanges
+					.startMillis(ranges.get(i)));
+	}
+
+	private static List<DateRange> randomRanges(Random random) {
+		List<DateRange> result = new ArrayList<>();
+		for (int i = random.nextInt(12); i > 0; i--) {
+			long start = random.nextInt(100);
+			result.add(range(start, start + random.nextInt(15) - 2));
+		}
+		return result;
+	}
+
+	@Test
+	public void testSetAlgebra() {
+		Random random = new Random(4713);
+		for (int k = 0; k < 2000; k++) {
+			List<DateRange> a = randomRanges(random);
+			List<DateRange> b = randomRanges(random);
+			if (k % 2 == 0)
+				Collections.sort(a);
+			long from = random.nextInt(100);
+			DateRange window = range(from, from + random.nextInt(30));
+			boolean[] p = points(a);
+			boolean[] q = points(b);
+			boolean[] w = points(Collections.singletonList(window));
+			List<DateRange> intersection = DateRanges.intersection(a, b);
+			List<DateRange> union = DateRanges.union(a, b);
+			List<DateRange> difference = DateRanges.difference(a, b);
+			List<DateRange> symmetric = DateRanges.symmetricDifference(a, b);
+			List<DateRange> complement = DateRanges.complement(a, window);
+			for (List<DateRange> result : Arrays.asList(intersection, union,
+					difference, symmetric, complement))
+				assertNormalized(result);
+			boolean[] i = points(intersection);
+			boolean[] u = points(union);
+			boolean[] d = points(difference);
+			boolean[] s = points(symmetric);
+			boolean[] c = points(complement);
+			for (int t = 0; t < p.length; t++) {
+				assertEquals(p[t] && q[t], i[t]);
+				assertEquals(p[t] || q[t], u[t]);
+				assertEquals(p[t] && !q[t], d[t]);
+				assertEquals(p[t] != q[t], s[t]);
+				assertEquals(w[t] && !p[t], c[t]);
+			}
+		}
+	}
+
+	@Test
+	public void testIntersectAndMinus() {
+		DateRange a = range(10, 20);
+		DateRange b = range(15, 30);
+		assertEquals(range(15, 20), DateRanges.intersect(a, b));
+		assertTrue(a == DateRanges.intersect(a, range(0, 40)));
+		assertTrue(a == DateRanges.intersect(range(0, 40), a));
+		// touching date ranges overlap, but their intersection is empty
+		assertTrue(a.overlaps(range(20, 30)));
+		assertEquals(null, DateRanges.intersect(a, range(20, 30)));
+		assertEquals(null, DateRanges.intersect(a, range(15, 15)));
+		assertEquals(Arrays.asList(range(10, 15)), DateRanges.minus(a, b));
+		assertEquals(Arrays.asList(range(20, 30)), DateRanges.minus(b, a));
+		assertEquals(Arrays.asList(range(10, 12), range(14, 20)),
+				DateRanges.minus(a, range(12, 14)));
+		assertTrue(a == DateRanges.minus(a, range(20, 30)).get(0));
+		assertTrue(DateRanges.minus(a, range(0, 40)).isEmpty());
+		assertTrue(DateRanges.minus(range(5, 5), range(0, 40)).isEmpty());
+	}
+}
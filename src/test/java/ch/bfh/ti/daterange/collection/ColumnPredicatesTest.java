@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * Tests for class ColumnPredicates and its kernels.
+ */
+public class ColumnPredicatesTest {
+
+	private static final long[] SPECIAL = { Long.MIN_VALUE,
+			Long.MIN_VALUE + 1, -1, 0, 1, Long.MAX_VALUE - 1, Long.MAX_VALUE };
+
+	private static long value(Random random) {
+		return random.nextInt(8) == 0 ? SPECIAL[random.nextInt(SPECIAL.length)]
+				: random.nextInt(100);
+	}
+
+	private static boolean bit(long[] mask, int i) {
+		return (mask[i >>> 6] >>> i & 1) != 0;
+	}
+
+	private static void check(ColumnKernel kernel, long[] starts,
+			long[] finishes, long arg, long windowStart, long windowFinish) {
+		int n = starts.length;
+		long[] includes = new long[ColumnPredicates.words(n)];
+		long[] overlaps = new long[includes.length];
+		long[] empty = new long[includes.length];
+		kernel.includes(starts, finishes, n, arg, includes);
+		kernel.overlaps(starts, finishes, n, windowStart, windowFinish,
+				overlaps);
+		kernel.isEmpty(starts, finishes, n, empty);
+		DateRangeImpl window = new DateRangeImpl(windowStart, windowFinish);
+		for (int i = 0; i < ColumnPredicates.words(n) << 6; i++) {
+			if (i >= n) {
+				assertEquals(false, bit(includes, i) | bit(overlaps, i)
+						| bit(empty, i));
+				continue;
+			}
+			DateRangeImpl dr = new DateRangeImpl(starts[i], finishes[i]);
+			assertEquals(dr.includes(arg), bit(includes, i));
+			assertEquals(dr.overlaps(window), bit(overlaps, i));
+			assertEquals(dr.isEmpty(), bit(empty, i));
+		}
+	}
+
+	/**
+	 * The vector profile sets the system property, so a mis-wired profile
+	 * fails here instead of testing the scalar kernel twice.
+	 */
+	@Test
+	public void testKernelSelection() {
+		boolean expected = Boolean.getBoolean("ch.bfh.ti.daterange.vectorized");
+		assertEquals(expected, ColumnPredicates.isVectorized());
+		assertEquals(expected, !(ColumnPredicates
+				.loadKernel() instanceof ScalarColumnKernel));
+	}
+
+	@Test
+	public void testAgreesWithDateRangeImpl() {
+		Random random = new Random(4711);
+		ColumnKernel loaded = ColumnPredicates.loadKernel();
+		for (int k = 0; k < 300; k++) {
+			int n = random.nextInt(300);
+			long[] starts = new long[n];
+			long[] finishes = new long[n];
+			for (int i = 0; i < n; i++) {
+				starts[i] = value(random);
+				finishes[i] = random.nextBoolean() ? starts[i] + random
+						.nextInt(20) : value(random);
+			}
+			long arg = value(random);
+			long windowStart = value(random);
+			long windowFinish = random.nextBoolean() ? windowStart + random
+					.nextInt(30) : value(random);
+			check(new ScalarColumnKernel(), starts, finishes, arg,
+					windowStart, windowFinish);
+			check(loaded, starts, finishes, arg, windowStart, windowFinish);
+		}
+	}
+
+	@Test
+	public void testMasks() {
+		long[] starts = new long[130];
+		long[] finishes = new long[130];
+		for (int i = 0; i < 130; i++) {
+			starts[i] = i;
+			finishes[i] = i + 10;
+		}
+		long[] mask = ColumnPredicates.includes(starts, finishes, 64);
+		assertEquals(11, ColumnPredicates.cardinality(mask));
+		assertArrayEquals(new int[] { 54, 55, 56, 57, 58, 59, 60, 61, 62, 63,
+				64 }, ColumnPredicates.toIndices(mask));
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, ColumnPredicates.toIndices(
+				ColumnPredicates.overlaps(starts, finishes, -5, 3)));
+		assertEquals(0, ColumnPredicates.cardinality(ColumnPredicates.isEmpty(
+				starts, finishes)));
+		finishes[129] = 129;
+		long[] empty = new long[3];
+		ColumnPredicates.isEmpty(starts, finishes, empty);
+		assertArrayEquals(new int[] { 129 }, ColumnPredicates.toIndices(empty));
+		assertThrows(IllegalArgumentException.class, () -> ColumnPredicates
+				.includes(starts, new long[3], 0));
+		assertThrows(IllegalArgumentException.class, () -> ColumnPredicates
+				.includes(starts, finishes, 0, new long[2]));
+	}
+}
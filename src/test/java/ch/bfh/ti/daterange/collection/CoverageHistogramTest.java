@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * Tests for class CoverageHistogram.
+ */
+public class CoverageHistogramTest {
+
+	private static List<DateRange> randomRanges(Random random, int n) {
+		List<DateRange> result = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			long start = random.nextInt(1200) - 100;
+			result.add(new DateRangeImpl(start, start + random.nextInt(80)
+					- 5));
+		}
+		return result;
+	}
+
+	@Test
+	public void testFixedWidth() {
+		Random random = new Random(4711);
+		List<DateRange> ranges = randomRanges(random, 2000);
+		CoverageHistogram histogram = CoverageHistogram.of(ranges, 0, 10, 100);
+		assertEquals(100, histogram.size());
+		long peak = 0;
+		int peakBucket = 0;
+		for (int b = 0; b < 100; b++) {
+			long expected = 0;
+			for (DateRange dr : ranges) {
+				long s = dr.getStart().getTime();
+				long f = dr.getFinish().getTime();
+				if (s <= f && s < 10 * b + 10 && f >= 10 * b)
+					expected++;
+			}
+			assertEquals(expected, histogram.getCount(b));
+			assertEquals(expected, histogram.getCountAt(10 * b + 9));
+			if (expected > peak) {
+				peak = expected;
+				peakBucket = b;
+			}
+		}
+		assertEquals(peak, histogram.getPeak());
+		assertEquals(peakBucket, histogram.getPeakBucket());
+		assertEquals(10 * peakBucket, histogram.getPeakDate().getTime());
+		assertEquals(0, histogram.getCountAt(-1));
+		assertEquals(0, histogram.getCountAt(1000));
+		assertArrayEquals(histogram.toArray(), CoverageHistogram.of(
+				ranges.parallelStream(), 0, 10, 100).toArray());
+	}
+
+	@Test
+	public void testDays() {
+		Random random = new Random(4712);
+		List<DateRange> ranges = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			int day = random.nextInt(400) - 20;
+			ranges.add(new DateRangeImpl(DateFactory.createDate(2006, 0, day),
+					DateFactory.createDate(2006, 0, day + random.nextInt(30)
+							- 2)));
+		}
+		DateRange year = new DateRangeImpl(DateFactory.createDate(2006, 0, 1),
+				DateFactory.createDate(2006, 11, 31));
+		CoverageHistogram histogram = CoverageHistogram.ofDays(ranges, year);
+		assertEquals(365, histogram.size());
+		for (int i = 0; i < 365; i++) {
+			Date d = DateFactory.createDate(2006, 0, 1 + i);
+			long expected = 0;
+			for (DateRange dr : ranges)
+				expected += dr.includes(d) ? 1 : 0;
+			assertEquals(expected, histogram.getCount(i));
+			assertEquals(d.getTime(), histogram.getBucketMillis(i));
+		}
+		assertArrayEquals(histogram.toArray(), CoverageHistogram.ofDays(
+				ranges.parallelStream(), year).toArray());
+	}
+
+	@Test
+	public void testOpenEnded() {
+		List<DateRange> ranges = Arrays.asList(new DateRangeImpl(
+				Long.MIN_VALUE, Long.MAX_VALUE), new DateRangeImpl(1000, 1005),
+				new DateRangeImpl(Long.MIN_VALUE, 1000), new DateRangeImpl(
+						1025, Long.MAX_VALUE));
+		assertArrayEquals(new long[] { 3, 1, 2 }, CoverageHistogram.of(ranges,
+				1000, 10, 3).toArray());
+		assertArrayEquals(new long[] { 2, 2, 4 }, CoverageHistogram.of(ranges,
+				Long.MIN_VALUE + 1000, Long.MAX_VALUE / 2, 3).toArray());
+		DateRange year = new DateRangeImpl(DateFactory.createDate(2006, 0, 1),
+				DateFactory.createDate(2006, 11, 31));
+		CoverageHistogram days = CoverageHistogram.ofDays(Arrays.asList(
+				new DateRangeImpl(Long.MIN_VALUE, Long.MAX_VALUE),
+				new DateRangeImpl(Long.MIN_VALUE, DateFactory.createDate(2006,
+						0, 10).getTime())), year);
+		assertEquals(2, days.getCount(0));
+		assertEquals(2, days.getCount(9));
+		assertEquals(1, days.getCount(10));
+		assertEquals(1, days.getCount(364));
+	}
+
+	@Test
+	public void testEmpty() {
+		CoverageHistogram histogram = CoverageHistogram.of(Collections
+				.<DateRange>emptyList(), 0, 10, 0);
+		assertEquals(0, histogram.getPeak());
+		assertEquals(-1, histogram.getPeakBucket());
+		assertNull(histogram.getPeakDate());
+		assertThrows(IllegalArgumentException.class, () -> CoverageHistogram
+				.of(Collections.<DateRange>emptyList(), 0, 0, 10));
+		assertThrows(IllegalArgumentException.class, () -> CoverageHistogram
+				.ofDays(Collections.<DateRange>emptyList(), new DateRangeImpl(
+						10, 0)));
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.impl.pojo.DateRangeImpl;
+
+/**
+ * Tests for class DateRangeIndex. The results of the index are compared with
+ * the ones of a linear scan using the DateRange predicates.
+ */
+public class DateRangeIndexTest {
+
+	private static List<DateRange> randomRanges(Random random, int n) {
+		List<DateRange> result = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			int day = random.nextInt(365);
+			int length = random.nextInt(30) - 2;
+			result.add(new DateRangeImpl(DateFactory.createDate(2006, 0, day),
+					DateFactory.createDate(2006, 0, day + length)));
+		}
+		return result;
+	}
+
+	@Test
+	public void testStab() {
+		Random random = new Random(4711);
+		List<DateRange> ranges = randomRanges(random, 1000);
+		DateRangeIndex index = new DateRangeIndex(ranges);
+		assertEquals(1000, index.size());
+		for (int day = -5; day < 400; day++) {
+			java.util.Date d = DateFactory.createDate(2006, 0, day);
+			Set<DateRange> expected = new HashSet<>();
+			for (DateRange dr : ranges)
+				if (dr.includes(d))
+					expected.add(dr);
+			assertEquals(expected, new HashSet<>(index.stab(d)));
+		}
+	}
+
+	@Test
+	public void testOverlappingAndContainedIn() {
+		Random random = new Random(815);
+		List<DateRange> ranges = randomRanges(random, 1000);
+		DateRangeIndex index = new DateRangeIndex(ranges);
+		for (DateRange window : randomRanges(random, 300)) {
+			Set<DateRange> overlapping = new HashSet<>();
+			Set<DateRange> contained = new HashSet<>();
+			for (DateRange dr : ranges) {
+				if (dr.overlaps(window))
+					overlapping.add(dr);
+				if (window.includes(dr))
+					contained.add(dr);
+			}
+			assertEquals(overlapping, new HashSet<>(index.overlapping(window)));
+			assertEquals(contained, new HashSet<>(index.containedIn(window)));
+		}
+	}
+
+	@Test
+	public void testEmptyIndex() {
+		DateRangeIndex index = new DateRangeIndex(new ArrayList<DateRange>());
+		assertEquals(0, index.size());
+		assertEquals(0, index.stab(DateFactory.getToday()).size());
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateRange;
+
+/**
+ * Tests for class DateRangeList.
+ */
+public class DateRangeListTest {
+
+	private long[][] randomColumns(Random random, int n) {
+		long[] starts = new long[n];
+		long[] finishes = new long[n];
+		for (int i = 0; i < n; i++) {
+			starts[i] = random.nextInt(1000000);
+			finishes[i] = starts[i] + random.nextInt(1000);
+		}
+		return new long[][] { starts, finishes };
+	}
+
+	private void assertColumns(long[][] columns, DateRangeList list) {
+		assertEquals(columns[0].length, list.size());
+		for (int i = 0; i < list.size(); i++) {
+			assertEquals(columns[0][i], list.getStartMillis(i));
+			assertEquals(columns[1][i], list.getFinishMillis(i));
+			DateRange dr = list.get(i);
+			assertEquals(columns[0][i], dr.getStart().getTime());
+			assertEquals(columns[1][i], dr.getFinish().getTime());
+		}
+	}
+
+	@Test
+	public void testArrays() {
+		long[][] columns = randomColumns(new Random(4711), 1000);
+		long[][] copy = { columns[0].clone(), columns[1].clone() };
+		DateRangeList list = DateRangeList.of(columns[0], columns[1]);
+		columns[0][0] = -1;
+		assertColumns(copy, list);
+		assertColumns(copy,
+				DateRangeList.ofParallel(copy[0], copy[1]));
+	}
+
+	@Test
+	public void testStream() {
+		long[][] columns = randomColumns(new Random(4712), 1000);
+		LongStream pairs = LongStream.range(0, 2000).map(
+				i -> columns[(int) (i % 2)][(int) (i / 2)]);
+		assertColumns(columns, DateRangeList.of(pairs));
+		assertThrows(IllegalArgumentException.class,
+				() -> DateRangeList.of(LongStream.of(1, 2, 3)));
+	}
+
+	@Test
+	public void testSink() {
+		long[][] columns = randomColumns(new Random(4713), 1000);
+		DateRangeList list = DateRangeList.of(sink -> {
+			for (int i = 0; i < columns[0].length; i++)
+				sink.accept(columns[0][i], columns[1][i]);
+		});
+		assertColumns(columns, list);
+		long[][] copy = new long[2][list.size()];
+		int[] n = new int[1];
+		list.forEach((start, finish) -> {
+			copy[0][n[0]] = start;
+			copy[1][n[0]++] = finish;
+		});
+		assertColumns(copy, list);
+	}
+
+	@Test
+	public void testValidation() {
+		long[] starts = { 1, 5, 9, 7 };
+		long[] finishes = { 2, 5, 8, 6 };
+		IllegalArgumentException e = assertThrows(
+				IllegalArgumentException.class,
+				() -> DateRangeList.of(starts, finishes));
+		assertEquals("Start after finish of date range at index 2: 9 > 8",
+				e.getMessage());
+		e = assertThrows(IllegalArgumentException.class,
+				() -> DateRangeList.ofParallel(starts, finishes));
+		assertEquals("Start after finish of date range at index 2: 9 > 8",
+				e.getMessage());
+		assertThrows(IllegalArgumentException.class,
+				() -> DateRangeList.of(new long[1], new long[2]));
+		assertThrows(IllegalArgumentException.class,
+				() -> DateRangeList.of(sink -> sink.accept(2, 1)));
+		assertThrows(IndexOutOfBoundsException.class,
+				() -> DateRangeList.of(starts, starts).get(4));
+	}
+
+	@Test
+	public void testToSet() {
+		DateRangeList list = DateRangeList.of(new long[] { 5, 1, 5 },
+				new long[] { 6, 2, 6 });
+		DateRangeSet set = list.toSet();
+		assertEquals(2, set.size());
+		assertEquals(1, set.getStartMillis(0));
+		assertEquals(5, set.getStartMillis(1));
+		assertEquals(3, list.size());
+	}
+}
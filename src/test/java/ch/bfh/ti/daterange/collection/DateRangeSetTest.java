@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.AllenRelation;
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeFactory;
+
+/**
+ * Tests for class DateRangeSet.
+ */
+public class DateRangeSetTest {
+
+	private final DateRangeFactory factory =
+			new ch.bfh.ti.daterange.impl.primitive.DateRangeFactory();
+
+	private List<DateRange> randomRanges(Random random, int n) {
+		List<DateRange> result = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			int day = random.nextInt(365);
+			int length = random.nextInt(30) - 2;
+			result.add(factory.createDateRange(
+					DateFactory.createDate(2006, 0, day),
+					DateFactory.createDate(2006, 0, day + length)));
+		}
+		return result;
+	}
+
+	@Test
+	public void testOrderAndDuplicates() {
+		List<DateRange> ranges = randomRanges(new Random(4711), 2000);
+		DateRangeSet set = new DateRangeSet(ranges);
+		List<DateRange> expected = new ArrayList<>(new TreeSet<>(ranges));
+		assertEquals(expected.size(), set.size());
+		int i = 0;
+		for (DateRange dr : set) {
+			assertEquals(0, expected.get(i).compareTo(dr));
+			assertEquals(expected.get(i), set.get(i));
+			i++;
+		}
+		assertEquals(expected.size(), i);
+		assertTrue(set.contains(ranges.get(17)));
+	}
+
+	@Test
+	public void testIncludesAndOverlaps() {
+		Random random = new Random(815);
+		List<DateRange> ranges = randomRanges(random, 300);
+		DateRangeSet set = new DateRangeSet(ranges);
+		for (int day = -5; day < 400; day++) {
+			Date d = DateFactory.createDate(2006, 0, day);
+			boolean expected = false;
+			for (DateRange dr : ranges)
+				expected |= dr.includes(d);
+			assertEquals(expected, set.includes(d));
+		}
+		for (DateRange window : randomRanges(random, 300)) {
+			boolean expected = false;
+			for (DateRange dr : ranges)
+				expected |= dr.overlaps(window);
+			assertEquals(expected, set.overlaps(window));
+		}
+	}
+
+	@Test
+	public void testRangeBoundedIteration() {
+		long[] starts = { 30, 10, 20, 20, 40 };
+		long[] finishes = { 35, 15, 25, 22, 45 };
+		DateRangeSet set = new DateRangeSet(starts, finishes);
+		Iterator<DateRange> it = set.iterator(20, 30);
+		DateRange first = it.next();
+		assertEquals(20, first.getStart().getTime());
+		assertEquals(22, first.getFinish().getTime());
+		assertSame(first, it.next());
+		assertEquals(25, first.getFinish().getTime());
+		assertEquals(30, it.next().getStart().getTime());
+		assertFalse(it.hasNext());
+		assertFalse(set.iterator(46, 50).hasNext());
+		assertFalse(set.includes(5L));
+	}
+
+	@Test
+	public void testRelate() {
+		Random random = new Random(4713);
+		for (int k = 0; k < 200; k++) {
+			int n = random.nextInt(50);
+			long[] starts = new long[n];
+			long[] finishes = new long[n];
+			boolean inverted = k % 2 == 0;
+			for (int i = 0; i < n; i++) {
+				starts[i] = random.nextInt(40);
+				finishes[i] = starts[i] + random.nextInt(10)
+						- (inverted ? 2 : 0);
+			}
+			DateRangeSet set = new DateRangeSet(starts, finishes);
+			for (int j = 0; j < 20; j++) {
+				long start = random.nextInt(40);
+				long finish = start + random.nextInt(15) - 2;
+				DateRange dr = new ch.bfh.ti.daterange.impl.primitive
+						.DateRangeImpl(start, finish);
+				AllenRelation[] relations = set.relate(dr);
+				assertEquals(set.size(), relations.length);
+				for (int i = 0; i < set.size(); i++)
+					assertEquals(dr.relate(set.get(i)), relations[i]);
+			}
+		}
+	}
+
+	@Test
+	public void testCursorEquality() {
+		DateRangeSet set = new DateRangeSet(new long[] { 10, 20 },
+				new long[] { 15, 25 });
+		Iterator<DateRange> it = set.iterator();
+		DateRange cursor = it.next();
+		DateRange copy = new ch.bfh.ti.daterange.impl.primitive.DateRangeImpl(
+				10, 15);
+		DateRange pojo = new ch.bfh.ti.daterange.impl.pojo.DateRangeImpl(
+				new Date(10), new Date(15));
+		assertEquals(copy, cursor);
+		assertEquals(cursor, copy);
+		assertEquals(cursor, pojo);
+		assertEquals(pojo, cursor);
+		assertEquals(copy.hashCode(), cursor.hashCode());
+		assertEquals(pojo.hashCode(), cursor.hashCode());
+		assertEquals(0, cursor.compareTo(pojo));
+		assertFalse(cursor.equals(it.next().toString()));
+	}
+
+	@Test
+	public void testCursorSerialization() throws Exception {
+		DateRangeSet set = new DateRangeSet(new long[] { 10 },
+				new long[] { 15 });
+		DateRange cursor = set.iterator().next();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(cursor);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray()))) {
+			Object copy = in.readObject();
+			assertTrue(copy instanceof ch.bfh.ti.daterange.impl.primitive
+					.DateRangeImpl);
+			assertEquals(cursor, copy);
+		}
+	}
+
+	@Test
+	public void testColumnLengthMismatch() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new DateRangeSet(new long[2], new long[3]));
+	}
+}
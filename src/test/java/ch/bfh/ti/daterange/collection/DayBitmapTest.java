@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeFactory;
+import ch.bfh.ti.daterange.DateRanges;
+
+/**
+ * Tests for class DayBitmap.
+ */
+public class DayBitmapTest {
+
+	private final DateRangeFactory factory =
+			new ch.bfh.ti.daterange.impl.primitive.DateRangeFactory();
+
+	/**
+	 * Creates date ranges from 1901 up to 2250, crossing the chunks at
+	 * epoch days -65536, 0 and 65536. Some are long enough to fill bitmap
+	 * chunks.
+	 */
+	private List<DateRange> randomRanges(Random random, int n, int maxLength) {
+		List<DateRange> result = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			int year = 1901 + random.nextInt(350);
+			int day = random.nextInt(365);
+			int length = random.nextInt(maxLength) - 1;
+			result.add(factory.createDateRange(
+					DateFactory.createDate(year, 0, day),
+					DateFactory.createDate(year, 0, day + length)));
+		}
+		return result;
+	}
+
+	private static TreeSet<Long> days(List<DateRange> ranges) {
+		TreeSet<Long> result = new TreeSet<>();
+		for (DateRange dr : ranges) {
+			long last = DateFactory.toEpochDay(dr.getFinish().getTime());
+			for (long d = DateFactory.toEpochDay(dr.getStart().getTime()); d <= last; d++)
+				result.add(d);
+		}
+		return result;
+	}
+
+	private static TreeSet<Long> days(DayBitmap bitmap) {
+		TreeSet<Long> result = new TreeSet<>();
+		bitmap.forEachDay(result::add);
+		return result;
+	}
+
+	@Test
+	public void testConversions() {
+		Random random = new Random(4711);
+		for (int maxLength : new int[] { 10, 400, 20000 }) {
+			List<DateRange> ranges = randomRanges(random, 300, maxLength);
+			TreeSet<Long> expected = days(ranges);
+			DayBitmap bitmap = DayBitmap.of(ranges);
+			assertEquals(expected.size(), bitmap.cardinality());
+			assertEquals(expected, days(bitmap));
+			for (int k = 0; k < 1000; k++) {
+				long day = DateFactory.toEpochDay(1900 + random.nextInt(360),
+						0, random.nextInt(365));
+				assertEquals(expected.contains(day), bitmap.includesDay(day));
+				assertEquals(expected.contains(day), bitmap.includes(
+						new java.util.Date(DateFactory.fromEpochDay(day))));
+			}
+			List<DateRange> runs = bitmap.toDateRanges(factory);
+			assertEquals(expected, days(runs));
+			for (int i = 1; i < runs.size(); i++) {
+				assertTrue(DateFactory.toEpochDay(runs.get(i).getStart()
+						.getTime()) > DateFactory.toEpochDay(runs.get(i - 1)
+						.getFinish().getTime()) + 1);
+			}
+			assertEquals(bitmap, DayBitmap.of(runs));
+		}
+	}
+
+	@Test
+	public void testSingleDay() {
+		long day = DateFactory.toEpochDay(2006, 0, 10);
+		DayBitmap bitmap = DayBitmap.ofEpochDays(day, day).or(
+				DayBitmap.ofEpochDays(day + 2, day + 3));
+		List<DateRange> runs = bitmap.toDateRanges(factory);
+		assertEquals(2, runs.size());
+		DateRange single = runs.get(0);
+		assertFalse(single.isEmpty());
+		assertEquals(day, DateFactory.toEpochDay(single.getStart().getTime()));
+		assertEquals(day, DateFactory.toEpochDay(single.getFinish().getTime()));
+		assertEquals(day - 1, DateFactory.toEpochDay(single.getStart()
+				.getTime() - 1));
+		assertEquals(day + 1, DateFactory.toEpochDay(single.getFinish()
+				.getTime() + 1));
+		assertEquals(runs, DateRanges.coalesce(runs, false));
+		assertEquals(runs, DateRanges.union(runs, runs));
+		assertEquals(runs, DateRanges.intersection(runs, runs));
+		assertEquals(bitmap, DayBitmap.of(runs));
+	}
+
+	@Test
+	public void testAlgebra() {
+		Random random = new Random(4712);
+		int[] lengths = { 10, 400, 20000 };
+		for (int a : lengths) {
+			for (int b : lengths) {
+				List<DateRange> left = randomRanges(random, 200, a);
+				List<DateRange> right = randomRanges(random, 200, b);
+				DayBitmap l = DayBitmap.of(left);
+				DayBitmap r = DayBitmap.of(right);
+				TreeSet<Long> and = days(left);
+				and.retainAll(days(right));
+				TreeSet<Long> or = days(left);
+				or.addAll(days(right));
+				TreeSet<Long> andNot = days(left);
+				andNot.removeAll(days(right));
+				assertEquals(and, days(l.and(r)));
+				assertEquals(and.size(), l.and(r).cardinality());
+				assertEquals(or, days(l.or(r)));
+				assertEquals(or.size(), l.or(r).cardinality());
+				assertEquals(andNot, days(l.andNot(r)));
+				assertEquals(andNot.size(), l.andNot(r).cardinality());
+				assertEquals(l.and(r), r.and(l));
+				assertEquals(l.or(r).hashCode(), r.or(l).hashCode());
+				assertTrue(l.andNot(l).isEmpty());
+			}
+		}
+	}
+
+	@Test
+	public void testEpochDays() {
+		DayBitmap bitmap = DayBitmap.ofEpochDays(-70000, 70000);
+		assertEquals(140001, bitmap.cardinality());
+		assertTrue(bitmap.includesDay(-70000));
+		assertTrue(bitmap.includesDay(70000));
+		assertFalse(bitmap.includesDay(70001));
+		assertEquals(DayBitmap.EMPTY, DayBitmap.ofEpochDays(1, 0));
+		assertEquals(DayBitmap.ofEpochDays(5, 5), bitmap.and(DayBitmap
+				.ofEpochDays(5, 5)));
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeFactory;
+
+/**
+ * Tests for class OverlapJoin.
+ */
+public class OverlapJoinTest {
+
+	private List<DateRange> randomRanges(DateRangeFactory factory,
+			Random random, int n) {
+		List<DateRange> result = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			int day = random.nextInt(365);
+			int length = random.nextInt(30) - 2;
+			result.add(factory.createDateRange(
+					DateFactory.createDate(2006, 0, day),
+					DateFactory.createDate(2006, 0, day + length)));
+		}
+		return result;
+	}
+
+	private static Map<DateRange, Integer> positions(List<DateRange> ranges) {
+		Map<DateRange, Integer> result = new IdentityHashMap<>();
+		for (int i = 0; i < ranges.size(); i++)
+			result.put(ranges.get(i), i);
+		return result;
+	}
+
+	private static List<Long> expected(List<DateRange> left,
+			List<DateRange> right) {
+		List<Long> result = new ArrayList<>();
+		for (int i = 0; i < left.size(); i++) {
+			for (int j = 0; j < right.size(); j++) {
+				if (left.get(i).overlaps(right.get(j)))
+					result.add((long) i << 32 | j);
+			}
+		}
+		return result;
+	}
+
+	private static List<Long> actual(List<DateRange> left,
+			List<DateRange> right, boolean parallel) {
+		Map<DateRange, Integer> l = positions(left);
+		Map<DateRange, Integer> r = positions(right);
+		List<Long> result = Collections.synchronizedList(new ArrayList<>());
+		if (parallel)
+			OverlapJoin.joinParallel(left, right, (a, b) -> result
+					.add((long) l.get(a) << 32 | r.get(b)));
+		else
+			OverlapJoin.join(left, right, (a, b) -> result
+					.add((long) l.get(a) << 32 | r.get(b)));
+		Collections.sort(result);
+		return result;
+	}
+
+	private void assertJoin(List<DateRange> left, List<DateRange> right) {
+		List<Long> expected = expected(left, right);
+		assertEquals(expected, actual(left, right, false));
+		assertEquals(expected, actual(left, right, true));
+	}
+
+	@Test
+	public void testJoinPrimitive() {
+		DateRangeFactory factory =
+				new ch.bfh.ti.daterange.impl.primitive.DateRangeFactory();
+		Random random = new Random(4711);
+		assertJoin(randomRanges(factory, random, 1500),
+				randomRanges(factory, random, 1000));
+	}
+
+	@Test
+	public void testJoinMixed() {
+		Random random = new Random(4712);
+		assertJoin(
+				randomRanges(
+						new ch.bfh.ti.daterange.impl.pojo.DateRangeFactory(),
+						random, 700),
+				randomRanges(
+						new ch.bfh.ti.daterange.impl.primitive.DateRangeFactory(),
+						random, 2000));
+	}
+
+	/**
+	 * Compares the parallel join with the sequential one on date ranges of
+	 * which some span many slabs, so that every slab starts with open date
+	 * ranges of both sides.
+	 */
+	@Test
+	public void testLongRangesAcrossSlabs() {
+		Random random = new Random(4714);
+		List<List<DateRange>> sides = new ArrayList<>();
+		for (int side = 0; side < 2; side++) {
+			List<DateRange> ranges = new ArrayList<>();
+			for (int i = 0; i < 5000; i++) {
+				long start = random.nextInt(1000000);
+				long length = random.nextInt(50) == 0 ? random.nextInt(1000000)
+						: random.nextInt(100);
+				ranges.add(new ch.bfh.ti.daterange.impl.primitive.DateRangeImpl(
+						start, start + length));
+			}
+			sides.add(ranges);
+		}
+		List<Long> expected = actual(sides.get(0), sides.get(1), false);
+		assertEquals(expected, actual(sides.get(0), sides.get(1), true));
+		assertEquals(expected(sides.get(0), sides.get(1)).size(),
+				expected.size());
+	}
+
+	@Test
+	public void testEmptyAndSingle() {
+		DateRangeFactory factory =
+				new ch.bfh.ti.daterange.impl.primitive.DateRangeFactory();
+		List<DateRange> one = randomRanges(factory, new Random(4713), 1);
+		assertJoin(one, new ArrayList<>());
+		assertJoin(new ArrayList<>(), one);
+		assertJoin(one, one);
+	}
+}
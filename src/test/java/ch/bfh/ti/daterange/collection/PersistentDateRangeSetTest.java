@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * Tests for class PersistentDateRangeSet.
+ */
+public class PersistentDateRangeSetTest {
+
+	private static DateRange randomRange(Random random) {
+		long start = random.nextInt(500);
+		return new DateRangeImpl(start, start + random.nextInt(20));
+	}
+
+	private static List<DateRange> toList(Iterable<DateRange> ranges) {
+		List<DateRange> result = new ArrayList<>();
+		for (DateRange dr : ranges)
+			result.add(dr);
+		return result;
+	}
+
+	private static void assertSameContent(TreeSet<DateRange> expected,
+			PersistentDateRangeSet set, Random random) {
+		assertEquals(expected.size(), set.size());
+		assertEquals(new ArrayList<>(expected), toList(set));
+		for (int k = 0; k < 20; k++) {
+			long t = random.nextInt(540) - 10;
+			boolean includes = false;
+			for (DateRange dr : expected)
+				includes |= dr.includes(new java.util.Date(t));
+			assertEquals(includes, set.includes(t));
+			long start = random.nextInt(540) - 10;
+			DateRange window = new DateRangeImpl(start, start
+					+ random.nextInt(30) - 5);
+			List<DateRange> overlapping = new ArrayList<>();
+			for (DateRange dr : expected) {
+				if (dr.overlaps(window))
+					overlapping.add(dr);
+			}
+			assertEquals(!overlapping.isEmpty(), set.overlaps(window));
+			List<DateRange> reported = new ArrayList<>();
+			set.overlapping(window.getStart().getTime(), window.getFinish()
+					.getTime(), (s, f) -> reported.add(new DateRangeImpl(s,
+							f)));
+			assertEquals(overlapping, reported);
+		}
+	}
+
+	@Test
+	public void testRandomVersions() {
+		Random random = new Random(4711);
+		TreeSet<DateRange> model = new TreeSet<>();
+		PersistentDateRangeSet set = PersistentDateRangeSet.EMPTY;
+		List<PersistentDateRangeSet> versions = new ArrayList<>();
+		List<TreeSet<DateRange>> models = new ArrayList<>();
+		for (int k = 0; k < 3000; k++) {
+			DateRange dr = randomRange(random);
+			if (random.nextInt(3) == 0) {
+				DateRange victim = model.isEmpty() || random.nextBoolean() ? dr
+						: model.ceiling(dr);
+				if (victim == null)
+					victim = dr;
+				PersistentDateRangeSet next = set.remove(victim);
+				assertEquals(model.remove(victim), next != set);
+				set = next;
+			} else {
+				PersistentDateRangeSet next = set.add(dr);
+				assertEquals(model.add(dr), next != set);
+				set = next;
+			}
+			assertEquals(model.contains(dr), set.contains(dr));
+			if (k % 300 == 0) {
+				versions.add(set);
+				models.add(new TreeSet<>(model));
+			}
+		}
+		for (int i = 0; i < versions.size(); i++)
+			assertSameContent(models.get(i), versions.get(i), random);
+		assertSameContent(model, set, random);
+		assertEquals(toList(set), toList(PersistentDateRangeSet.of(model)));
+	}
+
+	@Test
+	public void testEmptyAndInverted() {
+		PersistentDateRangeSet set = PersistentDateRangeSet.EMPTY;
+		assertTrue(set.isEmpty());
+		assertFalse(set.includes(0));
+		assertFalse(set.iterator().hasNext());
+		assertSame(set, set.remove(new DateRangeImpl(1, 2)));
+		assertThrows(IllegalArgumentException.class, () -> set.add(5, 4));
+		PersistentDateRangeSet one = set.add(1, 2);
+		assertSame(one, one.add(new DateRangeImpl(1, 2)));
+		assertTrue(set.isEmpty());
+	}
+
+	@Test
+	public void testConcurrentSnapshots() throws InterruptedException {
+		AtomicReference<PersistentDateRangeSet> current = new AtomicReference<>(
+				PersistentDateRangeSet.EMPTY);
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicBoolean failed = new AtomicBoolean();
+		List<Thread> readers = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Thread reader = new Thread(() -> {
+				while (!done.get()) {
+					PersistentDateRangeSet snapshot = current.get();
+					int n = 0;
+					long previous = Long.MIN_VALUE;
+					for (DateRange dr : snapshot) {
+						long start = dr.getStart().getTime();
+						if (start < previous || !snapshot.includes(start))
+							failed.set(true);
+						previous = start;
+						n++;
+					}
+					if (n != snapshot.size())
+						failed.set(true);
+				}
+			});
+			reader.start();
+			readers.add(reader);
+		}
+		Random random = new Random(4712);
+		for (int k = 0; k < 20000; k++) {
+			DateRange dr = randomRange(random);
+			current.updateAndGet(s -> random.nextInt(3) == 0 ? s.remove(dr)
+					: s.add(dr));
+		}
+		done.set(true);
+		for (Thread reader : readers)
+			reader.join();
+		assertFalse(failed.get());
+	}
+}
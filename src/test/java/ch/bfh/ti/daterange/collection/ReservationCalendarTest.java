@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * Tests for class ReservationCalendar.
+ */
+public class ReservationCalendarTest {
+
+	@Test
+	public void testReserveAndCancel() {
+		ReservationCalendar calendar = new ReservationCalendar(10, 4);
+		DateRange a = new DateRangeImpl(10, 20);
+		assertTrue(calendar.tryReserve(a));
+		assertFalse(calendar.tryReserve(new DateRangeImpl(20, 30)));
+		assertFalse(calendar.tryReserve(new DateRangeImpl(0, 10)));
+		assertFalse(calendar.tryReserve(new DateRangeImpl(12, 13)));
+		assertFalse(calendar.tryReserve(new DateRangeImpl(0, 1000)));
+		assertTrue(calendar.tryReserve(new DateRangeImpl(21, 30)));
+		assertTrue(calendar.tryReserve(new DateRangeImpl(0, 9)));
+		assertSame(a, calendar.getConflict(new DateRangeImpl(15, 15)));
+		assertSame(a, calendar.getConflict(new DateRangeImpl(16, 14)));
+		assertTrue(calendar.isFree(new DateRangeImpl(31, 1000)));
+		assertEquals(3, calendar.size());
+		assertFalse(calendar.cancel(new DateRangeImpl(10, 19)));
+		assertTrue(calendar.cancel(new DateRangeImpl(10, 20)));
+		assertTrue(calendar.tryReserve(new DateRangeImpl(12, 13)));
+		assertEquals(3, calendar.getReservations().size());
+		assertThrows(IllegalArgumentException.class,
+				() -> calendar.tryReserve(new DateRangeImpl(5, 4)));
+	}
+
+	@Test
+	public void testOpenEnded() {
+		ReservationCalendar calendar = new ReservationCalendar(1, 4);
+		DateRange all = new DateRangeImpl(Long.MIN_VALUE, Long.MAX_VALUE);
+		assertTrue(calendar.tryReserve(all));
+		assertFalse(calendar.tryReserve(new DateRangeImpl(2, 4)));
+		assertTrue(calendar.cancel(all));
+		assertTrue(calendar.tryReserve(new DateRangeImpl(3, 4)));
+		assertTrue(calendar.tryReserve(new DateRangeImpl(5, Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void testStress() throws Exception {
+		ReservationCalendar calendar = new ReservationCalendar(100, 16);
+		int threads = 8;
+		int attempts = 20000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger reserved = new AtomicInteger();
+		List<Future<List<DateRange>>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			long seed = 4711 + t;
+			futures.add(executor.submit(() -> {
+				Random random = new Random(seed);
+				List<DateRange> rejected = new ArrayList<>();
+				start.await();
+				for (int i = 0; i < attempts; i++) {
+					long s = random.nextInt(200000);
+					long length = random.nextInt(10) == 0 ? random
+							.nextInt(2000) : random.nextInt(100);
+					DateRange dr = new DateRangeImpl(s, s + length);
+					if (calendar.tryReserve(dr))
+						reserved.incrementAndGet();
+					else
+						rejected.add(dr);
+				}
+				return rejected;
+			}));
+		}
+		start.countDown();
+		List<DateRange> rejected = new ArrayList<>();
+		for (Future<List<DateRange>> f : futures)
+			rejected.addAll(f.get());
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+		List<DateRange> reservations = calendar.getReservations();
+		assertEquals(reserved.get(), reservations.size());
+		assertFalse(reservations.isEmpty());
+		assertFalse(rejected.isEmpty());
+		for (int i = 1; i < reservations.size(); i++)
+			assertFalse(reservations.get(i - 1).overlaps(reservations.get(i)));
+		for (DateRange dr : reservations)
+			assertSame(dr, calendar.getConflict(dr));
+		ReservationCalendar replay = new ReservationCalendar();
+		for (DateRange dr : reservations)
+			assertTrue(replay.tryReserve(dr));
+		for (DateRange dr : rejected)
+			assertNotNull(calendar.getConflict(dr));
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * Tests for class SlotFinder.
+ */
+public class SlotFinderTest {
+
+	private static DateRangeSet calendar(Random random) {
+		int n = random.nextInt(15);
+		long[] starts = new long[n];
+		long[] finishes = new long[n];
+		for (int i = 0; i < n; i++) {
+			starts[i] = random.nextInt(220) - 10;
+			finishes[i] = starts[i] + random.nextInt(20) - 2;
+		}
+		return new DateRangeSet(starts, finishes);
+	}
+
+	private static boolean isFree(DateRangeSet calendar, long start,
+			long finish) {
+		for (int i = 0; i < calendar.size(); i++) {
+			long s = calendar.getStartMillis(i);
+			long f = calendar.getFinishMillis(i);
+			if (s <= f && s <= finish && start <= f)
+				return false;
+		}
+		return true;
+	}
+
+	private static List<DateRange> bruteForce(List<DateRangeSet> calendars,
+			long from, long to, long duration, int required, int limit) {
+		List<DateRange> result = new ArrayList<>();
+		long s = from;
+		while (s + duration <= to && result.size() < limit) {
+			int free = 0;
+			for (DateRangeSet calendar : calendars) {
+				if (isFree(calendar, s, s + duration))
+					free++;
+			}
+			if (free >= required) {
+				result.add(new DateRangeImpl(s, s + duration));
+				s += duration + 1;
+			} else {
+				s++;
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testRandom() {
+		Random random = new Random(4711);
+		for (int k = 0; k < 500; k++) {
+			List<DateRangeSet> calendars = new ArrayList<>();
+			for (int i = random.nextInt(6) + 1; i > 0; i--)
+				calendars.add(calendar(random));
+			SlotFinder finder = new SlotFinder(calendars);
+			long from = random.nextInt(100);
+			long to = from + random.nextInt(120);
+			long duration = random.nextInt(12);
+			int required = random.nextInt(calendars.size()) + 1;
+			int limit = random.nextInt(8);
+			assertEquals(bruteForce(calendars, from, to, duration, required,
+					limit), finder.find(new DateRangeImpl(from, to), duration,
+					required, limit));
+		}
+	}
+
+	@Test
+	public void testParallel() {
+		Random random = new Random(4712);
+		List<SlotFinder> groups = new ArrayList<>();
+		for (int g = 0; g < 50; g++) {
+			List<DateRangeSet> calendars = new ArrayList<>();
+			for (int i = 0; i < 4; i++)
+				calendars.add(calendar(random));
+			groups.add(new SlotFinder(calendars));
+		}
+		DateRange window = new DateRangeImpl(0, 200);
+		List<DateRangeList> slots = SlotFinder.findParallel(groups, window, 5,
+				3, 4);
+		assertEquals(groups.size(), slots.size());
+		for (int g = 0; g < groups.size(); g++)
+			assertEquals(groups.get(g).find(window, 5, 3, 4), slots.get(g));
+	}
+
+	@Test
+	public void testExample() {
+		DateRangeSet alice = new DateRangeSet(new long[] { 0, 40 },
+				new long[] { 20, 60 });
+		DateRangeSet bob = new DateRangeSet(new long[] { 10 },
+				new long[] { 45 });
+		SlotFinder finder = new SlotFinder(Arrays.asList(alice, bob));
+		DateRange window = new DateRangeImpl(0, 100);
+		assertEquals(Arrays.asList(new DateRangeImpl(61, 71),
+				new DateRangeImpl(72, 82), new DateRangeImpl(83, 93)), finder
+				.find(window, 10, 2, 5));
+		assertEquals(Arrays.asList(new DateRangeImpl(21, 31)), finder.find(
+				window, 10, 1, 1));
+		assertTrue(finder.find(window, 101, 1, 1).isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> finder.find(
+				window, 10, 3, 1));
+		assertThrows(IllegalArgumentException.class, () -> finder.find(
+				new DateRangeImpl(5, 0), 1, 1, 1));
+	}
+}
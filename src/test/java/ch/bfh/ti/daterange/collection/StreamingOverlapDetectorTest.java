@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.impl.primitive.DateRangeImpl;
+
+/**
+ * Tests for class StreamingOverlapDetector.
+ */
+public class StreamingOverlapDetectorTest {
+
+	@Test
+	public void testRandom() {
+		Random random = new Random(4711);
+		List<DateRange> ranges = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			long start = 10 * i + random.nextInt(50);
+			ranges.add(new DateRangeImpl(start, start + random.nextInt(200)));
+		}
+		assertTrue(check(random, ranges) < 40);
+	}
+
+	@Test
+	public void testLongRanges() {
+		Random random = new Random(4712);
+		List<DateRange> ranges = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			long start = 10 * i + random.nextInt(50);
+			ranges.add(new DateRangeImpl(start, start
+					+ (random.nextInt(10) == 0 ? random.nextInt(5000) : 0)));
+		}
+		check(random, ranges);
+	}
+
+	/**
+	 * Shuffles the date ranges within the lateness and compares the reported
+	 * overlaps with the expected ones. Returns the maximal active count.
+	 */
+	private static int check(Random random, List<DateRange> ranges) {
+		for (int i = 0; i + 5 <= ranges.size(); i += 5)
+			Collections.shuffle(ranges.subList(i, i + 5), random);
+		Map<DateRange, Integer> index = new IdentityHashMap<>();
+		for (DateRange dr : ranges)
+			index.put(dr, index.size());
+		Set<List<Integer>> reported = new HashSet<>();
+		StreamingOverlapDetector<DateRange> detector =
+				new StreamingOverlapDetector<>(100, (a, b) -> assertTrue(reported
+						.add(pair(index.get(a), index.get(b)))));
+		int maxActive = 0;
+		for (DateRange dr : ranges) {
+			assertTrue(detector.accept(dr));
+			maxActive = Math.max(maxActive, detector.getActiveCount());
+		}
+		Set<List<Integer>> expected = new HashSet<>();
+		for (int i = 0; i < ranges.size(); i++) {
+			for (int j = 0; j < i; j++) {
+				DateRange a = ranges.get(i);
+				DateRange b = ranges.get(j);
+				if (a.overlaps(b))
+					expected.add(pair(index.get(a), index.get(b)));
+			}
+		}
+		assertEquals(expected, reported);
+		assertEquals(0, detector.getLateCount());
+		return maxActive;
+	}
+
+	private static List<Integer> pair(int i, int j) {
+		List<Integer> result = new ArrayList<>();
+		result.add(Math.min(i, j));
+		result.add(Math.max(i, j));
+		return result;
+	}
+
+	@Test
+	public void testLateAndEviction() {
+		List<DateRange> overlaps = new ArrayList<>();
+		StreamingOverlapDetector<DateRange> detector =
+				new StreamingOverlapDetector<>(10, (a, b) -> overlaps.add(b));
+		assertEquals(Long.MIN_VALUE, detector.getWatermark());
+		DateRange first = new DateRangeImpl(0, 30);
+		assertTrue(detector.accept(first));
+		assertTrue(detector.accept(new DateRangeImpl(20, 22)));
+		assertEquals(10, detector.getWatermark());
+		assertTrue(detector.accept(new DateRangeImpl(12, 15)));
+		assertEquals(2, overlaps.size());
+		assertFalse(detector.accept(new DateRangeImpl(5, 40)));
+		assertEquals(1, detector.getLateCount());
+		assertTrue(detector.accept(new DateRangeImpl(41, 50)));
+		assertEquals(1, detector.getActiveCount());
+		assertThrows(IllegalArgumentException.class, () -> detector.accept(
+				new DateRangeImpl(60, 50)));
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.impl.primitive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeTest;
+
+/**
+ * Runs the DateRange tests against the interning factory, plus tests of the
+ * cache itself.
+ */
+public class InterningDateRangeFactoryTest extends DateRangeTest {
+
+	@Override
+	protected ch.bfh.ti.daterange.DateRangeFactory createFactory() {
+		return new InterningDateRangeFactory();
+	}
+
+	@Test
+	public void testCanonicalInstances() {
+		InterningDateRangeFactory factory = new InterningDateRangeFactory(16);
+		DateRange dr1 = factory.createDateRange(DateFactory.createDate(2006,
+				3, 10), DateFactory.createDate(2006, 3, 20));
+		DateRange dr2 = factory.createDateRange(DateFactory.createDate(2006,
+				3, 10), DateFactory.createDate(2006, 3, 20));
+		assertSame(dr1, dr2);
+		assertEquals(1, factory.getHitCount());
+		assertEquals(1, factory.getMissCount());
+		assertEquals(0.5, factory.getHitRate());
+		factory.resetStatistics();
+		assertEquals(0, factory.getHitCount());
+	}
+
+	@Test
+	public void testBoundedWithLruEviction() {
+		InterningDateRangeFactory factory = new InterningDateRangeFactory(5);
+		assertEquals(8, factory.getCapacity());
+		DateRange first = factory.createDateRange(0, 1);
+		for (long i = 1; i < 1000; i++) {
+			factory.createDateRange(i, i + 1);
+			// Keep the first range the most recently used one of its set.
+			assertSame(first, factory.createDateRange(0, 1));
+		}
+		assertEquals(1000, factory.getMissCount());
+		assertEquals(999, factory.getHitCount());
+		// Range [1, 2] has been evicted long ago.
+		factory.createDateRange(1, 2);
+		assertEquals(1001, factory.getMissCount());
+		assertThrows(IllegalArgumentException.class,
+				() -> new InterningDateRangeFactory(1));
+	}
+
+	@Test
+	public void testSameSumOfLimits() {
+		InterningDateRangeFactory factory = new InterningDateRangeFactory(64);
+		for (int k = 0; k < 2; k++) {
+			for (long i = 0; i < 32; i++)
+				factory.createDateRange(1000 + i, 3000 - i);
+		}
+		// A hash of the sum of the limits maps all of them to one set, so that
+		// only the last two would be hits.
+		assertTrue(factory.getHitCount() > 24);
+	}
+
+	@Test
+	public void testConcurrentUse() throws Exception {
+		InterningDateRangeFactory factory = new InterningDateRangeFactory(64);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < 100000; i++) {
+					long start = i % 100;
+					DateRange dr = factory.createDateRange(start, start + 7);
+					assertEquals(start, dr.getStart().getTime());
+					assertEquals(start + 7, dr.getFinish().getTime());
+				}
+			}));
+		}
+		for (Future<?> f : futures)
+			f.get();
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+		assertEquals(400000, factory.getHitCount() + factory.getMissCount());
+	}
+}
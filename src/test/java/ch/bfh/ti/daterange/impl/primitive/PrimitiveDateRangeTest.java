@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.impl.primitive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeTest;
+
+/**
+ * Runs the DateRange tests against the primitive implementation, plus some
+ * tests specific to it.
+ */
+public class PrimitiveDateRangeTest extends DateRangeTest {
+
+	@Override
+	protected ch.bfh.ti.daterange.DateRangeFactory createFactory() {
+		return new DateRangeFactory();
+	}
+
+	@Test
+	public void testGettersReturnCopies() {
+		Date start = DateFactory.createDate(2006, 3, 10);
+		Date finish = DateFactory.createDate(2006, 3, 20);
+		DateRange dr = new DateRangeImpl(start, finish);
+		start.setTime(0L);
+		assertEquals(DateFactory.createDate(2006, 3, 10), dr.getStart());
+		dr.getFinish().setTime(0L);
+		assertEquals(finish, dr.getFinish());
+		assertNotSame(dr.getStart(), dr.getStart());
+	}
+
+	@Test
+	public void testHashCodeMatchesPojo() {
+		Date start = DateFactory.createDate(2006, 3, 10);
+		Date finish = DateFactory.createDate(2006, 3, 20);
+		assertEquals(new ch.bfh.ti.daterange.impl.pojo.DateRangeImpl(start,
+				finish).hashCode(), new DateRangeImpl(start, finish).hashCode());
+	}
+
+	@Test
+	public void testMixedImplementations() {
+		DateRange dr = new DateRangeImpl(DateFactory.createDate(2006, 3, 10),
+				DateFactory.createDate(2006, 3, 20));
+		DateRange pojo = new ch.bfh.ti.daterange.impl.pojo.DateRangeImpl(
+				DateFactory.createDate(2006, 3, 12),
+				DateFactory.createDate(2006, 3, 28));
+		assertTrue(dr.overlaps(pojo));
+		assertTrue(dr.startsBefore(pojo));
+		assertTrue(dr.compareTo(pojo) < 0);
+	}
+}
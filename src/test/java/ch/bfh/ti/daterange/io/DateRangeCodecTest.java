@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.collection.DateRangeList;
+import ch.bfh.ti.daterange.collection.DateRangeSet;
+
+/**
+ * Tests for classes DateRangeCodec and SerializedForm.
+ */
+public class DateRangeCodecTest {
+
+	private final ch.bfh.ti.daterange.impl.primitive.DateRangeFactory factory =
+			new ch.bfh.ti.daterange.impl.primitive.DateRangeFactory();
+
+	private List<DateRange> randomRanges(Random random, int n) {
+		List<DateRange> result = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			int day = random.nextInt(365);
+			int length = random.nextInt(30) - 2;
+			result.add(factory.createDateRange(
+					DateFactory.createDate(2006, 0, day),
+					DateFactory.createDate(2006, 0, day + length)));
+		}
+		return result;
+	}
+
+	private static Object copy(Object o) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(o);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray()))) {
+			return in.readObject();
+		}
+	}
+
+	@Test
+	public void testFixedRecords() throws IOException {
+		List<DateRange> ranges = randomRanges(new Random(4711), 100);
+		ByteBuffer buffer = ByteBuffer.allocate(100 * DateRangeCodec.RECORD_SIZE);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		for (DateRange dr : ranges) {
+			DateRangeCodec.put(buffer, dr);
+			DateRangeCodec.write(out, dr);
+		}
+		assertEquals(0, buffer.remaining());
+		assertEquals(100 * DateRangeCodec.RECORD_SIZE, bytes.size());
+		buffer.flip();
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				bytes.toByteArray()));
+		for (DateRange dr : ranges) {
+			assertEquals(dr, DateRangeCodec.get(buffer));
+			assertEquals(dr, DateRangeCodec.read(in));
+		}
+	}
+
+	@Test
+	public void testBatch() throws IOException {
+		List<DateRange> ranges = randomRanges(new Random(4712), 1000);
+		ranges.add(factory.createDateRange(Long.MIN_VALUE, Long.MAX_VALUE));
+		ranges.add(factory.createDateRange(Long.MAX_VALUE, Long.MIN_VALUE));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DateRangeCodec.writeBatch(new DataOutputStream(bytes), ranges);
+		bytes.write(42);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				bytes.toByteArray()));
+		List<DateRange> result = new ArrayList<>();
+		DateRangeCodec.readBatch(in,
+				(start, finish) -> result.add(factory.createDateRange(start,
+						finish)));
+		assertEquals(ranges, result);
+		assertEquals(42, in.read());
+	}
+
+	@Test
+	public void testSortedBatchIsCompact() throws IOException {
+		List<DateRange> random = randomRanges(new Random(4713), 1000);
+		random.removeIf(dr -> dr.getStart().after(dr.getFinish()));
+		DateRangeSet set = new DateRangeSet(random);
+		List<DateRange> ranges = new ArrayList<>();
+		for (int i = 0; i < set.size(); i++)
+			ranges.add(set.get(i));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DateRangeCodec.writeBatch(new DataOutputStream(bytes), set);
+		assertTrue(bytes.size() < 8 * set.size());
+		DateRangeList list = DateRangeCodec.readBatch(new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(ranges, list);
+	}
+
+	@Test
+	public void testStreamingWriter() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DateRangeCodec.BatchWriter writer = new DateRangeCodec.BatchWriter(
+				new DataOutputStream(bytes));
+		for (int i = 0; i < 1000; i++)
+			writer.accept(i * 1000L, i * 1000L + 500);
+		writer.close();
+		writer.close();
+		assertThrows(IllegalStateException.class, () -> writer.write(1, 2));
+		DateRangeList list = DateRangeCodec.readBatch(new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(1000, list.size());
+		assertEquals(999500, list.getFinishMillis(999));
+		byte[] truncated = new byte[bytes.size() - 1];
+		System.arraycopy(bytes.toByteArray(), 0, truncated, 0,
+				truncated.length);
+		assertThrows(EOFException.class,
+				() -> DateRangeCodec.readBatch(new DataInputStream(
+						new ByteArrayInputStream(truncated))));
+	}
+
+	@Test
+	public void testSerializedForm() throws Exception {
+		Date start = DateFactory.createDate(2006, 0, 1);
+		Date finish = DateFactory.createDate(2006, 5, 1);
+		DateRange primitive = factory.createDateRange(start, finish);
+		DateRange pojo = new ch.bfh.ti.daterange.impl.pojo.DateRangeFactory()
+				.createDateRange(start, finish);
+		Object copy = copy(primitive);
+		assertEquals(primitive.getClass(), copy.getClass());
+		assertEquals(primitive, copy);
+		copy = copy(pojo);
+		assertEquals(pojo.getClass(), copy.getClass());
+		assertEquals(pojo, copy);
+		DateRange open = (DateRange) copy(new ch.bfh.ti.daterange.impl.pojo.DateRangeImpl(
+				start, null));
+		assertEquals(start, open.getStart());
+		assertNull(open.getFinish());
+	}
+
+	@Test
+	public void testSerializedFormIsCompact() throws Exception {
+		List<DateRange> ranges = randomRanges(new Random(4714), 1000);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			for (DateRange dr : ranges)
+				out.writeObject(dr);
+		}
+		assertTrue(bytes.size() < 32 * ranges.size());
+	}
+}
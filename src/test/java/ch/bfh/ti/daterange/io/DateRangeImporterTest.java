@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeFactory;
+
+/**
+ * Tests for class DateRangeImporter.
+ */
+public class DateRangeImporterTest {
+
+	private final DateRangeFactory factory =
+			new ch.bfh.ti.daterange.impl.primitive.DateRangeFactory();
+
+	@TempDir
+	Path directory;
+
+	private List<DateRange> randomRanges(Random random, int n) {
+		List<DateRange> result = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			int year = 1950 + random.nextInt(100);
+			int day = random.nextInt(365);
+			result.add(factory.createDateRange(
+					DateFactory.createDate(year, 0, day),
+					DateFactory.createDate(year, 0, day + 1
+							+ random.nextInt(30))));
+		}
+		return result;
+	}
+
+	private static List<String> read(DateRangeImporter importer, String text)
+			throws IOException {
+		List<String> result = new ArrayList<>();
+		importer.read(Channels.newChannel(new ByteArrayInputStream(text
+				.getBytes(StandardCharsets.ISO_8859_1))), (start,
+				finish) -> result.add(start + "/" + finish));
+		return result;
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<DateRange> ranges = randomRanges(new Random(4711), 100000);
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < ranges.size(); i++)
+			text.append(ranges.get(i)).append(i % 3 == 0 ? "\r\n" : "\n");
+		Path path = directory.resolve("ranges.txt");
+		Files.write(path, text.toString().getBytes(StandardCharsets.ISO_8859_1));
+		assertEquals(ranges, new DateRangeImporter().readAll(path, factory));
+		List<String> expected = new ArrayList<>();
+		for (DateRange dr : ranges)
+			expected.add(dr.getStart().getTime() + "/"
+					+ dr.getFinish().getTime());
+		List<String> actual = Collections.synchronizedList(new ArrayList<>());
+		assertEquals(ranges.size(), new DateRangeImporter().readParallel(path,
+				(start, finish) -> actual.add(start + "/" + finish)));
+		Collections.sort(expected);
+		Collections.sort(actual);
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testLineForms() throws IOException {
+		long start = DateFactory.createDateMillis(2006, 0, 1);
+		long finish = DateFactory.createDateMillis(2006, 1, 28);
+		String expected = start + "/" + finish;
+		DateRangeImporter importer = new DateRangeImporter();
+		assertEquals(Arrays.asList(expected, expected, expected), read(
+				importer, "01.01.2006 - 28.02.2006\n\n" + DateRange.EMPTY
+						+ "\r\n1.1.2006 - 28.2.2006\r\n"
+						+ "01.01.2006 - 28.02.2006"));
+		assertEquals(Arrays.asList(start + "/"
+				+ DateFactory.createDateMillis(2006, 2, 1)), read(importer,
+				"01.01.2006 - 29.02.2006\n"));
+	}
+
+	@Test
+	public void testMalformedLines() throws IOException {
+		String text = "01.01.2006 - 28.02.2006\n" + "01.01.2006 -28.02.2006\n"
+				+ "01.01.2006 - 28.02.2006 \n" + "001.01.2006 - 28.02.2006\n"
+				+ "01.01.2006 - 28.02.\n" + "01.01.2006 - 28.02.2006\n"
+				+ "x";
+		List<String> errors = new ArrayList<>();
+		DateRangeImporter importer = new DateRangeImporter(
+				(lineNumber, line) -> errors.add(lineNumber + ": " + line));
+		assertEquals(2, read(importer, text).size());
+		assertEquals(Arrays.asList("2: 01.01.2006 -28.02.2006",
+				"3: 01.01.2006 - 28.02.2006 ", "4: 001.01.2006 - 28.02.2006",
+				"5: 01.01.2006 - 28.02.", "7: x"), errors);
+		IllegalArgumentException e = assertThrows(
+				IllegalArgumentException.class,
+				() -> read(new DateRangeImporter(), text));
+		assertEquals("Line 2: not a date range: 01.01.2006 -28.02.2006",
+				e.getMessage());
+	}
+
+	@Test
+	public void testLongLine() throws IOException {
+		char[] filler = new char[200000];
+		Arrays.fill(filler, '1');
+		List<Long> errors = new ArrayList<>();
+		DateRangeImporter importer = new DateRangeImporter(
+				(lineNumber, line) -> errors.add(lineNumber));
+		assertEquals(2, read(importer, "01.01.2006 - 28.02.2006\n"
+				+ new String(filler) + "\n01.01.2006 - 28.02.2006\n").size());
+		assertEquals(Arrays.asList(2L), errors);
+	}
+
+	@Test
+	public void testParallelMalformedLines() throws IOException {
+		List<DateRange> ranges = randomRanges(new Random(4712), 200000);
+		StringBuilder text = new StringBuilder();
+		List<Long> expected = new ArrayList<>();
+		for (int i = 0; i < ranges.size(); i++) {
+			if (i % 20000 == 7) {
+				text.append("garbage\n");
+				expected.add((long) i + 1);
+			} else {
+				text.append(ranges.get(i)).append('\n');
+			}
+		}
+		Path path = directory.resolve("malformed.txt");
+		Files.write(path, text.toString().getBytes(StandardCharsets.ISO_8859_1));
+		List<Long> errors = new ArrayList<>();
+		long count = new DateRangeImporter((lineNumber, line) -> errors
+				.add(lineNumber)).readParallel(path, (start, finish) -> {
+		});
+		assertEquals(ranges.size() - expected.size(), count);
+		assertEquals(expected, errors);
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeFactory;
+
+/**
+ * Tests for class MappedDateRangeStore.
+ */
+public class MappedDateRangeStoreTest {
+
+	private final DateRangeFactory factory =
+			new ch.bfh.ti.daterange.impl.primitive.DateRangeFactory();
+
+	@TempDir
+	Path directory;
+
+	private List<DateRange> randomRanges(Random random, int n) {
+		List<DateRange> result = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			int day = random.nextInt(365);
+			int length = random.nextInt(20) == 0 ? random.nextInt(200)
+					: random.nextInt(10);
+			result.add(factory.createDateRange(
+					DateFactory.createDate(2006, 0, day),
+					DateFactory.createDate(2006, 0, day + length)));
+		}
+		return result;
+	}
+
+	private MappedDateRangeStore store(List<DateRange> ranges, int blockSize)
+			throws IOException {
+		Path path = directory.resolve("store-" + blockSize);
+		List<DateRange> sorted = new ArrayList<>(ranges);
+		Collections.sort(sorted);
+		try (MappedDateRangeStore.Writer writer = new MappedDateRangeStore.Writer(
+				path, blockSize)) {
+			for (DateRange dr : sorted)
+				writer.write(dr.getStart().getTime(), dr.getFinish().getTime());
+		}
+		return MappedDateRangeStore.open(path);
+	}
+
+	private static List<DateRange> collect(MappedDateRangeStore store,
+			boolean window, long from, long to) {
+		List<DateRange> result = new ArrayList<>();
+		ch.bfh.ti.daterange.collection.DateRangeSink sink = (start,
+				finish) -> result.add(
+						new ch.bfh.ti.daterange.impl.primitive.DateRangeImpl(
+								start, finish));
+		if (window)
+			store.window(from, to, sink);
+		else
+			store.overlapping(from, to, sink);
+		return result;
+	}
+
+	@Test
+	public void testQueries() throws IOException {
+		List<DateRange> ranges = randomRanges(new Random(4711), 2000);
+		List<DateRange> sorted = new ArrayList<>(ranges);
+		Collections.sort(sorted);
+		for (int blockSize : new int[] { 1, 7, 64, MappedDateRangeStore.BLOCK_SIZE }) {
+			try (MappedDateRangeStore store = store(ranges, blockSize)) {
+				assertEquals(ranges.size(), store.size());
+				for (int i = 0; i < sorted.size(); i++)
+					assertEquals(sorted.get(i), store.get(i));
+				Random random = new Random(4712);
+				for (int k = 0; k < 200; k++) {
+					Date a = DateFactory.createDate(2006, 0,
+							random.nextInt(400) - 20);
+					Date b = DateFactory.createDate(2006, 0,
+							random.nextInt(400) - 20);
+					DateRange arg = factory.createDateRange(a, b);
+					List<DateRange> overlapping = new ArrayList<>();
+					List<DateRange> window = new ArrayList<>();
+					boolean includes = false;
+					for (DateRange dr : sorted) {
+						if (dr.overlaps(arg))
+							overlapping.add(dr);
+						if (!dr.getStart().before(a) && !dr.getStart().after(b))
+							window.add(dr);
+						includes |= dr.includes(a);
+					}
+					assertEquals(!overlapping.isEmpty(), store.overlaps(arg));
+					assertEquals(includes, store.includes(a));
+					assertEquals(overlapping, collect(store, false,
+							a.getTime(), b.getTime()));
+					assertEquals(window, collect(store, true, a.getTime(),
+							b.getTime()));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testWriteUnsorted() throws IOException {
+		List<DateRange> ranges = randomRanges(new Random(4713), 500);
+		Path path = directory.resolve("unsorted");
+		MappedDateRangeStore.write(path, ranges);
+		Collections.sort(ranges);
+		try (MappedDateRangeStore store = MappedDateRangeStore.open(path)) {
+			for (int i = 0; i < ranges.size(); i++) {
+				assertEquals(ranges.get(i).getStart().getTime(),
+						store.getStartMillis(i));
+				assertEquals(ranges.get(i).getFinish().getTime(),
+						store.getFinishMillis(i));
+			}
+			assertThrows(IndexOutOfBoundsException.class,
+					() -> store.get(ranges.size()));
+		}
+	}
+
+	@Test
+	public void testEmptyAndInvalid() throws IOException {
+		Path path = directory.resolve("empty");
+		MappedDateRangeStore.write(path, new ArrayList<>());
+		try (MappedDateRangeStore store = MappedDateRangeStore.open(path)) {
+			assertEquals(0, store.size());
+			assertFalse(store.includes(0));
+			assertFalse(store.overlaps(Long.MIN_VALUE, Long.MAX_VALUE));
+		}
+		try (MappedDateRangeStore.Writer writer = new MappedDateRangeStore.Writer(
+				directory.resolve("invalid"))) {
+			writer.write(5, 6);
+			assertThrows(IllegalArgumentException.class,
+					() -> writer.write(4, 6));
+			assertThrows(IllegalArgumentException.class,
+					() -> writer.write(8, 7));
+		}
+		Path garbage = directory.resolve("garbage");
+		Files.write(garbage, new byte[64]);
+		assertThrows(IOException.class, () -> MappedDateRangeStore.open(garbage));
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.DateRangeFactory;
+import ch.bfh.ti.daterange.collection.DateRangeIndex;
+import ch.bfh.ti.daterange.collection.DateRangeList;
+import ch.bfh.ti.daterange.collection.DateRangeSet;
+import ch.bfh.ti.daterange.collection.OverlapJoin;
+import ch.bfh.ti.daterange.io.DateRangeImporter;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Tests the instrumented operations. Run by the surefire execution
+ * "instrumented", which enables the instrumentation; excluded otherwise.
+ */
+public class InstrumentationTest {
+
+	private interface Action {
+		void run() throws Exception;
+	}
+
+	private Metrics record(Action action) throws Exception {
+		MetricsSink previous = Instrumentation.getSink();
+		Metrics metrics = new Metrics();
+		try {
+			Instrumentation.setSink(metrics);
+			action.run();
+		} finally {
+			Instrumentation.setSink(previous);
+		}
+		return metrics;
+	}
+
+	@Test
+	public void testEnabled() {
+		assertTrue(Instrumentation.ENABLED);
+	}
+
+	@Test
+	public void testOperations() throws Exception {
+		// initializes DateFactory, whose constants are created dates, too
+		Date start = DateFactory.createDate(2006, 0, 1);
+		Date finish = DateFactory.createDate(2006, 0, 5);
+		Metrics metrics = record(() -> DateFactory.createDate(2006, 0, 1));
+		assertEquals(1, metrics.getCount(Operation.CREATE_DATE));
+		metrics = record(() -> DateFactory.addDays(start, 3));
+		assertEquals(1, metrics.getCount(Operation.ADD_DAYS));
+		for (DateRangeFactory factory : Arrays.asList(
+				new ch.bfh.ti.daterange.impl.pojo.DateRangeFactory(),
+				new ch.bfh.ti.daterange.impl.primitive.DateRangeFactory())) {
+			metrics = record(() -> factory.createDateRange(start, finish));
+			assertEquals(1, metrics.getCount(Operation.CREATE_DATE_RANGE));
+			assertEquals(1, metrics.getAllocations(Operation.CREATE_DATE_RANGE));
+		}
+		long[] starts = { 1, 5, 9 };
+		long[] finishes = { 4, 8, 12 };
+		metrics = record(() -> DateRangeList.of(starts, finishes));
+		assertEquals(1, metrics.getCount(Operation.BULK_CREATE));
+		assertEquals(3, metrics.getAllocations(Operation.BULK_CREATE));
+		DateRangeList list = DateRangeList.of(starts, finishes);
+		List<DateRange> ranges = new ArrayList<>(list);
+		metrics = record(() -> new DateRangeSet(ranges));
+		assertEquals(1, metrics.getCount(Operation.BUILD_SET));
+		DateRangeSet set = new DateRangeSet(ranges);
+		metrics = record(() -> {
+			set.includes(6);
+			set.overlaps(13, 20);
+		});
+		assertEquals(2, metrics.getCount(Operation.SET_QUERY));
+		metrics = record(() -> new DateRangeIndex(ranges));
+		assertEquals(1, metrics.getCount(Operation.BUILD_INDEX));
+		assertEquals(3, metrics.getAllocations(Operation.BUILD_INDEX));
+		DateRangeIndex index = new DateRangeIndex(ranges);
+		metrics = record(() -> {
+			index.stab(6);
+			index.overlapping(2, 6);
+			index.containedIn(0, 10);
+		});
+		assertEquals(3, metrics.getCount(Operation.INDEX_QUERY));
+		metrics = record(() -> OverlapJoin.join(ranges, ranges, (l, r) -> {
+		}));
+		assertEquals(1, metrics.getCount(Operation.OVERLAP_JOIN));
+		assertEquals(6, metrics.getAllocations(Operation.OVERLAP_JOIN));
+		byte[] text = "01.01.2006 - 05.01.2006\n03.02.2006 - 04.02.2006\n"
+				.getBytes(StandardCharsets.US_ASCII);
+		metrics = record(() -> new DateRangeImporter().read(Channels
+				.newChannel(new ByteArrayInputStream(text)), (s, f) -> {
+		}));
+		assertEquals(1, metrics.getCount(Operation.IMPORT));
+		assertEquals(2, metrics.getAllocations(Operation.IMPORT));
+	}
+
+	@Test
+	public void testBulkOperationEvent() throws Exception {
+		Path file = Files.createTempFile("instrumentation", ".jfr");
+		try {
+			try (Recording recording = new Recording()) {
+				recording.enable(BulkOperationEvent.class).withoutThreshold();
+				recording.start();
+				DateRangeList.of(new long[100_000], new long[100_000]);
+				recording.stop();
+				recording.dump(file);
+			}
+			List<RecordedEvent> events = new ArrayList<>();
+			for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+				if (event.getEventType().getName().equals(
+						"ch.bfh.ti.daterange.BulkOperation"))
+					events.add(event);
+			}
+			assertEquals(1, events.size());
+			RecordedEvent event = events.get(0);
+			assertEquals("BULK_CREATE", event.getString("operation"));
+			assertEquals(100_000, event.getLong("size"));
+			assertFalse(event.hasField("startNanos"));
+			assertFalse(event.getDuration().isNegative());
+			assertFalse(event.getEndTime().isBefore(event.getStartTime()));
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
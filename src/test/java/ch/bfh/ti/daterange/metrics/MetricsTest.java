@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the classes Metrics and Instrumentation.
+ */
+public class MetricsTest {
+
+	@Test
+	public void testRecord() {
+		Metrics metrics = new Metrics();
+		metrics.record(Operation.SET_QUERY, 0, 0);
+		metrics.record(Operation.SET_QUERY, 100, 0);
+		metrics.record(Operation.SET_QUERY, 1000, 0);
+		metrics.record(Operation.BUILD_SET, 5000, 300);
+		assertEquals(3, metrics.getCount(Operation.SET_QUERY));
+		assertEquals(1100, metrics.getTotalNanos(Operation.SET_QUERY));
+		assertEquals(300, metrics.getAllocations(Operation.BUILD_SET));
+		assertEquals(0, metrics.getCount(Operation.IMPORT));
+		long[] histogram = metrics.getHistogram(Operation.SET_QUERY);
+		long[] expected = new long[Metrics.BUCKETS];
+		expected[0] = 1;
+		expected[7] = 1;
+		expected[10] = 1;
+		assertArrayEquals(expected, histogram);
+		assertEquals(1, metrics.getPercentileNanos(Operation.SET_QUERY, 30));
+		assertEquals(128, metrics.getPercentileNanos(Operation.SET_QUERY, 50));
+		assertEquals(1024, metrics.getPercentileNanos(Operation.SET_QUERY, 99));
+		assertEquals(0, metrics.getPercentileNanos(Operation.IMPORT, 99));
+		assertTrue(metrics.toString().startsWith("BUILD_SET: count=1"));
+		metrics.reset();
+		assertEquals(0, metrics.getCount(Operation.SET_QUERY));
+		assertEquals("", metrics.toString());
+	}
+
+	@Test
+	public void testConcurrentRecord() {
+		Metrics metrics = new Metrics();
+		IntStream.range(0, 100_000).parallel().forEach(
+				i -> metrics.record(Operation.CREATE_DATE, i % 10, 1));
+		assertEquals(100_000, metrics.getCount(Operation.CREATE_DATE));
+		assertEquals(450_000, metrics.getTotalNanos(Operation.CREATE_DATE));
+		assertEquals(100_000, metrics.getAllocations(Operation.CREATE_DATE));
+	}
+
+	@Test
+	public void testInstrumentation() {
+		MetricsSink previous = Instrumentation.getSink();
+		Metrics metrics = new Metrics();
+		try {
+			Instrumentation.setSink(metrics);
+			assertSame(metrics, Instrumentation.getSink());
+			long start = Instrumentation.start();
+			Instrumentation.stop(Operation.CREATE_DATE, start, 1);
+			assertEquals(Instrumentation.ENABLED ? 1 : 0,
+					metrics.getCount(Operation.CREATE_DATE));
+			if (!Instrumentation.ENABLED)
+				assertEquals(0, start);
+		} finally {
+			Instrumentation.setSink(previous);
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> Instrumentation.setSink(null));
+	}
+}
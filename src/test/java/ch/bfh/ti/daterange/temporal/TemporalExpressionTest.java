@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.temporal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import ch.bfh.ti.daterange.DateFactory;
+import ch.bfh.ti.daterange.DateRange;
+import ch.bfh.ti.daterange.impl.pojo.DateRangeImpl;
+
+/**
+ * Tests for temporal expressions. The expressions are compared with the
+ * fields computed by java.util.Calendar.
+ */
+public class TemporalExpressionTest {
+
+	private static final TemporalExpression MONDAY = new DayOfWeekExpression(
+			Calendar.MONDAY);
+
+	private static final TemporalExpression LAST_FRIDAY = new DayInMonthExpression(
+			Calendar.FRIDAY, -1);
+
+	private static final TemporalExpression SECOND_TUESDAY = new DayInMonthExpression(
+			Calendar.TUESDAY, 2);
+
+	private static final TemporalExpression SUMMER = new RangeEachYearExpression(
+			DateFactory.JULY, 10, DateFactory.AUGUST, 15);
+
+	private static final TemporalExpression WINTER = new RangeEachYearExpression(
+			DateFactory.DECEMBER, 20, DateFactory.JANUARY, 6);
+
+	private static List<Date> days(int fromYear, int toYear) {
+		List<Date> result = new ArrayList<>();
+		for (Date d = DateFactory.createDate(fromYear, 0, 1); d
+				.before(DateFactory.createDate(toYear, 0, 1)); d = DateFactory
+						.addDays(d, 1))
+			result.add(d);
+		return result;
+	}
+
+	@Test
+	public void testIncludes() {
+		Calendar c = new GregorianCalendar();
+		for (Date d : days(1999, 2006)) {
+			c.setTime(d);
+			int dow = c.get(Calendar.DAY_OF_WEEK);
+			int day = c.get(Calendar.DAY_OF_MONTH);
+			int month = c.get(Calendar.MONTH);
+			int length = c.getActualMaximum(Calendar.DAY_OF_MONTH);
+			assertEquals(dow == Calendar.MONDAY, MONDAY.includes(d));
+			assertEquals(dow == Calendar.FRIDAY && day + 7 > length,
+					LAST_FRIDAY.includes(d));
+			assertEquals(dow == Calendar.TUESDAY && day > 7 && day <= 14,
+					SECOND_TUESDAY.includes(d));
+			int key = month * 100 + day;
+			assertEquals(key >= 610 && key <= 715, SUMMER.includes(d));
+			assertEquals(key >= 1120 || key <= 6, WINTER.includes(d));
+		}
+	}
+
+	@Test
+	public void testOccurrencesMatchIncludes() {
+		TemporalExpression[] expressions = { MONDAY, LAST_FRIDAY,
+				SECOND_TUESDAY, SUMMER, WINTER,
+				new UnionExpression(LAST_FRIDAY, SECOND_TUESDAY),
+				new IntersectionExpression(MONDAY, SUMMER),
+				new IntersectionExpression(MONDAY, LAST_FRIDAY),
+				new DifferenceExpression(MONDAY, SUMMER) };
+		List<Date> days = days(2003, 2007);
+		DateRange range = new DateRangeImpl(DateFactory.createDate(2003, 2, 3),
+				DateFactory.createDate(2006, 7, 20));
+		for (TemporalExpression e : expressions) {
+			List<Date> expected = new ArrayList<>();
+			for (Date d : days)
+				if (range.includes(d) && e.includes(d))
+					expected.add(d);
+			assertEquals(expected, e.stream(range).collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void testLeapDay() {
+		TemporalExpression leapDay = new RangeEachYearExpression(
+				DateFactory.FEBRUARY, 29, DateFactory.FEBRUARY, 29);
+		assertFalse(leapDay.includes(DateFactory.createDate(2023, 2, 1)));
+		DateRange year2023 = new DateRangeImpl(DateFactory.createDate(2023, 0,
+				1), DateFactory.createDate(2023, 11, 31));
+		assertFalse(leapDay.occurrences(year2023).hasNext());
+		DateRange range = new DateRangeImpl(DateFactory.createDate(2021, 0, 1),
+				DateFactory.createDate(2029, 11, 31));
+		List<Date> expected = new ArrayList<>();
+		for (int year = 2024; year < 2030; year += 4)
+			expected.add(DateFactory.createDate(year, DateFactory.FEBRUARY, 29));
+		assertEquals(expected, leapDay.stream(range).collect(Collectors
+				.toList()));
+		TemporalExpression untilMarch = new RangeEachYearExpression(
+				DateFactory.FEBRUARY, 29, DateFactory.MARCH, 2);
+		assertEquals(DateFactory.createDate(2023, 2, 1), untilMarch
+				.occurrences(year2023).next());
+	}
+
+	@Test
+	public void testCombinations() {
+		Date monday = DateFactory.createDate(2006, DateFactory.JULY, 17);
+		Date friday = DateFactory.createDate(2006, DateFactory.JULY, 28);
+		assertTrue(new IntersectionExpression(MONDAY, SUMMER).includes(monday));
+		assertFalse(new DifferenceExpression(MONDAY, SUMMER).includes(monday));
+		assertTrue(new UnionExpression(MONDAY, LAST_FRIDAY).includes(friday));
+		assertFalse(new IntersectionExpression(MONDAY, LAST_FRIDAY)
+				.includes(friday));
+	}
+
+	@Test
+	public void testOccurrencesAreLazy() {
+		DateRange range = new DateRangeImpl(DateFactory.createDate(2006, 0, 1),
+				DateFactory.INFINITY);
+		Iterator<Date> it = MONDAY.occurrences(range);
+		Date first = it.next();
+		assertTrue(MONDAY.includes(first));
+		assertEquals(DateFactory.addDays(first, 7), it.next());
+	}
+
+	@Test
+	public void testIllegalArguments() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new DayOfWeekExpression(0));
+		assertThrows(IllegalArgumentException.class,
+				() -> new DayInMonthExpression(Calendar.MONDAY, 6));
+		assertThrows(IllegalArgumentException.class,
+				() -> new RangeEachYearExpression(12, 1));
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2006-2015 Berner Fachhochschule, Switzerland.
+ *
+ * Project Date Range.
+ *
+ * A small library dealing with date ranges. Useful for the treatment of
+ * recurring events. See also http://martinfowler.com/apsupp/recurring.pdf
+ *
+ * Distributable under GPL license. See terms of license at gnu.org.
+ */
+package ch.bfh.ti.daterange.collection;
+
+import static jdk.incubator.vector.VectorOperators.GE;
+import static jdk.incubator.vector.VectorOperators.LE;
+import static jdk.incubator.vector.VectorOperators.OR;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Evaluates date range predicates over columns with the incubating Vector
+ * API of Java 17, comparing as many date ranges per instruction as the
+ * preferred vector shape holds. Compiled by the <code>vector</code> profile
+ * only, and loaded by {@link ColumnPredicates} if the module
+ * jdk.incubator.vector is present. The last, incomplete mask word is
+ * computed by the scalar kernel.
+ */
+final class VectorColumnKernel implements ColumnKernel {
+
+	private static final VectorSpecies<Long> SPECIES =
+			LongVector.SPECIES_PREFERRED;
+
+	private static final int LANES = SPECIES.length();
+
+	/**
+	 * Lane i holds 1L &lt;&lt; i. Blending it with a comparison mask and
+	 * reducing the lanes by OR yields the bits of the mask, which is better
+	 * supported by the JIT of Java 17 than VectorMask.toLong().
+	 */
+	private static final LongVector LANE_BITS = LongVector.fromArray(SPECIES,
+			laneBits(), 0);
+
+	private static long[] laneBits() {
+		long[] result = new long[LANES];
+		for (int i = 0; i < LANES; i++)
+			result[i] = 1L << i;
+		return result;
+	}
+
+	private static long bits(VectorMask<Long> mask) {
+		return LongVector.zero(SPECIES).blend(LANE_BITS, mask).reduceLanes(OR);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void includes(long[] starts, long[] finishes, int n, long arg,
+			long[] mask) {
+		int bound = n & ~63;
+		for (int i = 0; i < bound; i += 64) {
+			long word = 0;
+			for (int b = 0; b < 64; b += LANES) {
+				LongVector s = LongVector.fromArray(SPECIES, starts, i + b);
+				LongVector f = LongVector.fromArray(SPECIES, finishes, i + b);
+				VectorMask<Long> hit = s.compare(LE, arg).and(
+						f.compare(GE, arg));
+				word |= bits(hit) << b;
+			}
+			mask[i >>> 6] = word;
+		}
+		ScalarColumnKernel.includes(starts, finishes, bound, n, arg, mask);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void overlaps(long[] starts, long[] finishes, int n,
+			long windowStart, long windowFinish, long[] mask) {
+		int bound = n & ~63;
+		for (int i = 0; i < bound; i += 64) {
+			long word = 0;
+			for (int b = 0; b < 64; b += LANES) {
+				LongVector s = LongVector.fromArray(SPECIES, starts, i + b);
+				LongVector f = LongVector.fromArray(SPECIES, finishes, i + b);
+				VectorMask<Long> startInside = s.compare(GE, windowStart)
+						.and(s.compare(LE, windowFinish));
+				VectorMask<Long> finishInside = f.compare(GE, windowStart)
+						.and(f.compare(LE, windowFinish));
+				VectorMask<Long> windowInside = s.compare(LE, windowStart)
+						.and(f.compare(GE, windowStart))
+						.and(s.compare(LE, windowFinish))
+						.and(f.compare(GE, windowFinish));
+				word |= bits(startInside.or(finishInside).or(windowInside))
+						<< b;
+			}
+			mask[i >>> 6] = word;
+		}
+		ScalarColumnKernel.overlaps(starts, finishes, bound, n, windowStart,
+				windowFinish, mask);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void isEmpty(long[] starts, long[] finishes, int n, long[] mask) {
+		int bound = n & ~63;
+		for (int i = 0; i < bound; i += 64) {
+			long word = 0;
+			for (int b = 0; b < 64; b += LANES) {
+				LongVector s = LongVector.fromArray(SPECIES, starts, i + b);
+				LongVector f = LongVector.fromArray(SPECIES, finishes, i + b);
+				word |= bits(s.compare(GE, f)) << b;
+			}
+			mask[i >>> 6] = word;
+		}
+		ScalarColumnKernel.isEmpty(starts, finishes, bound, n, mask);
+	}
+}